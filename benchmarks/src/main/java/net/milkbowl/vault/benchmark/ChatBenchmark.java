@@ -0,0 +1,112 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import net.milkbowl.vault.chat.Chat;
+import net.milkbowl.vault.permission.Permission;
+
+import org.bukkit.OfflinePlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Chat prefix and info node lookups through their OfflinePlayer and name based entry points.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+@SuppressWarnings("deprecation")
+public class ChatBenchmark {
+
+    @Param({ "1000" })
+    public int players;
+
+    private Chat chat;
+    private OfflinePlayer[] offlinePlayers;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        Permission permission = new StubPermission();
+        chat = new StubChat(permission);
+        offlinePlayers = Fixtures.players(players);
+        names = new String[players];
+        chat.setGroupPrefix((String) null, "default", "[Member] ");
+        for (int i = 0; i < players; i++) {
+            names[i] = offlinePlayers[i].getName();
+            permission.playerAddGroup((String) null, names[i], "default");
+            chat.setPlayerPrefix((String) null, names[i], "[P" + i + "] ");
+            chat.setPlayerInfoInteger((String) null, names[i], "homes", i % 10);
+            chat.setPlayerInfoString((String) null, names[i], "nickname", "nick" + i);
+        }
+    }
+
+    private int next() {
+        return ThreadLocalRandom.current().nextInt(players);
+    }
+
+    @Benchmark
+    public String playerPrefixByName() {
+        return chat.getPlayerPrefix("world", names[next()]);
+    }
+
+    @Benchmark
+    public String playerPrefixByPlayer() {
+        return chat.getPlayerPrefix("world", offlinePlayers[next()]);
+    }
+
+    @Benchmark
+    public String groupPrefix() {
+        return chat.getGroupPrefix("world", "default");
+    }
+
+    @Benchmark
+    public int playerInfoIntegerByPlayer() {
+        return chat.getPlayerInfoInteger("world", offlinePlayers[next()], "homes", 1);
+    }
+
+    @Benchmark
+    public String playerInfoStringByPlayer() {
+        return chat.getPlayerInfoString("world", offlinePlayers[next()], "nickname", null);
+    }
+
+    @Benchmark
+    public String primaryGroupByPlayer() {
+        return chat.getPrimaryGroup("world", offlinePlayers[next()]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String playerPrefixContended() {
+        return chat.getPlayerPrefix("world", offlinePlayers[next()]);
+    }
+}
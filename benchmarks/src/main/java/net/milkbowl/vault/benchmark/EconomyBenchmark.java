@@ -0,0 +1,173 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import net.milkbowl.vault.economy.ConcurrentEconomy;
+import net.milkbowl.vault.economy.Economy;
+
+import org.bukkit.OfflinePlayer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the Economy entry points on top of a trivial backend, comparing the OfflinePlayer overloads
+ * with the name based methods they delegate to in AbstractEconomy.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+@SuppressWarnings("deprecation")
+public class EconomyBenchmark {
+
+    @Param({ "1000" })
+    public int accounts;
+
+    /**
+     * "none" for the provider itself, "concurrent" for the provider wrapped in a ConcurrentEconomy
+     */
+    @Param({ "none", "concurrent" })
+    public String wrapper;
+
+    private Economy economy;
+    private OfflinePlayer[] players;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        Economy provider = new StubEconomy();
+        economy = wrapper.equals("concurrent") ? new ConcurrentEconomy(provider) : provider;
+        players = Fixtures.players(accounts);
+        names = new String[accounts];
+        for (int i = 0; i < accounts; i++) {
+            names[i] = players[i].getName();
+            economy.createPlayerAccount(players[i]);
+            economy.depositPlayer(players[i], 1000);
+        }
+        economy.createBank("bank", players[0]);
+    }
+
+    private int next() {
+        return ThreadLocalRandom.current().nextInt(accounts);
+    }
+
+    @Benchmark
+    public double getBalanceByName() {
+        return economy.getBalance(names[next()]);
+    }
+
+    @Benchmark
+    public double getBalanceByPlayer() {
+        return economy.getBalance(players[next()]);
+    }
+
+    @Benchmark
+    public double getBalanceByPlayerInWorld() {
+        return economy.getBalance(players[next()], "world");
+    }
+
+    @Benchmark
+    public boolean hasByName() {
+        return economy.has(names[next()], 10);
+    }
+
+    @Benchmark
+    public boolean hasByPlayer() {
+        return economy.has(players[next()], 10);
+    }
+
+    @Benchmark
+    public boolean hasAccountByPlayer() {
+        return economy.hasAccount(players[next()]);
+    }
+
+    @Benchmark
+    public void depositWithdrawByName(Blackhole blackhole) {
+        String name = names[next()];
+        blackhole.consume(economy.depositPlayer(name, 1));
+        blackhole.consume(economy.withdrawPlayer(name, 1));
+    }
+
+    @Benchmark
+    public void depositWithdrawByPlayer(Blackhole blackhole) {
+        OfflinePlayer player = players[next()];
+        blackhole.consume(economy.depositPlayer(player, 1));
+        blackhole.consume(economy.withdrawPlayer(player, 1));
+    }
+
+    @Benchmark
+    public void depositWithdrawMinor(Blackhole blackhole) {
+        OfflinePlayer player = players[next()];
+        blackhole.consume(economy.depositPlayerMinor(player, 100));
+        blackhole.consume(economy.withdrawPlayerMinor(player, 100));
+    }
+
+    @Benchmark
+    public void transfer(Blackhole blackhole) {
+        OfflinePlayer from = players[next()];
+        OfflinePlayer to = players[next()];
+        blackhole.consume(economy.transfer(from, to, 1));
+        blackhole.consume(economy.transfer(to, from, 1));
+    }
+
+    @Benchmark
+    public boolean isBankOwner() {
+        return economy.isBankOwner("bank", players[0]).transactionSuccess();
+    }
+
+    @Benchmark
+    public boolean isBankOwnerFast() {
+        return economy.isBankOwnerFast("bank", players[0]);
+    }
+
+    /**
+     * Every thread pays random players, so threads mostly touch different accounts
+     */
+    @Benchmark
+    @Threads(4)
+    public void contendedRandomAccounts(Blackhole blackhole) {
+        OfflinePlayer player = players[next()];
+        blackhole.consume(economy.depositPlayer(player, 1));
+        blackhole.consume(economy.withdrawPlayer(player, 1));
+    }
+
+    /**
+     * Every thread pays the same player, so all threads fight over one account
+     */
+    @Benchmark
+    @Threads(4)
+    public void contendedSingleAccount(Blackhole blackhole) {
+        OfflinePlayer player = players[0];
+        blackhole.consume(economy.depositPlayer(player, 1));
+        blackhole.consume(economy.withdrawPlayer(player, 1));
+    }
+}
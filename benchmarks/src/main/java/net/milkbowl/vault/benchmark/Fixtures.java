@@ -0,0 +1,83 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.util.UUID;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+
+/**
+ * Minimal Bukkit objects for driving providers outside of a server.
+ * Built as dynamic proxies so they only implement what the API under test actually calls.
+ */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static OfflinePlayer player(final String name) {
+        final UUID id = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes());
+        return (OfflinePlayer) Proxy.newProxyInstance(Fixtures.class.getClassLoader(), new Class<?>[] { OfflinePlayer.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getName":
+                    case "toString":
+                        return name;
+                    case "getUniqueId":
+                        return id;
+                    case "isOnline":
+                    case "hasPlayedBefore":
+                        return Boolean.TRUE;
+                    case "hashCode":
+                        return id.hashCode();
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    static OfflinePlayer[] players(int count) {
+        OfflinePlayer[] players = new OfflinePlayer[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = player("player" + i);
+        }
+        return players;
+    }
+
+    static World world(final String name) {
+        final UUID id = UUID.nameUUIDFromBytes(("World:" + name).getBytes());
+        return (World) Proxy.newProxyInstance(Fixtures.class.getClassLoader(), new Class<?>[] { World.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                    case "getName":
+                    case "toString":
+                        return name;
+                    case "getUID":
+                        return id;
+                    case "hashCode":
+                        return id.hashCode();
+                    case "equals":
+                        return proxy == args[0];
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
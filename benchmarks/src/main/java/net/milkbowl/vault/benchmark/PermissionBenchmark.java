@@ -0,0 +1,126 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import net.milkbowl.vault.permission.Permission;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the Permission overload chains, for example playerHas(String, OfflinePlayer, String) going through
+ * the deprecated has(String, String, String) down to the abstract playerHas(String, String, String).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+@SuppressWarnings("deprecation")
+public class PermissionBenchmark {
+
+    @Param({ "1000" })
+    public int players;
+
+    @Param({ "50" })
+    public int nodesPerGroup;
+
+    private Permission permission;
+    private OfflinePlayer[] offlinePlayers;
+    private String[] names;
+    private World world;
+    private String hit;
+    private String miss;
+
+    @Setup
+    public void setup() {
+        permission = new StubPermission();
+        offlinePlayers = Fixtures.players(players);
+        names = new String[players];
+        world = Fixtures.world("world");
+        for (int i = 0; i < nodesPerGroup; i++) {
+            permission.groupAdd((String) null, "default", "plugin.node" + i);
+        }
+        for (int i = 0; i < players; i++) {
+            names[i] = offlinePlayers[i].getName();
+            permission.playerAddGroup((String) null, names[i], "default");
+            permission.playerAdd((String) null, names[i], "plugin.personal");
+        }
+        hit = "plugin.node" + (nodesPerGroup - 1);
+        miss = "plugin.missing";
+    }
+
+    private int next() {
+        return ThreadLocalRandom.current().nextInt(players);
+    }
+
+    @Benchmark
+    public boolean playerHasByName() {
+        return permission.playerHas("world", names[next()], hit);
+    }
+
+    @Benchmark
+    public boolean playerHasByPlayer() {
+        return permission.playerHas("world", offlinePlayers[next()], hit);
+    }
+
+    @Benchmark
+    public boolean playerHasByWorldObject() {
+        return permission.playerHas(world, names[next()], hit);
+    }
+
+    @Benchmark
+    public boolean playerHasMiss() {
+        return permission.playerHas("world", offlinePlayers[next()], miss);
+    }
+
+    @Benchmark
+    public boolean hasDeprecated() {
+        return permission.has(world, names[next()], hit);
+    }
+
+    @Benchmark
+    public boolean groupHas() {
+        return permission.groupHas(world, "default", hit);
+    }
+
+    @Benchmark
+    public boolean playerInGroup() {
+        return permission.playerInGroup("world", offlinePlayers[next()], "default");
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean playerHasContended() {
+        return permission.playerHas("world", offlinePlayers[next()], hit);
+    }
+}
@@ -0,0 +1,180 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.benchmark;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.milkbowl.vault.chat.Chat;
+import net.milkbowl.vault.permission.Permission;
+
+/**
+ * Name keyed in-memory chat provider implementing only the abstract methods, ignoring worlds.
+ * Prefixes and suffixes are stored as the info nodes "prefix" and "suffix".
+ */
+@SuppressWarnings("deprecation")
+class StubChat extends Chat {
+
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Object>> players = new ConcurrentHashMap<String, ConcurrentHashMap<String, Object>>();
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Object>> groups = new ConcurrentHashMap<String, ConcurrentHashMap<String, Object>>();
+
+    StubChat(Permission perms) {
+        super(perms);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T get(ConcurrentHashMap<String, ConcurrentHashMap<String, Object>> map, String subject, String node, T defaultValue) {
+        ConcurrentHashMap<String, Object> nodes = map.get(subject);
+        if (nodes == null) {
+            return defaultValue;
+        }
+        Object value = nodes.get(node);
+        return value == null ? defaultValue : (T) value;
+    }
+
+    private static void set(ConcurrentHashMap<String, ConcurrentHashMap<String, Object>> map, String subject, String node, Object value) {
+        map.computeIfAbsent(subject, k -> new ConcurrentHashMap<String, Object>()).put(node, value);
+    }
+
+    @Override
+    public String getName() {
+        return "Benchmark";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getPlayerPrefix(String world, String player) {
+        return get(players, player, "prefix", "");
+    }
+
+    @Override
+    public void setPlayerPrefix(String world, String player, String prefix) {
+        set(players, player, "prefix", prefix);
+    }
+
+    @Override
+    public String getPlayerSuffix(String world, String player) {
+        return get(players, player, "suffix", "");
+    }
+
+    @Override
+    public void setPlayerSuffix(String world, String player, String suffix) {
+        set(players, player, "suffix", suffix);
+    }
+
+    @Override
+    public String getGroupPrefix(String world, String group) {
+        return get(groups, group, "prefix", "");
+    }
+
+    @Override
+    public void setGroupPrefix(String world, String group, String prefix) {
+        set(groups, group, "prefix", prefix);
+    }
+
+    @Override
+    public String getGroupSuffix(String world, String group) {
+        return get(groups, group, "suffix", "");
+    }
+
+    @Override
+    public void setGroupSuffix(String world, String group, String suffix) {
+        set(groups, group, "suffix", suffix);
+    }
+
+    @Override
+    public int getPlayerInfoInteger(String world, String player, String node, int defaultValue) {
+        return get(players, player, node, defaultValue);
+    }
+
+    @Override
+    public void setPlayerInfoInteger(String world, String player, String node, int value) {
+        set(players, player, node, value);
+    }
+
+    @Override
+    public int getGroupInfoInteger(String world, String group, String node, int defaultValue) {
+        return get(groups, group, node, defaultValue);
+    }
+
+    @Override
+    public void setGroupInfoInteger(String world, String group, String node, int value) {
+        set(groups, group, node, value);
+    }
+
+    @Override
+    public double getPlayerInfoDouble(String world, String player, String node, double defaultValue) {
+        return get(players, player, node, defaultValue);
+    }
+
+    @Override
+    public void setPlayerInfoDouble(String world, String player, String node, double value) {
+        set(players, player, node, value);
+    }
+
+    @Override
+    public double getGroupInfoDouble(String world, String group, String node, double defaultValue) {
+        return get(groups, group, node, defaultValue);
+    }
+
+    @Override
+    public void setGroupInfoDouble(String world, String group, String node, double value) {
+        set(groups, group, node, value);
+    }
+
+    @Override
+    public boolean getPlayerInfoBoolean(String world, String player, String node, boolean defaultValue) {
+        return get(players, player, node, defaultValue);
+    }
+
+    @Override
+    public void setPlayerInfoBoolean(String world, String player, String node, boolean value) {
+        set(players, player, node, value);
+    }
+
+    @Override
+    public boolean getGroupInfoBoolean(String world, String group, String node, boolean defaultValue) {
+        return get(groups, group, node, defaultValue);
+    }
+
+    @Override
+    public void setGroupInfoBoolean(String world, String group, String node, boolean value) {
+        set(groups, group, node, value);
+    }
+
+    @Override
+    public String getPlayerInfoString(String world, String player, String node, String defaultValue) {
+        return get(players, player, node, defaultValue);
+    }
+
+    @Override
+    public void setPlayerInfoString(String world, String player, String node, String value) {
+        set(players, player, node, value);
+    }
+
+    @Override
+    public String getGroupInfoString(String world, String group, String node, String defaultValue) {
+        return get(groups, group, node, defaultValue);
+    }
+
+    @Override
+    public void setGroupInfoString(String world, String group, String node, String value) {
+        set(groups, group, node, value);
+    }
+}
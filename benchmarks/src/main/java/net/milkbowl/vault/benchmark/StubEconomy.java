@@ -0,0 +1,219 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.milkbowl.vault.economy.AbstractEconomy;
+import net.milkbowl.vault.economy.EconomyResponse;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+/**
+ * Name keyed in-memory economy, implementing only the abstract name based methods the way most providers do,
+ * so the benchmarks measure the cost of the API's own delegation on top of a trivial backend.
+ */
+@SuppressWarnings("deprecation")
+class StubEconomy extends AbstractEconomy {
+
+    private final ConcurrentHashMap<String, Double> balances = new ConcurrentHashMap<String, Double>();
+    private final ConcurrentHashMap<String, Double> banks = new ConcurrentHashMap<String, Double>();
+    private final ConcurrentHashMap<String, String> bankOwners = new ConcurrentHashMap<String, String>();
+
+    private static EconomyResponse withdraw(ConcurrentHashMap<String, Double> accounts, String key, double amount, String missing) {
+        boolean[] ok = new boolean[1];
+        Double balance = accounts.computeIfPresent(key, (k, v) -> {
+            ok[0] = v >= amount;
+            return ok[0] ? v - amount : v;
+        });
+        if (balance == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, missing);
+        }
+        if (!ok[0]) {
+            return new EconomyResponse(0, balance, ResponseType.FAILURE, "Insufficient funds");
+        }
+        return new EconomyResponse(amount, balance, ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "Benchmark";
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return true;
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return 2;
+    }
+
+    @Override
+    public String format(double amount) {
+        return String.format("%.2f coins", amount);
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return "coins";
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return "coin";
+    }
+
+    @Override
+    public boolean hasAccount(String playerName) {
+        return balances.containsKey(playerName);
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return hasAccount(playerName);
+    }
+
+    @Override
+    public double getBalance(String playerName) {
+        Double balance = balances.get(playerName);
+        return balance == null ? 0 : balance;
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        return getBalance(playerName);
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return getBalance(playerName) >= amount;
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return has(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        if (amount < 0) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Cannot withdraw negative funds");
+        }
+        return withdraw(balances, playerName, amount, "Account does not exist");
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        return withdrawPlayer(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        if (amount < 0) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Cannot deposit negative funds");
+        }
+        Double balance = balances.computeIfPresent(playerName, (k, v) -> v + amount);
+        if (balance == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Account does not exist");
+        }
+        return new EconomyResponse(amount, balance, ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        return depositPlayer(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        if (banks.putIfAbsent(name, 0.0) != null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Bank already exists");
+        }
+        bankOwners.put(name, player);
+        return EconomyResponse.SUCCESS;
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        bankOwners.remove(name);
+        return banks.remove(name) == null ? EconomyResponse.FAILURE : EconomyResponse.SUCCESS;
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        Double balance = banks.get(name);
+        if (balance == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Bank does not exist");
+        }
+        return new EconomyResponse(0, balance, ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        EconomyResponse balance = bankBalance(name);
+        if (balance.transactionSuccess() && balance.balance < amount) {
+            return new EconomyResponse(0, balance.balance, ResponseType.FAILURE, "Insufficient funds");
+        }
+        return balance;
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return withdraw(banks, name, amount, "Bank does not exist");
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        Double balance = banks.computeIfPresent(name, (k, v) -> v + amount);
+        if (balance == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Bank does not exist");
+        }
+        return new EconomyResponse(amount, balance, ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return playerName.equals(bankOwners.get(name)) ? EconomyResponse.SUCCESS : EconomyResponse.FAILURE;
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return isBankOwner(name, playerName);
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return new ArrayList<String>(banks.keySet());
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        return balances.putIfAbsent(playerName, 0.0) == null;
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return createPlayerAccount(playerName);
+    }
+}
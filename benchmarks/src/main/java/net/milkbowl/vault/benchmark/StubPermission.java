@@ -0,0 +1,133 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.benchmark;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import net.milkbowl.vault.permission.Permission;
+
+/**
+ * Name keyed in-memory permission provider implementing only the abstract methods, ignoring worlds.
+ */
+@SuppressWarnings("deprecation")
+class StubPermission extends Permission {
+
+    private final ConcurrentHashMap<String, Set<String>> playerNodes = new ConcurrentHashMap<String, Set<String>>();
+    private final ConcurrentHashMap<String, Set<String>> playerGroups = new ConcurrentHashMap<String, Set<String>>();
+    private final ConcurrentHashMap<String, Set<String>> groupNodes = new ConcurrentHashMap<String, Set<String>>();
+
+    private static Set<String> get(ConcurrentHashMap<String, Set<String>> map, String key) {
+        Set<String> set = map.get(key);
+        return set == null ? Collections.<String>emptySet() : set;
+    }
+
+    private static Set<String> create(ConcurrentHashMap<String, Set<String>> map, String key) {
+        return map.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    @Override
+    public String getName() {
+        return "Benchmark";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean hasSuperPermsCompat() {
+        return false;
+    }
+
+    @Override
+    public boolean playerHas(String world, String player, String permission) {
+        if (get(playerNodes, player).contains(permission)) {
+            return true;
+        }
+        for (String group : get(playerGroups, player)) {
+            if (get(groupNodes, group).contains(permission)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean playerAdd(String world, String player, String permission) {
+        return create(playerNodes, player).add(permission);
+    }
+
+    @Override
+    public boolean playerRemove(String world, String player, String permission) {
+        return get(playerNodes, player).remove(permission);
+    }
+
+    @Override
+    public boolean groupHas(String world, String group, String permission) {
+        return get(groupNodes, group).contains(permission);
+    }
+
+    @Override
+    public boolean groupAdd(String world, String group, String permission) {
+        return create(groupNodes, group).add(permission);
+    }
+
+    @Override
+    public boolean groupRemove(String world, String group, String permission) {
+        return get(groupNodes, group).remove(permission);
+    }
+
+    @Override
+    public boolean playerInGroup(String world, String player, String group) {
+        return get(playerGroups, player).contains(group);
+    }
+
+    @Override
+    public boolean playerAddGroup(String world, String player, String group) {
+        return create(playerGroups, player).add(group);
+    }
+
+    @Override
+    public boolean playerRemoveGroup(String world, String player, String group) {
+        return get(playerGroups, player).remove(group);
+    }
+
+    @Override
+    public String[] getPlayerGroups(String world, String player) {
+        return get(playerGroups, player).toArray(new String[0]);
+    }
+
+    @Override
+    public String getPrimaryGroup(String world, String player) {
+        for (String group : get(playerGroups, player)) {
+            return group;
+        }
+        return null;
+    }
+
+    @Override
+    public String[] getGroups() {
+        return groupNodes.keySet().toArray(new String[0]);
+    }
+
+    @Override
+    public boolean hasGroupSupport() {
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.benchmark;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Test;
+
+/**
+ * Checks the stub providers behave like real ones, so the benchmarks measure realistic code paths.
+ */
+public class StubProvidersTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final OfflinePlayer player = Fixtures.player("player0");
+
+    @Test
+    public void economyKeepsBalances() {
+        StubEconomy economy = new StubEconomy();
+        assertTrue(economy.createPlayerAccount(player));
+        assertEquals(ResponseType.SUCCESS, economy.depositPlayer(player, 5).type);
+        assertEquals(ResponseType.SUCCESS, economy.withdrawPlayer(player, 2).type);
+        assertEquals("Insufficient funds", economy.withdrawPlayer(player, 4).errorMessage);
+        assertEquals(3, economy.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void economyRejectsMissingAccounts() {
+        StubEconomy economy = new StubEconomy();
+        assertEquals(ResponseType.FAILURE, economy.depositPlayer(player, 5).type);
+        assertEquals(ResponseType.FAILURE, economy.withdrawPlayer(player, 0).type);
+        assertFalse(economy.hasAccount(player));
+    }
+
+    @Test
+    public void economyBanksRejectOverdrafts() {
+        StubEconomy economy = new StubEconomy();
+        assertTrue(economy.createBank("bank", player).transactionSuccess());
+        assertTrue(economy.bankDeposit("bank", 3).transactionSuccess());
+        assertEquals("Insufficient funds", economy.bankWithdraw("bank", 4).errorMessage);
+        assertEquals(3, economy.bankBalance("bank").balance, DELTA);
+        assertTrue(economy.isBankOwner("bank", player).transactionSuccess());
+        assertEquals(ResponseType.FAILURE, economy.bankWithdraw("none", 1).type);
+    }
+
+    @Test
+    public void permissionResolvesGroups() {
+        StubPermission permission = new StubPermission();
+        permission.groupAdd((String) null, "admin", "vault.admin");
+        permission.playerAddGroup((String) null, player, "admin");
+        assertTrue(permission.playerHas((String) null, player, "vault.admin"));
+        assertFalse(permission.playerHas((String) null, player, "vault.other"));
+        assertArrayEquals(new String[] { "admin" }, permission.getPlayerGroups((String) null, player));
+    }
+
+    @Test
+    public void chatStoresPrefixesAndInfo() {
+        StubChat chat = new StubChat(new StubPermission());
+        chat.setPlayerPrefix((String) null, player, "[A]");
+        chat.setPlayerInfoInteger((String) null, player, "homes", 3);
+        assertEquals("[A]", chat.getPlayerPrefix((String) null, player));
+        assertEquals(3, chat.getPlayerInfoInteger((String) null, player, "homes", 0));
+        assertEquals(7, chat.getPlayerInfoInteger((String) null, player, "warps", 7));
+    }
+}
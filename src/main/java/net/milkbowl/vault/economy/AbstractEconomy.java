@@ -1,64 +1,258 @@
 package net.milkbowl.vault.economy;
 
+import java.util.Collection;
+import java.util.UUID;
+
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 
 @SuppressWarnings("deprecation")
 public abstract class AbstractEconomy implements Economy {
 
+	/**
+	 * Returns true if the given implementation provides the UUID based account methods.
+	 * When it does, every OfflinePlayer method is routed to them instead of resolving the player's name.
+	 * @return true if the implementation supports UUID accounts
+	 */
+	public boolean hasUuidSupport() {
+		return false;
+	}
+
+	// Name of the player with the given UUID, for the UUID methods an implementation does not override
+	private static String name(UUID uuid) {
+		return Bukkit.getOfflinePlayer(uuid).getName();
+	}
+
+	/**
+	 * Checks if the account with the given UUID exists.
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * @param uuid of the player
+	 * @return if the player has an account
+	 */
+	public boolean hasAccount(UUID uuid) {
+		return hasAccount(uuid, null);
+	}
+
+	/**
+	 * Checks if the account with the given UUID exists on the given world.
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * The default looks up the player's name and calls the name based method.
+	 * @param uuid of the player
+	 * @param worldName world-specific account, or null for the global account
+	 * @return if the player has an account
+	 */
+	public boolean hasAccount(UUID uuid, String worldName) {
+		String name = name(uuid);
+		if (name == null) return false;
+		return worldName == null ? hasAccount(name) : hasAccount(name, worldName);
+	}
+
+	/**
+	 * Gets balance of the account with the given UUID.
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * @param uuid of the player
+	 * @return Amount currently held in players account
+	 */
+	public double getBalance(UUID uuid) {
+		return getBalance(uuid, null);
+	}
+
+	/**
+	 * Gets balance of the account with the given UUID on the specified world.
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * The default looks up the player's name and calls the name based method, or returns 0 if the name is unknown.
+	 * @param uuid of the player
+	 * @param world name of the world, or null for the global account
+	 * @return Amount currently held in players account
+	 */
+	public double getBalance(UUID uuid, String world) {
+		String name = name(uuid);
+		if (name == null) return 0;
+		return world == null ? getBalance(name) : getBalance(name, world);
+	}
+
+	/**
+	 * Checks if the account with the given UUID has the amount - DO NOT USE NEGATIVE AMOUNTS
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * @param uuid of the player
+	 * @param amount to check for
+	 * @return True if the account has <b>amount</b>, False else wise
+	 */
+	public boolean has(UUID uuid, double amount) {
+		return has(uuid, null, amount);
+	}
+
+	/**
+	 * Checks if the account with the given UUID has the amount in a given world - DO NOT USE NEGATIVE AMOUNTS
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * The default looks up the player's name and calls the name based method.
+	 * @param uuid of the player
+	 * @param worldName to check with, or null for the global account
+	 * @param amount to check for
+	 * @return True if the account has <b>amount</b>, False else wise
+	 */
+	public boolean has(UUID uuid, String worldName, double amount) {
+		String name = name(uuid);
+		if (name == null) return false;
+		return worldName == null ? has(name, amount) : has(name, worldName, amount);
+	}
+
+	/**
+	 * Withdraw an amount from the account with the given UUID - DO NOT USE NEGATIVE AMOUNTS
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * @param uuid of the player
+	 * @param amount Amount to withdraw
+	 * @return Detailed response of transaction
+	 */
+	public EconomyResponse withdrawPlayer(UUID uuid, double amount) {
+		return withdrawPlayer(uuid, null, amount);
+	}
+
+	/**
+	 * Withdraw an amount from the account with the given UUID on a given world - DO NOT USE NEGATIVE AMOUNTS
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * The default looks up the player's name and calls the name based method.
+	 * @param uuid of the player
+	 * @param worldName name of the world, or null for the global account
+	 * @param amount Amount to withdraw
+	 * @return Detailed response of transaction
+	 */
+	public EconomyResponse withdrawPlayer(UUID uuid, String worldName, double amount) {
+		String name = name(uuid);
+		return worldName == null ? withdrawPlayer(name, amount) : withdrawPlayer(name, worldName, amount);
+	}
+
+	/**
+	 * Deposit an amount to the account with the given UUID - DO NOT USE NEGATIVE AMOUNTS
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * @param uuid of the player
+	 * @param amount Amount to deposit
+	 * @return Detailed response of transaction
+	 */
+	public EconomyResponse depositPlayer(UUID uuid, double amount) {
+		return depositPlayer(uuid, null, amount);
+	}
+
+	/**
+	 * Deposit an amount to the account with the given UUID on a given world - DO NOT USE NEGATIVE AMOUNTS
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * The default looks up the player's name and calls the name based method.
+	 * @param uuid of the player
+	 * @param worldName name of the world, or null for the global account
+	 * @param amount Amount to deposit
+	 * @return Detailed response of transaction
+	 */
+	public EconomyResponse depositPlayer(UUID uuid, String worldName, double amount) {
+		String name = name(uuid);
+		return worldName == null ? depositPlayer(name, amount) : depositPlayer(name, worldName, amount);
+	}
+
+	/**
+	 * Attempts to create an account for the given UUID.
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * @param uuid of the player
+	 * @return if the account creation was successful
+	 */
+	public boolean createPlayerAccount(UUID uuid) {
+		return createPlayerAccount(uuid, null);
+	}
+
+	/**
+	 * Attempts to create an account for the given UUID on the specified world.
+	 * Only called if {@link #hasUuidSupport()} returns true.
+	 * The default looks up the player's name and calls the name based method.
+	 * @param uuid of the player
+	 * @param worldName name of the world, or null for the global account
+	 * @return if the account creation was successful
+	 */
+	public boolean createPlayerAccount(UUID uuid, String worldName) {
+		String name = name(uuid);
+		return worldName == null ? createPlayerAccount(name) : createPlayerAccount(name, worldName);
+	}
+
 	@Override
 	public boolean hasAccount(OfflinePlayer player) {
-		if (player.getName() == null) return false;
-		return hasAccount(player.getName());
+		if (hasUuidSupport()) return hasAccount(player.getUniqueId());
+		String name = player.getName();
+		if (name == null) return false;
+		return hasAccount(name);
 	}
 
 	@Override
 	public boolean hasAccount(OfflinePlayer player, String worldName) {
-		if (player.getName() == null) return false;
-		return hasAccount(player.getName(), worldName);
+		if (hasUuidSupport()) return hasAccount(player.getUniqueId(), worldName);
+		String name = player.getName();
+		if (name == null) return false;
+		return hasAccount(name, worldName);
 	}
 
 	@Override
 	public double getBalance(OfflinePlayer player) {
-		return getBalance(player.getName());
+		if (hasUuidSupport()) return getBalance(player.getUniqueId());
+		String name = player.getName();
+		if (name == null) return 0;
+		return getBalance(name);
 	}
 
 	@Override
 	public double getBalance(OfflinePlayer player, String world) {
-		return getBalance(player.getName(), world);
+		if (hasUuidSupport()) return getBalance(player.getUniqueId(), world);
+		String name = player.getName();
+		if (name == null) return 0;
+		return getBalance(name, world);
 	}
 
 	@Override
 	public boolean has(OfflinePlayer player, double amount) {
-		if (player.getName() == null) return false;
-		return has(player.getName(), amount);
+		if (hasUuidSupport()) return has(player.getUniqueId(), amount);
+		String name = player.getName();
+		if (name == null) return false;
+		return has(name, amount);
 	}
 
 	@Override
 	public boolean has(OfflinePlayer player, String worldName, double amount) {
-		if (player.getName() == null) return false;
-		return has(player.getName(), worldName, amount);
+		if (hasUuidSupport()) return has(player.getUniqueId(), worldName, amount);
+		String name = player.getName();
+		if (name == null) return false;
+		return has(name, worldName, amount);
 	}
 
 	@Override
 	public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+		if (hasUuidSupport()) return withdrawPlayer(player.getUniqueId(), amount);
 		return withdrawPlayer(player.getName(), amount);
 	}
 
 	@Override
 	public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+		if (hasUuidSupport()) return withdrawPlayer(player.getUniqueId(), worldName, amount);
 		return withdrawPlayer(player.getName(), worldName, amount);
 	}
 
 	@Override
 	public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+		if (hasUuidSupport()) return depositPlayer(player.getUniqueId(), amount);
 		return depositPlayer(player.getName(), amount);
 	}
 
 	@Override
 	public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+		if (hasUuidSupport()) return depositPlayer(player.getUniqueId(), worldName, amount);
 		return depositPlayer(player.getName(), worldName, amount);
 	}
 
+	@Override
+	public BalanceMap getBalances(Collection<? extends OfflinePlayer> players, String world) {
+		if (!hasUuidSupport()) return Economy.super.getBalances(players, world);
+		BalanceMap balances = new BalanceMap(players.size());
+		for (OfflinePlayer player : players) {
+			UUID uuid = player.getUniqueId();
+			balances.put(uuid, getBalance(uuid, world));
+		}
+		return balances;
+	}
+
 	@Override
 	public EconomyResponse createBank(String name, OfflinePlayer player) {
 		return createBank(name, player.getName());
@@ -76,11 +270,13 @@ public abstract class AbstractEconomy implements Economy {
 
 	@Override
 	public boolean createPlayerAccount(OfflinePlayer player) {
+		if (hasUuidSupport()) return createPlayerAccount(player.getUniqueId());
 		return createPlayerAccount(player.getName());
 	}
 
 	@Override
 	public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+		if (hasUuidSupport()) return createPlayerAccount(player.getUniqueId(), worldName);
 		return createPlayerAccount(player.getName(), worldName);
 	}
 
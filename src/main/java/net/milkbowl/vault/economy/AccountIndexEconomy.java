@@ -0,0 +1,222 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Answers {@link #hasAccount(OfflinePlayer)} from memory where possible.
+ *
+ * Every account seen to exist, either because hasAccount returned true, because it was created through this
+ * economy or because it was seeded, is added to a Bloom filter. The most recently seen ones are also kept in a
+ * bounded cache and answered without calling the wrapped economy. Economies have no way to delete a player account,
+ * so neither goes stale.
+ *
+ * Missing accounts can be answered from memory in two ways. A bounded negative cache remembers "no account" answers
+ * for a short time and is cleared for a player as soon as an account is created through this economy. In
+ * authoritative mode, enabled with {@link #setAuthoritative(boolean)} after every existing account was passed to
+ * {@link #seed}, the Bloom filter gives a definite "no" for players certainly not in it. Authoritative mode is only
+ * correct if accounts are created through this economy, or reported with {@link #index(UUID, String)} when the
+ * wrapped economy creates them on its own.
+ *
+ * Accounts created by player name are not indexed, as finding their UUID may need a blocking lookup. Creating one
+ * clears the whole negative cache instead, and in authoritative mode it has to be reported with index as well.
+ */
+@SuppressWarnings("deprecation")
+public class AccountIndexEconomy extends ForwardingEconomy {
+
+    private static final int DEFAULT_MAX_KNOWN = 1024;
+
+    private final BloomFilter filter;
+    private final KeyCache<AccountKey> known;
+    private final KeyCache<AccountKey> missing;
+    private volatile boolean authoritative;
+
+    /**
+     * Creates an index without a negative cache
+     * @param economy to index
+     * @param expectedAccounts number of accounts the Bloom filter is sized for
+     */
+    public AccountIndexEconomy(Economy economy, int expectedAccounts) {
+        this(economy, expectedAccounts, DEFAULT_MAX_KNOWN, 0, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates an index that also remembers missing accounts for a while
+     * @param economy to index
+     * @param expectedAccounts number of accounts the Bloom filter is sized for
+     * @param maxMissing number of missing accounts to remember at most
+     * @param missingTtl time a missing account is remembered for, or 0 to disable the negative cache
+     * @param unit of the time to live
+     */
+    public AccountIndexEconomy(Economy economy, int expectedAccounts, int maxMissing, long missingTtl, TimeUnit unit) {
+        this(economy, expectedAccounts, DEFAULT_MAX_KNOWN, maxMissing, missingTtl, unit);
+    }
+
+    /**
+     * Creates an index that also remembers missing accounts for a while
+     * @param economy to index
+     * @param expectedAccounts number of accounts the Bloom filter is sized for
+     * @param maxKnown number of existing accounts to remember at most
+     * @param maxMissing number of missing accounts to remember at most
+     * @param missingTtl time a missing account is remembered for, or 0 to disable the negative cache
+     * @param unit of the time to live
+     */
+    public AccountIndexEconomy(Economy economy, int expectedAccounts, int maxKnown, int maxMissing, long missingTtl, TimeUnit unit) {
+        super(economy);
+        if (expectedAccounts < 0 || maxKnown < 0 || maxMissing < 0 || missingTtl < 0) {
+            throw new IllegalArgumentException("Sizes and time to live cannot be negative");
+        }
+        this.filter = new BloomFilter(expectedAccounts, 0.01);
+        this.known = new KeyCache<AccountKey>(maxKnown, 0);
+        this.missing = new KeyCache<AccountKey>(missingTtl > 0 ? maxMissing : 0, unit.toNanos(missingTtl));
+    }
+
+    private static long hash(AccountKey key) {
+        long hash = key.id.getMostSignificantBits() * 0x9e3779b97f4a7c15L ^ key.id.getLeastSignificantBits();
+        if (key.world != null) {
+            hash ^= key.world.hashCode() * 0xc2b2ae3d27d4eb4fL;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        return hash ^ (hash >>> 33);
+    }
+
+    /**
+     * Adds existing accounts to the index
+     * @param accounts UUIDs of players with an account
+     * @param world of the accounts, or null for the global accounts
+     */
+    public void seed(Iterable<UUID> accounts, String world) {
+        for (UUID id : accounts) {
+            index(id, world);
+        }
+    }
+
+    /**
+     * Adds an existing account to the index, for accounts the wrapped economy created on its own
+     * @param id of the player
+     * @param world of the account, or null for the global account
+     */
+    public void index(UUID id, String world) {
+        index(new AccountKey(id, world));
+    }
+
+    private void index(AccountKey key) {
+        filter.add(hash(key));
+        missing.remove(key);
+    }
+
+    private void found(AccountKey key, long now) {
+        index(key);
+        known.add(key, now);
+    }
+
+    /**
+     * Sets whether players missing from the Bloom filter are answered as having no account without asking the
+     * wrapped economy. Only enable this once every existing account was seeded.
+     * @param authoritative true to trust the index for missing accounts
+     */
+    public void setAuthoritative(boolean authoritative) {
+        this.authoritative = authoritative;
+    }
+
+    /**
+     * Checks if players missing from the Bloom filter are answered without asking the wrapped economy
+     * @return true if the index is trusted for missing accounts
+     */
+    public boolean isAuthoritative() {
+        return authoritative;
+    }
+
+    /**
+     * Forgets every remembered missing account
+     */
+    public void clearMissing() {
+        missing.clear();
+    }
+
+    private boolean lookup(OfflinePlayer player, String world) {
+        AccountKey key = AccountKey.of(player, world);
+        long now = System.nanoTime();
+        if (known.contains(key, now)) {
+            return true;
+        }
+        if (authoritative && !filter.mightContain(hash(key))) {
+            return false;
+        }
+        if (missing.contains(key, now)) {
+            return false;
+        }
+        // Taken before asking, so a miss is not remembered if the account is created meanwhile
+        long generation = missing.generation();
+        boolean exists = world == null ? economy.hasAccount(player) : economy.hasAccount(player, world);
+        if (exists) {
+            found(key, now);
+        } else {
+            missing.add(key, now, generation);
+        }
+        return exists;
+    }
+
+    private boolean created(OfflinePlayer player, String world, boolean created) {
+        // Even if the call failed the account may exist, so only a success is indexed but the miss is always dropped
+        AccountKey key = AccountKey.of(player, world);
+        if (created) {
+            found(key, System.nanoTime());
+        } else {
+            missing.remove(key);
+        }
+        return created;
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player) {
+        return lookup(player, null);
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player, String worldName) {
+        return lookup(player, worldName);
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        return created(player, null, economy.createPlayerAccount(player));
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+        return created(player, worldName, economy.createPlayerAccount(player, worldName));
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        boolean created = economy.createPlayerAccount(playerName);
+        missing.clear();
+        return created;
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        boolean created = economy.createPlayerAccount(playerName, worldName);
+        missing.clear();
+        return created;
+    }
+}
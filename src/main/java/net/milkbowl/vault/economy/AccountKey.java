@@ -0,0 +1,62 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.UUID;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Identifies a player account: the player's UUID plus the world name, or null for the global account.
+ */
+final class AccountKey {
+
+    final UUID id;
+    final String world;
+    private final int hash;
+
+    AccountKey(UUID id, String world) {
+        this.id = id;
+        this.world = world;
+        this.hash = 31 * id.hashCode() + (world == null ? 0 : world.hashCode());
+    }
+
+    static AccountKey of(OfflinePlayer player, String world) {
+        return new AccountKey(player.getUniqueId(), world);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof AccountKey)) {
+            return false;
+        }
+        AccountKey other = (AccountKey) obj;
+        return hash == other.hash && id.equals(other.id) && (world == null ? other.world == null : world.equals(other.world));
+    }
+
+    @Override
+    public String toString() {
+        return world == null ? id.toString() : id + "@" + world;
+    }
+}
@@ -0,0 +1,249 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.milkbowl.vault.economy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Asynchronous companion to {@link Economy}.
+ * Every method returns immediately and completes its future once the underlying economy has answered,
+ * so balance I/O can be kept off the server main thread.
+ * Futures may complete on any thread - do not touch the Bukkit API from their callbacks without
+ * scheduling back onto the main thread.
+ *
+ * See {@link AsyncEconomyAdapter} to run any existing {@link Economy} asynchronously.
+ */
+public interface AsyncEconomy {
+
+    /**
+     * Gets the synchronous economy backing this asynchronous view.
+     * @return the backing Economy
+     */
+    public Economy getEconomy();
+
+    /**
+     * Checks if this player has an account on the server yet
+     *
+     * @param player to check
+     * @return future completed with whether the player has an account
+     */
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player);
+
+    /**
+     * Checks if this player has an account on the server yet on the given world
+     *
+     * @param player to check in the world
+     * @param worldName world-specific account
+     * @return future completed with whether the player has an account
+     */
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player, String worldName);
+
+    /**
+     * Gets balance of a player
+     *
+     * @param player of the player
+     * @return future completed with the amount currently held in players account
+     */
+    public CompletableFuture<Double> getBalance(OfflinePlayer player);
+
+    /**
+     * Gets balance of a player on the specified world.
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to check
+     * @param world name of the world
+     * @return future completed with the amount currently held in players account
+     */
+    public CompletableFuture<Double> getBalance(OfflinePlayer player, String world);
+
+    /**
+     * Gets the balances of many players at once
+     *
+     * @param players to get the balances of
+     * @param world name of the world, or null for the global accounts
+     * @return future completed with the balances of the players by UUID
+     */
+    public CompletableFuture<BalanceMap> getBalances(Collection<? extends OfflinePlayer> players, String world);
+
+    /**
+     * Checks if the player account has the amount - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param player to check
+     * @param amount to check for
+     * @return future completed with True if <b>player</b> has <b>amount</b>, False else wise
+     */
+    public CompletableFuture<Boolean> has(OfflinePlayer player, double amount);
+
+    /**
+     * Checks if the player account has the amount in a given world - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to check
+     * @param worldName to check with
+     * @param amount to check for
+     * @return future completed with True if <b>player</b> has <b>amount</b>, False else wise
+     */
+    public CompletableFuture<Boolean> has(OfflinePlayer player, String worldName, double amount);
+
+    /**
+     * Withdraw an amount from a player - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param player to withdraw from
+     * @param amount Amount to withdraw
+     * @return future completed with the detailed response of transaction
+     */
+    public CompletableFuture<EconomyResponse> withdrawPlayer(OfflinePlayer player, double amount);
+
+    /**
+     * Withdraw an amount from a player on a given world - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to withdraw from
+     * @param worldName - name of the world
+     * @param amount Amount to withdraw
+     * @return future completed with the detailed response of transaction
+     */
+    public CompletableFuture<EconomyResponse> withdrawPlayer(OfflinePlayer player, String worldName, double amount);
+
+    /**
+     * Deposit an amount to a player - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param player to deposit to
+     * @param amount Amount to deposit
+     * @return future completed with the detailed response of transaction
+     */
+    public CompletableFuture<EconomyResponse> depositPlayer(OfflinePlayer player, double amount);
+
+    /**
+     * Deposit an amount to a player - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to deposit to
+     * @param worldName name of the world
+     * @param amount Amount to deposit
+     * @return future completed with the detailed response of transaction
+     */
+    public CompletableFuture<EconomyResponse> depositPlayer(OfflinePlayer player, String worldName, double amount);
+
+    /**
+     * Creates a bank account with the specified name and the player as the owner
+     *
+     * @param name of account
+     * @param player the account should be linked to
+     * @return future completed with the EconomyResponse Object
+     */
+    public CompletableFuture<EconomyResponse> createBank(String name, OfflinePlayer player);
+
+    /**
+     * Deletes a bank account with the specified name.
+     *
+     * @param name of the back to delete
+     * @return future completed with the EconomyResponse Object
+     */
+    public CompletableFuture<EconomyResponse> deleteBank(String name);
+
+    /**
+     * Returns the amount the bank has
+     *
+     * @param name of the account
+     * @return future completed with the EconomyResponse Object
+     */
+    public CompletableFuture<EconomyResponse> bankBalance(String name);
+
+    /**
+     * Returns true or false whether the bank has the amount specified - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param name of the account
+     * @param amount to check for
+     * @return future completed with the EconomyResponse Object
+     */
+    public CompletableFuture<EconomyResponse> bankHas(String name, double amount);
+
+    /**
+     * Withdraw an amount from a bank account - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param name of the account
+     * @param amount to withdraw
+     * @return future completed with the EconomyResponse Object
+     */
+    public CompletableFuture<EconomyResponse> bankWithdraw(String name, double amount);
+
+    /**
+     * Deposit an amount into a bank account - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param name of the account
+     * @param amount to deposit
+     * @return future completed with the EconomyResponse Object
+     */
+    public CompletableFuture<EconomyResponse> bankDeposit(String name, double amount);
+
+    /**
+     * Check if a player is the owner of a bank account
+     *
+     * @param name of the account
+     * @param player to check for ownership
+     * @return future completed with the EconomyResponse Object
+     */
+    public CompletableFuture<EconomyResponse> isBankOwner(String name, OfflinePlayer player);
+
+    /**
+     * Check if the player is a member of the bank account
+     *
+     * @param name of the account
+     * @param player to check membership
+     * @return future completed with the EconomyResponse Object
+     */
+    public CompletableFuture<EconomyResponse> isBankMember(String name, OfflinePlayer player);
+
+    /**
+     * Gets the list of banks
+     *
+     * @return future completed with the List of Banks
+     */
+    public CompletableFuture<List<String>> getBanks();
+
+    /**
+     * Gets one page of banks together with their balances
+     *
+     * @param offset number of banks to skip
+     * @param limit maximum number of banks to return
+     * @return future completed with the page of banks
+     */
+    public CompletableFuture<List<BankBalance>> getBankBalances(int offset, int limit);
+
+    /**
+     * Attempts to create a player account for the given player
+     *
+     * @param player OfflinePlayer
+     * @return future completed with whether the account creation was successful
+     */
+    public CompletableFuture<Boolean> createPlayerAccount(OfflinePlayer player);
+
+    /**
+     * Attempts to create a player account for the given player on the specified world
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this then false will always be returned.
+     *
+     * @param player OfflinePlayer
+     * @param worldName String name of the world
+     * @return future completed with whether the account creation was successful
+     */
+    public CompletableFuture<Boolean> createPlayerAccount(OfflinePlayer player, String worldName);
+}
@@ -0,0 +1,234 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package net.milkbowl.vault.economy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Runs a synchronous {@link Economy} on a bounded pool of worker threads.
+ * Calls beyond the pool's queue capacity are rejected with a future that completes exceptionally
+ * with a {@link RejectedExecutionException} rather than blocking the caller.
+ *
+ * The wrapped economy must tolerate being called from threads other than the server main thread.
+ */
+public class AsyncEconomyAdapter implements AsyncEconomy {
+
+    private static final AtomicInteger poolCount = new AtomicInteger();
+
+    private final Economy economy;
+    private final ExecutorService executor;
+
+    /**
+     * Creates an adapter with its own bounded, daemon worker pool.
+     * @param economy to run asynchronously
+     * @param threads number of worker threads
+     * @param queueCapacity maximum number of calls waiting for a worker
+     */
+    public AsyncEconomyAdapter(Economy economy, int threads, int queueCapacity) {
+        this(economy, createExecutor(economy, threads, queueCapacity));
+    }
+
+    /**
+     * Creates an adapter running calls on the given executor.
+     * The executor is shut down by {@link #shutdown()}.
+     * @param economy to run asynchronously
+     * @param executor to run calls on
+     */
+    public AsyncEconomyAdapter(Economy economy, ExecutorService executor) {
+        if (economy == null) {
+            throw new IllegalArgumentException("Economy cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.economy = economy;
+        this.executor = executor;
+    }
+
+    private static ExecutorService createExecutor(Economy economy, int threads, int queueCapacity) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        final String prefix = "Vault-Economy-" + economy.getName() + "-" + poolCount.incrementAndGet() + "-";
+        ThreadFactory factory = new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, prefix + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueCapacity), factory, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Stops accepting new calls. Calls already submitted still complete.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> call) {
+        try {
+            return CompletableFuture.supplyAsync(call, executor);
+        } catch (RejectedExecutionException e) {
+            CompletableFuture<T> future = new CompletableFuture<T>();
+            future.completeExceptionally(e);
+            return future;
+        }
+    }
+
+    @Override
+    public Economy getEconomy() {
+        return economy;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player) {
+        return submit(() -> economy.hasAccount(player));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasAccount(OfflinePlayer player, String worldName) {
+        return submit(() -> economy.hasAccount(player, worldName));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player) {
+        return submit(() -> economy.getBalance(player));
+    }
+
+    @Override
+    public CompletableFuture<Double> getBalance(OfflinePlayer player, String world) {
+        return submit(() -> economy.getBalance(player, world));
+    }
+
+    @Override
+    public CompletableFuture<BalanceMap> getBalances(Collection<? extends OfflinePlayer> players, String world) {
+        return submit(() -> economy.getBalances(players, world));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> has(OfflinePlayer player, double amount) {
+        return submit(() -> economy.has(player, amount));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> has(OfflinePlayer player, String worldName, double amount) {
+        return submit(() -> economy.has(player, worldName, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> withdrawPlayer(OfflinePlayer player, double amount) {
+        return submit(() -> economy.withdrawPlayer(player, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return submit(() -> economy.withdrawPlayer(player, worldName, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> depositPlayer(OfflinePlayer player, double amount) {
+        return submit(() -> economy.depositPlayer(player, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return submit(() -> economy.depositPlayer(player, worldName, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> createBank(String name, OfflinePlayer player) {
+        return submit(() -> economy.createBank(name, player));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> deleteBank(String name) {
+        return submit(() -> economy.deleteBank(name));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankBalance(String name) {
+        return submit(() -> economy.bankBalance(name));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankHas(String name, double amount) {
+        return submit(() -> economy.bankHas(name, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankWithdraw(String name, double amount) {
+        return submit(() -> economy.bankWithdraw(name, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> bankDeposit(String name, double amount) {
+        return submit(() -> economy.bankDeposit(name, amount));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> isBankOwner(String name, OfflinePlayer player) {
+        return submit(() -> economy.isBankOwner(name, player));
+    }
+
+    @Override
+    public CompletableFuture<EconomyResponse> isBankMember(String name, OfflinePlayer player) {
+        return submit(() -> economy.isBankMember(name, player));
+    }
+
+    @Override
+    public CompletableFuture<List<String>> getBanks() {
+        return submit(() -> economy.getBanks());
+    }
+
+    @Override
+    public CompletableFuture<List<BankBalance>> getBankBalances(int offset, int limit) {
+        return submit(() -> economy.getBankBalances(offset, limit));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createPlayerAccount(OfflinePlayer player) {
+        return submit(() -> economy.createPlayerAccount(player));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> createPlayerAccount(OfflinePlayer player, String worldName) {
+        return submit(() -> economy.createPlayerAccount(player, worldName));
+    }
+}
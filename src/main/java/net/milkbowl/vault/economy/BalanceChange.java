@@ -0,0 +1,83 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.UUID;
+
+/**
+ * A change of an account balance, as delivered to a {@link BalanceListener}.
+ */
+public class BalanceChange {
+
+    /**
+     * Player whose account changed, or null for banks
+     */
+    public final UUID player;
+    /**
+     * Bank whose account changed, or null for players
+     */
+    public final String bank;
+    /**
+     * World of the player account, or null for the global account and for banks
+     */
+    public final String world;
+    /**
+     * Balance before the change, or NaN if it is not known exactly
+     */
+    public final double oldBalance;
+    /**
+     * Balance after the change, or NaN if it is not known exactly
+     */
+    public final double newBalance;
+
+    /**
+     * Constructor for BalanceChange
+     * @param player whose account changed, or null for banks
+     * @param bank whose account changed, or null for players
+     * @param world of the player account, or null
+     * @param oldBalance before the change, or NaN if unknown
+     * @param newBalance after the change, or NaN if unknown
+     */
+    public BalanceChange(UUID player, String bank, String world, double oldBalance, double newBalance) {
+        this.player = player;
+        this.bank = bank;
+        this.world = world;
+        this.oldBalance = oldBalance;
+        this.newBalance = newBalance;
+    }
+
+    /**
+     * Checks if the change is of a bank account
+     * @return true for banks, false for players
+     */
+    public boolean isBank() {
+        return bank != null;
+    }
+
+    /**
+     * Checks if both balances are known
+     * @return true if neither balance is NaN
+     */
+    public boolean isBalanceKnown() {
+        return !Double.isNaN(oldBalance) && !Double.isNaN(newBalance);
+    }
+
+    @Override
+    public String toString() {
+        String account = bank != null ? "bank " + bank : world == null ? player.toString() : player + "@" + world;
+        return account + ": " + oldBalance + " -> " + newBalance;
+    }
+}
@@ -0,0 +1,259 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Balances ordered from richest to poorest, answering {@link #top(int)} and {@link #rankOf(UUID)} in logarithmic time.
+ * Backed by a treap keyed on (balance descending, UUID) where every node tracks the size of its subtree.
+ * Ties are broken by UUID so the order is total and stable. All methods are thread-safe.
+ *
+ * See {@link LeaderboardEconomy} to keep a leaderboard updated as balances change.
+ */
+public class BalanceLeaderboard {
+
+    /**
+     * A position on the leaderboard
+     */
+    public static class Entry {
+        /**
+         * Player the balance belongs to
+         */
+        public final UUID player;
+        /**
+         * Balance of the player when the entry was read
+         */
+        public final double balance;
+
+        /**
+         * Constructor for Entry
+         * @param player UUID of the player
+         * @param balance Balance of the player
+         */
+        public Entry(UUID player, double balance) {
+            this.player = player;
+            this.balance = balance;
+        }
+    }
+
+    private static final class Node {
+        final UUID player;
+        final double balance;
+        final int priority;
+        int size = 1;
+        Node left;
+        Node right;
+
+        Node(UUID player, double balance, int priority) {
+            this.player = player;
+            this.balance = balance;
+            this.priority = priority;
+        }
+    }
+
+    private final Map<UUID, Node> nodes = new HashMap<UUID, Node>();
+    private final Random random = new Random();
+    private Node root;
+
+    private static int size(Node node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+
+    // Orders richest first, then by UUID
+    private static int compare(double balance, UUID player, Node node) {
+        int result = Double.compare(node.balance, balance);
+        return result != 0 ? result : player.compareTo(node.player);
+    }
+
+    private static Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.balance, added.player, node) < 0) {
+            node.left = insert(node.left, added);
+            if (node.left.priority > node.priority) {
+                Node child = node.left;
+                node.left = child.right;
+                child.right = update(node);
+                node = child;
+            }
+        } else {
+            node.right = insert(node.right, added);
+            if (node.right.priority > node.priority) {
+                Node child = node.right;
+                node.right = child.left;
+                child.left = update(node);
+                node = child;
+            }
+        }
+        return update(node);
+    }
+
+    private static Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+
+    private static Node remove(Node node, Node removed) {
+        if (node == null) {
+            return null;
+        }
+        if (node == removed) {
+            return merge(node.left, node.right);
+        }
+        if (compare(removed.balance, removed.player, node) < 0) {
+            node.left = remove(node.left, removed);
+        } else {
+            node.right = remove(node.right, removed);
+        }
+        return update(node);
+    }
+
+    /**
+     * Sets the balance of a player, adding them to the leaderboard if needed
+     * @param player UUID of the player
+     * @param balance new balance of the player
+     */
+    public synchronized void update(UUID player, double balance) {
+        Node old = nodes.get(player);
+        if (old != null) {
+            if (old.balance == balance) {
+                return;
+            }
+            root = remove(root, old);
+        }
+        Node node = new Node(player, balance, random.nextInt());
+        nodes.put(player, node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes a player from the leaderboard
+     * @param player UUID of the player
+     */
+    public synchronized void remove(UUID player) {
+        Node old = nodes.remove(player);
+        if (old != null) {
+            root = remove(root, old);
+        }
+    }
+
+    /**
+     * Removes every player from the leaderboard
+     */
+    public synchronized void clear() {
+        nodes.clear();
+        root = null;
+    }
+
+    /**
+     * Gets the number of players on the leaderboard
+     * @return number of players
+     */
+    public synchronized int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Gets the rank of a player, where the richest player is rank 1
+     * @param player UUID of the player
+     * @return rank of the player, or -1 if the player is not on the leaderboard
+     */
+    public synchronized int rankOf(UUID player) {
+        Node target = nodes.get(player);
+        if (target == null) {
+            return -1;
+        }
+        int rank = 1;
+        Node node = root;
+        while (node != target) {
+            if (compare(target.balance, target.player, node) < 0) {
+                node = node.left;
+            } else {
+                rank += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return rank + size(node.left);
+    }
+
+    /**
+     * Gets the entry at a rank, where the richest player is rank 1
+     * @param rank to look up
+     * @return the entry at that rank, or null if the rank is out of range
+     */
+    public synchronized Entry atRank(int rank) {
+        if (rank < 1 || rank > size(root)) {
+            return null;
+        }
+        Node node = root;
+        int index = rank - 1;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return new Entry(node.player, node.balance);
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+
+    /**
+     * Gets the richest players, richest first
+     * @param count maximum number of entries to return
+     * @return up to <b>count</b> entries
+     */
+    public synchronized List<Entry> top(int count) {
+        List<Entry> entries = new ArrayList<Entry>(Math.max(0, Math.min(count, nodes.size())));
+        ArrayDeque<Node> path = new ArrayDeque<Node>();
+        Node node = root;
+        while (entries.size() < count && (node != null || !path.isEmpty())) {
+            while (node != null) {
+                path.push(node);
+                node = node.left;
+            }
+            node = path.pop();
+            entries.add(new Entry(node.player, node.balance));
+            node = node.right;
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,41 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.List;
+
+/**
+ * Receives balance changes from an {@link ObservableEconomy}.
+ */
+public interface BalanceListener {
+
+    /**
+     * Called after a balance changed
+     * @param change of the balance
+     */
+    public void onBalanceChange(BalanceChange change);
+
+    /**
+     * Called with the changes collected since the last {@link ObservableEconomy#flush()}, for batched subscriptions.
+     * The default calls {@link #onBalanceChange(BalanceChange)} for each change.
+     * @param changes one per account, in the order the accounts first changed
+     */
+    public default void onBalanceChanges(List<BalanceChange> changes) {
+        for (BalanceChange change : changes) {
+            onBalanceChange(change);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Map from player UUID to balance, as returned by {@link Economy#getBalances(java.util.Collection, String)}.
+ * Keys and balances are kept in primitive arrays with open addressing, so looking up a balance neither boxes
+ * nor allocates. Instances are not thread-safe.
+ */
+public final class BalanceMap {
+
+    private long[] keys;
+    private double[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+
+    /**
+     * Creates an empty map
+     */
+    public BalanceMap() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty map sized to hold the given number of balances without growing
+     * @param expectedSize number of balances the map will hold
+     */
+    public BalanceMap(int expectedSize) {
+        if (expectedSize < 0) {
+            throw new IllegalArgumentException("Expected size cannot be negative");
+        }
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 4 / 3, 3)) << 1;
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity * 2];
+        values = new double[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+
+    private static int slot(long msb, long lsb, int mask) {
+        long hash = msb ^ lsb;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    private int find(long msb, long lsb) {
+        int i = slot(msb, lsb, mask);
+        while (used[i]) {
+            if (keys[2 * i] == msb && keys[2 * i + 1] == lsb) {
+                return i;
+            }
+            i = (i + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of balances in the map
+     * @return number of balances
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the map holds no balances
+     * @return true if the map is empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if the map holds a balance for a player
+     * @param id of the player
+     * @return true if the map has a balance for the player
+     */
+    public boolean containsKey(UUID id) {
+        return find(id.getMostSignificantBits(), id.getLeastSignificantBits()) >= 0;
+    }
+
+    /**
+     * Gets the balance of a player
+     * @param id of the player
+     * @return balance of the player, or 0 if the map has none
+     */
+    public double get(UUID id) {
+        return getOrDefault(id, 0);
+    }
+
+    /**
+     * Gets the balance of a player
+     * @param id of the player
+     * @param defaultValue returned if the map has no balance for the player
+     * @return balance of the player, or <b>defaultValue</b>
+     */
+    public double getOrDefault(UUID id, double defaultValue) {
+        int i = find(id.getMostSignificantBits(), id.getLeastSignificantBits());
+        return i < 0 ? defaultValue : values[i];
+    }
+
+    /**
+     * Sets the balance of a player
+     * @param id of the player
+     * @param balance of the player
+     */
+    public void put(UUID id, double balance) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        int i = find(msb, lsb);
+        if (i >= 0) {
+            values[i] = balance;
+            return;
+        }
+        if ((size + 1) * 4L > (mask + 1) * 3L) {
+            grow();
+        }
+        insert(msb, lsb, balance);
+        size++;
+    }
+
+    private void insert(long msb, long lsb, double balance) {
+        int i = slot(msb, lsb, mask);
+        while (used[i]) {
+            i = (i + 1) & mask;
+        }
+        keys[2 * i] = msb;
+        keys[2 * i + 1] = lsb;
+        values[i] = balance;
+        used[i] = true;
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        boolean[] oldUsed = used;
+        allocate(oldUsed.length * 2);
+        for (int i = 0; i < oldUsed.length; i++) {
+            if (oldUsed[i]) {
+                insert(oldKeys[2 * i], oldKeys[2 * i + 1], oldValues[i]);
+            }
+        }
+    }
+
+    /**
+     * Removes every balance from the map
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    /**
+     * Receives every balance of a map
+     */
+    public interface Visitor {
+        void visit(UUID id, double balance);
+    }
+
+    /**
+     * Visits every balance in the map, in no particular order
+     * @param visitor to call for each balance
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i <= mask; i++) {
+            if (used[i]) {
+                visitor.visit(new UUID(keys[2 * i], keys[2 * i + 1]), values[i]);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        forEach((id, balance) -> {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            builder.append(id).append('=').append(balance);
+        });
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,279 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Open-addressing hash table from UUID to a balance in minor units, stored in primitive arrays.
+ * Reads never lock and updates are a compare-and-set on the balance slot. Only inserting a new account takes a lock,
+ * and only a resize makes concurrent readers and writers wait: while the table is copied every old slot is marked
+ * {@link #MOVED}, which sends callers to retry against the new table once it is published.
+ */
+final class BalanceTable {
+
+    /**
+     * Returned by reads and updates when the account does not exist
+     */
+    static final long ABSENT = Long.MIN_VALUE;
+    /**
+     * Returned by {@link #add(UUID, long, long)} when the update would take the balance below the minimum or overflow
+     */
+    static final long REJECTED = Long.MIN_VALUE + 1;
+    // Marks a slot whose value has been copied into a new table
+    private static final long MOVED = Long.MIN_VALUE;
+
+    private static final class Table {
+        final AtomicLongArray keys;
+        final AtomicIntegerArray used;
+        final AtomicLongArray values;
+        final int mask;
+
+        Table(int capacity) {
+            keys = new AtomicLongArray(capacity * 2);
+            used = new AtomicIntegerArray(capacity);
+            values = new AtomicLongArray(capacity);
+            mask = capacity - 1;
+        }
+    }
+
+    private final Object lock = new Object();
+    private volatile Table table = new Table(64);
+    private int size;
+
+    private static int slot(long msb, long lsb, int mask) {
+        long hash = msb ^ lsb;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+
+    private static int find(Table t, long msb, long lsb) {
+        int i = slot(msb, lsb, t.mask);
+        while (t.used.get(i) != 0) {
+            if (t.keys.get(2 * i) == msb && t.keys.get(2 * i + 1) == lsb) {
+                return i;
+            }
+            i = (i + 1) & t.mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the number of accounts in the table
+     * @return number of accounts
+     */
+    int size() {
+        synchronized (lock) {
+            return size;
+        }
+    }
+
+    /**
+     * Gets the balance of an account
+     * @param id of the account
+     * @return balance in minor units, or {@link #ABSENT}
+     */
+    long get(UUID id) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        while (true) {
+            Table t = table;
+            int i = find(t, msb, lsb);
+            if (i < 0) {
+                return ABSENT;
+            }
+            long value = t.values.get(i);
+            if (value != MOVED) {
+                return value;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Adds a delta to the balance of an account, unless the result would be below the minimum
+     * @param id of the account
+     * @param delta to add, negative to subtract
+     * @param minimum lowest allowed resulting balance
+     * @return new balance in minor units, {@link #ABSENT} or {@link #REJECTED}
+     */
+    long add(UUID id, long delta, long minimum) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        while (true) {
+            Table t = table;
+            int i = find(t, msb, lsb);
+            if (i < 0) {
+                return ABSENT;
+            }
+            long value = t.values.get(i);
+            if (value == MOVED) {
+                Thread.yield();
+                continue;
+            }
+            long updated = add(value, delta, minimum);
+            if (updated == REJECTED || t.values.compareAndSet(i, value, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    /**
+     * Sets the balance of an account if it still has the expected balance
+     * @param id of the account
+     * @param expected current balance in minor units
+     * @param updated new balance in minor units
+     * @return true if the balance was set, false if the account does not exist or its balance changed
+     */
+    boolean compareAndSet(UUID id, long expected, long updated) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        while (true) {
+            Table t = table;
+            int i = find(t, msb, lsb);
+            if (i < 0) {
+                return false;
+            }
+            if (t.values.compareAndSet(i, expected, updated)) {
+                return true;
+            }
+            if (t.values.get(i) != MOVED) {
+                return false;
+            }
+            Thread.yield();
+        }
+    }
+
+    /**
+     * Adds a delta to a balance, unless the result would be below the minimum or overflow
+     * @param value current balance
+     * @param delta to add, negative to subtract
+     * @param minimum lowest allowed resulting balance
+     * @return new balance, or {@link #REJECTED}
+     */
+    static long add(long value, long delta, long minimum) {
+        long updated = value + delta;
+        // Overflow if both operands have a different sign than the result
+        if (((value ^ updated) & (delta ^ updated)) < 0 || updated < minimum || updated <= REJECTED) {
+            return REJECTED;
+        }
+        return updated;
+    }
+
+    /**
+     * Creates an account if it does not exist yet
+     * @param id of the account
+     * @param balance to start with, in minor units
+     * @return true if the account was created
+     */
+    boolean create(UUID id, long balance) {
+        long msb = id.getMostSignificantBits();
+        long lsb = id.getLeastSignificantBits();
+        synchronized (lock) {
+            Table t = table;
+            if (find(t, msb, lsb) >= 0) {
+                return false;
+            }
+            if ((size + 1) * 4L > (t.mask + 1) * 3L) {
+                t = resize(t);
+            }
+            insert(t, msb, lsb, balance);
+            size++;
+            return true;
+        }
+    }
+
+    private static void insert(Table t, long msb, long lsb, long balance) {
+        int i = slot(msb, lsb, t.mask);
+        while (t.used.get(i) != 0) {
+            i = (i + 1) & t.mask;
+        }
+        t.keys.set(2 * i, msb);
+        t.keys.set(2 * i + 1, lsb);
+        t.values.set(i, balance);
+        // Publishes the key and value to lock-free readers
+        t.used.set(i, 1);
+    }
+
+    // Called with the lock held
+    private Table resize(Table old) {
+        Table t = new Table((old.mask + 1) * 2);
+        for (int i = 0; i <= old.mask; i++) {
+            if (old.used.get(i) != 0) {
+                long value = old.values.getAndSet(i, MOVED);
+                insert(t, old.keys.get(2 * i), old.keys.get(2 * i + 1), value);
+            }
+        }
+        table = t;
+        return t;
+    }
+
+    /**
+     * Receives every account of a table
+     */
+    interface Visitor {
+        void visit(UUID id, long balance);
+    }
+
+    /**
+     * Visits every account. Accounts created or updated during the visit may or may not be seen.
+     * @param visitor to call for each account
+     */
+    void forEach(Visitor visitor) {
+        Table t = table;
+        for (int i = 0; i <= t.mask; i++) {
+            if (t.used.get(i) != 0) {
+                long value = t.values.get(i);
+                if (value == MOVED) {
+                    // A resize happened during the visit, finish on the new table
+                    forEachAfter(t, i, visitor);
+                    return;
+                }
+                visitor.visit(new UUID(t.keys.get(2 * i), t.keys.get(2 * i + 1)), value);
+            }
+        }
+    }
+
+    private void forEachAfter(Table old, int index, Visitor visitor) {
+        Set<UUID> seen = new HashSet<UUID>();
+        for (int i = 0; i < index; i++) {
+            if (old.used.get(i) != 0) {
+                seen.add(new UUID(old.keys.get(2 * i), old.keys.get(2 * i + 1)));
+            }
+        }
+        Table t;
+        while ((t = table) == old) {
+            Thread.yield();
+        }
+        for (int i = 0; i <= t.mask; i++) {
+            if (t.used.get(i) != 0) {
+                UUID id = new UUID(t.keys.get(2 * i), t.keys.get(2 * i + 1));
+                if (!seen.contains(id)) {
+                    long value = get(id);
+                    if (value != ABSENT) {
+                        visitor.visit(id, value);
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+/**
+ * A bank name together with its balance, as returned when enumerating banks.
+ */
+public class BankBalance {
+
+    /**
+     * Name of the bank
+     */
+    public final String name;
+    /**
+     * Balance of the bank when it was read
+     */
+    public final double balance;
+
+    /**
+     * Constructor for BankBalance
+     * @param name of the bank
+     * @param balance of the bank
+     */
+    public BankBalance(String name, double balance) {
+        this.name = name;
+        this.balance = balance;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + balance;
+    }
+}
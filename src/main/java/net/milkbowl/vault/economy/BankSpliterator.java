@@ -0,0 +1,88 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Default bank enumeration on top of {@link Economy#getBanks()} and {@link Economy#bankBalance(String)}.
+ * The bank list is fetched when traversal starts and each balance is looked up as its bank is reached.
+ * Banks that no longer exist by then are skipped.
+ */
+final class BankSpliterator implements Spliterator<BankBalance> {
+
+    private final Economy economy;
+    private List<String> names;
+    private int index;
+    private int fence;
+
+    BankSpliterator(Economy economy) {
+        this.economy = economy;
+    }
+
+    private BankSpliterator(Economy economy, List<String> names, int index, int fence) {
+        this.economy = economy;
+        this.names = names;
+        this.index = index;
+        this.fence = fence;
+    }
+
+    private void init() {
+        if (names == null) {
+            names = economy.getBanks();
+            fence = names.size();
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super BankBalance> action) {
+        init();
+        while (index < fence) {
+            String name = names.get(index++);
+            EconomyResponse response = economy.bankBalance(name);
+            if (response.transactionSuccess()) {
+                action.accept(new BankBalance(name, response.balance));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Spliterator<BankBalance> trySplit() {
+        init();
+        int mid = (index + fence) >>> 1;
+        if (mid <= index) {
+            return null;
+        }
+        BankSpliterator prefix = new BankSpliterator(economy, names, index, mid);
+        index = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        init();
+        return fence - index;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | NONNULL;
+    }
+}
@@ -0,0 +1,150 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Default implementation of {@link Economy#applyBulk(java.util.Collection, String, BulkOperation)} on top of the
+ * per-account methods, splitting the players of parallel operations into chunks run on the operation's executor,
+ * or on a small pool of Vault's own. Economy calls may block on I/O, so they are kept off the common fork-join pool.
+ * A percentage is taken of the balance read just before and applied as a single deposit or withdrawal of the
+ * difference, so a change made to the account in between is kept. Players without an account, and players the
+ * economy threw an exception for, count as failures.
+ */
+final class BulkApplier {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+
+    // Players handled by one parallel task
+    private static final int CHUNK = 64;
+
+    // Created on first use, so Vault only starts threads if an operation runs in parallel without an executor
+    private static final class DefaultPool {
+        static final ExecutorService EXECUTOR;
+
+        static {
+            AtomicInteger count = new AtomicInteger();
+            EXECUTOR = Executors.newFixedThreadPool(Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+                Thread thread = new Thread(r, "Vault-BulkApplier-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private static final class Tally {
+        int succeeded;
+        double deposited;
+        double withdrawn;
+        final List<OfflinePlayer> failures = new ArrayList<OfflinePlayer>();
+
+        Tally merge(Tally other) {
+            succeeded += other.succeeded;
+            deposited += other.deposited;
+            withdrawn += other.withdrawn;
+            failures.addAll(other.failures);
+            return this;
+        }
+
+        BulkResult toResult() {
+            return new BulkResult(succeeded, deposited, withdrawn, failures);
+        }
+    }
+
+    private BulkApplier() {
+    }
+
+    static BulkResult apply(Economy economy, List<OfflinePlayer> players, String world, BulkOperation operation) {
+        if (!operation.parallel || players.size() <= CHUNK) {
+            return applyRange(economy, players, world, operation, 0, players.size()).toResult();
+        }
+        Executor executor = operation.executor != null ? operation.executor : DefaultPool.EXECUTOR;
+        List<CompletableFuture<Tally>> chunks = new ArrayList<CompletableFuture<Tally>>();
+        for (int from = CHUNK; from < players.size(); from += CHUNK) {
+            int start = from;
+            int end = Math.min(from + CHUNK, players.size());
+            try {
+                chunks.add(CompletableFuture.supplyAsync(() -> applyRange(economy, players, world, operation, start, end), executor));
+            } catch (RejectedExecutionException e) {
+                chunks.add(CompletableFuture.completedFuture(applyRange(economy, players, world, operation, start, end)));
+            }
+        }
+        // The caller works through the first chunk itself, as well as any chunk the executor rejected
+        Tally tally = applyRange(economy, players, world, operation, 0, CHUNK);
+        for (CompletableFuture<Tally> chunk : chunks) {
+            tally.merge(chunk.join());
+        }
+        return tally.toResult();
+    }
+
+    private static Tally applyRange(Economy economy, List<OfflinePlayer> players, String world, BulkOperation operation, int from, int to) {
+        Tally tally = new Tally();
+        for (int i = from; i < to; i++) {
+            OfflinePlayer player = players.get(i);
+            try {
+                applyOne(economy, player, world, operation, tally);
+            } catch (RuntimeException e) {
+                log.log(Level.WARNING, "[Vault] Bulk operation " + operation + " failed for " + player.getName() + " on " + economy.getName(), e);
+                tally.failures.add(player);
+            }
+        }
+        return tally;
+    }
+
+    private static void applyOne(Economy economy, OfflinePlayer player, String world, BulkOperation operation, Tally tally) {
+        double amount = operation.value;
+        if (operation.needsBalance()) {
+            amount = operation.amountFor(world == null ? economy.getBalance(player) : economy.getBalance(player, world));
+        }
+        if (amount == 0) {
+            // Nothing to move, but a missing account (which reads as 0) still fails
+            if (world == null ? economy.hasAccount(player) : economy.hasAccount(player, world)) {
+                tally.succeeded++;
+            } else {
+                tally.failures.add(player);
+            }
+            return;
+        }
+        EconomyResponse response;
+        if (amount > 0) {
+            response = world == null ? economy.depositPlayer(player, amount) : economy.depositPlayer(player, world, amount);
+        } else {
+            response = world == null ? economy.withdrawPlayer(player, -amount) : economy.withdrawPlayer(player, world, -amount);
+        }
+        if (!response.transactionSuccess()) {
+            tally.failures.add(player);
+        } else {
+            tally.succeeded++;
+            if (amount > 0) {
+                tally.deposited += response.amount;
+            } else {
+                tally.withdrawn += response.amount;
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.concurrent.Executor;
+
+/**
+ * A change applied to many accounts at once by {@link Economy#applyBulk(java.util.Collection, String, BulkOperation)}.
+ * Positive amounts are deposited and negative amounts are withdrawn.
+ */
+public final class BulkOperation {
+
+    /**
+     * Kinds of bulk operation
+     */
+    public static enum Kind {
+        /**
+         * The same amount for every account, like a salary
+         */
+        FIXED,
+        /**
+         * A percentage of each account's balance, like interest or a tax
+         */
+        PERCENTAGE
+    }
+
+    /**
+     * Kind of operation
+     */
+    public final Kind kind;
+    /**
+     * Amount for {@link Kind#FIXED}, percentage for {@link Kind#PERCENTAGE}
+     */
+    public final double value;
+    /**
+     * True if accounts may be updated in parallel
+     */
+    public final boolean parallel;
+    /**
+     * Executor parallel updates run on, or null for a small pool of Vault's own
+     */
+    public final Executor executor;
+
+    private BulkOperation(Kind kind, double value, boolean parallel, Executor executor) {
+        this.kind = kind;
+        this.value = value;
+        this.parallel = parallel;
+        this.executor = executor;
+    }
+
+    /**
+     * Creates an operation depositing or withdrawing the same amount for every account
+     * @param amount to deposit, or negative to withdraw
+     * @return the operation
+     */
+    public static BulkOperation fixed(double amount) {
+        return new BulkOperation(Kind.FIXED, amount, false, null);
+    }
+
+    /**
+     * Creates an operation depositing or withdrawing a percentage of each account's balance
+     * @param percent of the balance to deposit, or negative to withdraw
+     * @return the operation
+     */
+    public static BulkOperation percentage(double percent) {
+        return new BulkOperation(Kind.PERCENTAGE, percent, false, null);
+    }
+
+    /**
+     * Allows the operation to update accounts from several threads of a small pool Vault keeps for this.
+     * Only use this if the economy can be called concurrently.
+     * @return a copy of this operation that runs in parallel
+     */
+    public BulkOperation parallel() {
+        return new BulkOperation(kind, value, true, null);
+    }
+
+    /**
+     * Allows the operation to update accounts from several threads of the given executor.
+     * Only use this if the economy can be called concurrently.
+     * @param executor to run updates on, sized for calls that may block on I/O
+     * @return a copy of this operation that runs in parallel
+     */
+    public BulkOperation parallel(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        return new BulkOperation(kind, value, true, executor);
+    }
+
+    /**
+     * Checks if the amount depends on the balance of each account
+     * @return true if the balance must be read before applying the operation
+     */
+    public boolean needsBalance() {
+        return kind == Kind.PERCENTAGE;
+    }
+
+    /**
+     * Gets the amount to apply to an account
+     * @param balance of the account, ignored for {@link Kind#FIXED}
+     * @return amount to deposit, or negative to withdraw
+     */
+    public double amountFor(double balance) {
+        return kind == Kind.FIXED ? value : balance * value / 100;
+    }
+
+    @Override
+    public String toString() {
+        return (kind == Kind.FIXED ? String.valueOf(value) : value + "%") + (parallel ? " (parallel)" : "");
+    }
+}
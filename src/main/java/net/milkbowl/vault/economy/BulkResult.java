@@ -0,0 +1,68 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Outcome of a {@link BulkOperation}.
+ */
+public class BulkResult {
+
+    /**
+     * Number of accounts the operation was applied to
+     */
+    public final int succeeded;
+    /**
+     * Number of accounts the operation failed for
+     */
+    public final int failed;
+    /**
+     * Total amount deposited
+     */
+    public final double deposited;
+    /**
+     * Total amount withdrawn
+     */
+    public final double withdrawn;
+    /**
+     * Players the operation failed for
+     */
+    public final List<OfflinePlayer> failures;
+
+    /**
+     * Constructor for BulkResult
+     * @param succeeded number of accounts the operation was applied to
+     * @param deposited total amount deposited
+     * @param withdrawn total amount withdrawn
+     * @param failures players the operation failed for
+     */
+    public BulkResult(int succeeded, double deposited, double withdrawn, List<OfflinePlayer> failures) {
+        this.succeeded = succeeded;
+        this.failed = failures.size();
+        this.deposited = deposited;
+        this.withdrawn = withdrawn;
+        this.failures = Collections.unmodifiableList(failures);
+    }
+
+    @Override
+    public String toString() {
+        return succeeded + " succeeded, " + failed + " failed, " + deposited + " deposited, " + withdrawn + " withdrawn";
+    }
+}
@@ -0,0 +1,706 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Write-behind balance cache around another {@link Economy}.
+ * Balances are loaded once per account and then served from memory, while deposits and withdrawals are
+ * applied to the cached balance and coalesced into a single pending delta per account.
+ * Pending deltas are written to the wrapped economy by {@link #flush()}, which runs automatically in the
+ * background when the number of pending operations reaches the flush threshold, on the flush interval and
+ * when the cache is full, and on {@link #shutdown()}. A delta the wrapped economy rejects stays pending and is
+ * retried on the next flush.
+ *
+ * Deltas are taken from the cache under its lock but written without holding it, so a slow flush never blocks
+ * reads and updates of cached balances. Only reloading an account while its own delta is being written waits
+ * for that write.
+ *
+ * The cache assumes it is the only writer of the player accounts it holds. Changes made to the wrapped
+ * economy behind its back are not seen until the account is evicted or {@link #invalidate(OfflinePlayer)}
+ * is called. Bank operations are not cached.
+ *
+ * Only global accounts are cached by default: many economies map world accounts onto the global account,
+ * so world calls go to the wrapped economy after the player's pending global delta is written.
+ * Pass cacheWorlds only when the wrapped economy keeps world accounts distinct from the global account.
+ *
+ * Flushes run on a background thread, so the wrapped economy must tolerate calls from threads other than
+ * the server main thread.
+ */
+@SuppressWarnings("deprecation")
+public class CachingEconomy extends ForwardingEconomy {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private static final EconomyResponse NO_ACCOUNT = new EconomyResponse(0, 0, ResponseType.FAILURE, "Account does not exist");
+    private static final EconomyResponse NEGATIVE_WITHDRAW = new EconomyResponse(0, 0, ResponseType.FAILURE, "Cannot withdraw negative funds");
+    private static final EconomyResponse NEGATIVE_DEPOSIT = new EconomyResponse(0, 0, ResponseType.FAILURE, "Cannot deposit negative funds");
+
+    private final int maxAccounts;
+    private final int flushThreshold;
+    private final boolean cacheWorlds;
+    private final LinkedHashMap<AccountKey, CachedAccount> entries = new LinkedHashMap<AccountKey, CachedAccount>(16, 0.75f, true);
+    private final ScheduledExecutorService flusher;
+    // Operations behind the pending deltas, not counting deltas being written
+    private int pendingOperations = 0;
+    // Accounts whose delta is being written
+    private int writes = 0;
+    private boolean flushScheduled = false;
+
+    private static final class CachedAccount {
+        final OfflinePlayer player;
+        final String world;
+        double balance;
+        boolean loaded;
+        Boolean exists;
+        double pending;
+        int operations;
+        // Delta taken by a flush and not yet written, with the operations behind it
+        double writing;
+        int writingOperations;
+
+        CachedAccount(OfflinePlayer player, String world) {
+            this.player = player;
+            this.world = world;
+        }
+
+        boolean dirty() {
+            return pending != 0 || writing != 0;
+        }
+    }
+
+    /**
+     * Creates a cache that only flushes on the threshold, when full and on demand.
+     * @param economy to cache
+     * @param maxAccounts number of accounts to keep before offline accounts are evicted
+     * @param flushThreshold number of pending operations that triggers a flush
+     */
+    public CachingEconomy(Economy economy, int maxAccounts, int flushThreshold) {
+        this(economy, maxAccounts, flushThreshold, 0, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Creates a cache that additionally flushes on a fixed interval.
+     * @param economy to cache
+     * @param maxAccounts number of accounts to keep before offline accounts are evicted
+     * @param flushThreshold number of pending operations that triggers a flush
+     * @param flushInterval time between background flushes, or 0 to disable them
+     * @param unit of the flush interval
+     */
+    public CachingEconomy(Economy economy, int maxAccounts, int flushThreshold, long flushInterval, TimeUnit unit) {
+        this(economy, maxAccounts, flushThreshold, flushInterval, unit, false);
+    }
+
+    /**
+     * Creates a cache that additionally flushes on a fixed interval, optionally caching world accounts.
+     * @param economy to cache
+     * @param maxAccounts number of accounts to keep before offline accounts are evicted
+     * @param flushThreshold number of pending operations that triggers a flush
+     * @param flushInterval time between background flushes, or 0 to disable them
+     * @param unit of the flush interval
+     * @param cacheWorlds true if the wrapped economy keeps world accounts distinct from the global account
+     */
+    public CachingEconomy(Economy economy, int maxAccounts, int flushThreshold, long flushInterval, TimeUnit unit, boolean cacheWorlds) {
+        super(economy);
+        if (maxAccounts < 1) {
+            throw new IllegalArgumentException("Max accounts must be at least 1");
+        }
+        if (flushThreshold < 1) {
+            throw new IllegalArgumentException("Flush threshold must be at least 1");
+        }
+        this.maxAccounts = maxAccounts;
+        this.flushThreshold = flushThreshold;
+        this.cacheWorlds = cacheWorlds;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "Vault-CachingEconomy-" + economy.getName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (flushInterval > 0) {
+            this.flusher.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, unit);
+        }
+    }
+
+    // Evicts the least recently used clean offline accounts until at most limit are left. Online players and
+    // accounts with a delta to write are skipped; skipped online players are moved to the back of the queue,
+    // and if asked a background flush is started for the others, after which they can be evicted.
+    private void trim(int limit, boolean flush) {
+        if (entries.size() <= limit) {
+            return;
+        }
+        List<AccountKey> online = null;
+        boolean dirty = false;
+        Iterator<Map.Entry<AccountKey, CachedAccount>> it = entries.entrySet().iterator();
+        while (entries.size() > limit && it.hasNext()) {
+            Map.Entry<AccountKey, CachedAccount> eldest = it.next();
+            if (eldest.getValue().player.isOnline()) {
+                if (online == null) {
+                    online = new ArrayList<AccountKey>();
+                }
+                online.add(eldest.getKey());
+            } else if (eldest.getValue().dirty()) {
+                dirty = true;
+            } else {
+                it.remove();
+            }
+        }
+        if (online != null) {
+            for (AccountKey key : online) {
+                entries.get(key);
+            }
+        }
+        if (flush && dirty && entries.size() > limit) {
+            scheduleFlush();
+        }
+    }
+
+    // Starts a background flush unless one is already scheduled. Returns false if the flusher is shut down.
+    private boolean scheduleFlush() {
+        if (flushScheduled) {
+            return true;
+        }
+        flushScheduled = true;
+        try {
+            flusher.execute(this::flush);
+            return true;
+        } catch (RejectedExecutionException e) {
+            flushScheduled = false;
+            return false;
+        }
+    }
+
+    /**
+     * Writes all pending deltas to the wrapped economy.
+     * Deltas another flush is already writing are left to it.
+     */
+    public void flush() {
+        List<CachedAccount> batch;
+        synchronized (this) {
+            flushScheduled = false;
+            batch = take(entries.values());
+        }
+        write(batch);
+    }
+
+    // Flushes and waits for writes other flushes have in progress, so the wrapped economy holds every delta
+    private void drain() {
+        flush();
+        synchronized (this) {
+            boolean interrupted = false;
+            while (writes > 0) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of cached accounts
+     * @return number of accounts
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Flushes all pending deltas and stops the background flusher.
+     * The cache remains usable afterwards but flushes only when asked to.
+     */
+    public void shutdown() {
+        flusher.shutdown();
+        drain();
+    }
+
+    /**
+     * Drops the cached balances of a player, so they are reloaded from the wrapped economy on next use.
+     * Accounts with a pending delta are kept and reloaded with the delta still pending, to be written by the next flush.
+     * @param player to invalidate
+     */
+    public synchronized void invalidate(OfflinePlayer player) {
+        Iterator<CachedAccount> it = entries.values().iterator();
+        while (it.hasNext()) {
+            CachedAccount entry = it.next();
+            if (entry.player.getUniqueId().equals(player.getUniqueId())) {
+                drop(it, entry);
+            }
+        }
+    }
+
+    /**
+     * Drops every cached balance.
+     * Accounts with a pending delta are kept and reloaded with the delta still pending, to be written by the next flush.
+     */
+    public synchronized void invalidateAll() {
+        Iterator<CachedAccount> it = entries.values().iterator();
+        while (it.hasNext()) {
+            drop(it, it.next());
+        }
+    }
+
+    private void drop(Iterator<CachedAccount> it, CachedAccount entry) {
+        if (entry.dirty()) {
+            entry.loaded = false;
+            entry.exists = null;
+        } else {
+            it.remove();
+        }
+    }
+
+    // Moves the pending deltas of the given accounts to writing, skipping accounts already being written
+    private List<CachedAccount> take(Collection<CachedAccount> accounts) {
+        List<CachedAccount> batch = new ArrayList<CachedAccount>();
+        for (CachedAccount entry : accounts) {
+            if (entry.pending != 0 && entry.writing == 0) {
+                entry.writing = entry.pending;
+                entry.writingOperations = entry.operations;
+                entry.pending = 0;
+                entry.operations = 0;
+                pendingOperations -= entry.writingOperations;
+                writes++;
+                batch.add(entry);
+            }
+        }
+        return batch;
+    }
+
+    // Writes taken deltas without holding the lock. A rejected delta is merged back into the pending delta,
+    // together with its operations, and the balance is reloaded.
+    private void write(List<CachedAccount> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        for (CachedAccount entry : batch) {
+            boolean written = write(entry.player, entry.world, entry.writing);
+            synchronized (this) {
+                if (!written) {
+                    entry.pending += entry.writing;
+                    entry.operations += entry.writingOperations;
+                    pendingOperations += entry.writingOperations;
+                    entry.loaded = false;
+                }
+                entry.writing = 0;
+                entry.writingOperations = 0;
+                writes--;
+                notifyAll();
+            }
+        }
+        synchronized (this) {
+            trim(maxAccounts, false);
+        }
+    }
+
+    private boolean write(OfflinePlayer player, String world, double delta) {
+        EconomyResponse response;
+        try {
+            if (delta > 0) {
+                response = world == null ? economy.depositPlayer(player, delta) : economy.depositPlayer(player, world, delta);
+            } else {
+                response = world == null ? economy.withdrawPlayer(player, -delta) : economy.withdrawPlayer(player, world, -delta);
+            }
+        } catch (RuntimeException e) {
+            log.log(Level.WARNING, "[Vault] Failed to write cached balance change of " + delta + " for " + player.getName()
+                    + (world == null ? "" : " in " + world) + " to " + economy.getName(), e);
+            return false;
+        }
+        if (!response.transactionSuccess()) {
+            log.log(Level.WARNING, "[Vault] Failed to write cached balance change of " + delta + " for " + player.getName()
+                    + (world == null ? "" : " in " + world) + " to " + economy.getName() + ": " + response.errorMessage);
+            return false;
+        }
+        return true;
+    }
+
+    // Waits until a flush has finished writing the delta of an account. The lock is released while waiting.
+    private void awaitWrite(CachedAccount entry) {
+        boolean interrupted = false;
+        while (entry.writing != 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean cached(String world) {
+        return world == null || cacheWorlds;
+    }
+
+    // Writes the pending global delta of a player before a world call goes to the wrapped economy, and reloads
+    // the global balance afterwards in case the world account is an alias of it
+    private void bypass(OfflinePlayer player) {
+        AccountKey key = AccountKey.of(player, null);
+        List<CachedAccount> batch;
+        synchronized (this) {
+            CachedAccount entry = entries.get(key);
+            while (entry != null && entry.writing != 0) {
+                awaitWrite(entry);
+                entry = entries.get(key);
+            }
+            if (entry == null) {
+                return;
+            }
+            entry.loaded = false;
+            batch = take(Collections.singletonList(entry));
+        }
+        write(batch);
+    }
+
+    // Gets the cached account of a player, adding it if needed. An account that has to be reloaded while its
+    // delta is being written is waited for, as the delta may or may not be in the wrapped balance yet.
+    private CachedAccount entry(OfflinePlayer player, String world) {
+        AccountKey key = AccountKey.of(player, world);
+        while (true) {
+            CachedAccount entry = entries.get(key);
+            if (entry == null) {
+                trim(maxAccounts - 1, true);
+                entry = new CachedAccount(player, world);
+                entries.put(key, entry);
+                return entry;
+            }
+            if (entry.loaded || entry.writing == 0) {
+                return entry;
+            }
+            awaitWrite(entry);
+        }
+    }
+
+    private CachedAccount load(OfflinePlayer player, String world) {
+        return load(entry(player, world));
+    }
+
+    private CachedAccount load(CachedAccount entry) {
+        if (!entry.loaded) {
+            entry.balance = (entry.world == null ? economy.getBalance(entry.player) : economy.getBalance(entry.player, entry.world)) + entry.pending;
+            entry.loaded = true;
+        }
+        return entry;
+    }
+
+    private boolean exists(CachedAccount entry) {
+        if (entry.exists == null) {
+            entry.exists = entry.world == null ? economy.hasAccount(entry.player) : economy.hasAccount(entry.player, entry.world);
+        }
+        return entry.exists;
+    }
+
+    // Must hold the lock; the caller flushes afterwards if this returns a due flush it could not schedule
+    private EconomyResponse apply(OfflinePlayer player, String world, double amount, boolean withdraw) {
+        if (amount < 0) {
+            return withdraw ? NEGATIVE_WITHDRAW : NEGATIVE_DEPOSIT;
+        }
+        CachedAccount entry = entry(player, world);
+        if (!exists(entry)) {
+            return NO_ACCOUNT;
+        }
+        load(entry);
+        if (withdraw && entry.balance < amount) {
+            return new EconomyResponse(0, entry.balance, ResponseType.FAILURE, "Insufficient funds");
+        }
+        double delta = withdraw ? -amount : amount;
+        entry.balance += delta;
+        entry.pending += delta;
+        entry.operations++;
+        pendingOperations++;
+        return new EconomyResponse(amount, entry.balance, ResponseType.SUCCESS, null);
+    }
+
+    // Starts a background flush once enough operations are pending. Returns true if the flusher is shut down
+    // and the caller must flush itself, after releasing the lock.
+    private boolean flushDue() {
+        return pendingOperations >= flushThreshold && !scheduleFlush();
+    }
+
+    private EconomyResponse update(OfflinePlayer player, String world, double amount, boolean withdraw) {
+        EconomyResponse response;
+        boolean flush;
+        synchronized (this) {
+            response = apply(player, world, amount, withdraw);
+            flush = flushDue();
+        }
+        if (flush) {
+            flush();
+        }
+        return response;
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player) {
+        synchronized (this) {
+            return load(player, null).balance;
+        }
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player, String world) {
+        if (!cached(world)) {
+            bypass(player);
+            return economy.getBalance(player, world);
+        }
+        synchronized (this) {
+            return load(player, world).balance;
+        }
+    }
+
+    /**
+     * Answers cached players from the cache and loads the rest with a single call to the wrapped economy.
+     */
+    @Override
+    public BalanceMap getBalances(Collection<? extends OfflinePlayer> players, String world) {
+        if (!cached(world)) {
+            for (OfflinePlayer player : players) {
+                bypass(player);
+            }
+            return economy.getBalances(players, world);
+        }
+        synchronized (this) {
+            BalanceMap balances;
+            List<OfflinePlayer> missing;
+            CachedAccount writing;
+            do {
+                balances = new BalanceMap(players.size());
+                missing = null;
+                writing = null;
+                for (OfflinePlayer player : players) {
+                    CachedAccount entry = entries.get(AccountKey.of(player, world));
+                    if (entry != null && entry.loaded) {
+                        balances.put(player.getUniqueId(), entry.balance);
+                    } else {
+                        if (entry != null && entry.writing != 0) {
+                            writing = entry;
+                        }
+                        if (missing == null) {
+                            missing = new ArrayList<OfflinePlayer>();
+                        }
+                        missing.add(player);
+                    }
+                }
+                // Waiting releases the lock, so start over once the write is done
+                if (writing != null) {
+                    awaitWrite(writing);
+                }
+            } while (writing != null);
+            if (missing != null) {
+                BalanceMap loaded = economy.getBalances(missing, world);
+                for (OfflinePlayer player : missing) {
+                    CachedAccount entry = entry(player, world);
+                    entry.balance = loaded.get(player.getUniqueId()) + entry.pending;
+                    entry.loaded = true;
+                    balances.put(player.getUniqueId(), entry.balance);
+                }
+            }
+            return balances;
+        }
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, double amount) {
+        synchronized (this) {
+            return load(player, null).balance >= amount;
+        }
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, String worldName, double amount) {
+        if (!cached(worldName)) {
+            bypass(player);
+            return economy.has(player, worldName, amount);
+        }
+        synchronized (this) {
+            return load(player, worldName).balance >= amount;
+        }
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return update(player, null, amount, true);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        if (!cached(worldName)) {
+            bypass(player);
+            return economy.withdrawPlayer(player, worldName, amount);
+        }
+        return update(player, worldName, amount, true);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return update(player, null, amount, false);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        if (!cached(worldName)) {
+            bypass(player);
+            return economy.depositPlayer(player, worldName, amount);
+        }
+        return update(player, worldName, amount, false);
+    }
+
+    @Override
+    public EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        EconomyResponse response;
+        boolean flush;
+        synchronized (this) {
+            response = transferCached(from, to, amount);
+            flush = flushDue();
+        }
+        if (flush) {
+            flush();
+        }
+        return response;
+    }
+
+    private EconomyResponse transferCached(OfflinePlayer from, OfflinePlayer to, double amount) {
+        EconomyResponse withdrawal = apply(from, null, amount, true);
+        if (!withdrawal.transactionSuccess()) {
+            return withdrawal;
+        }
+        EconomyResponse deposit = apply(to, null, amount, false);
+        if (deposit.transactionSuccess()) {
+            return withdrawal;
+        }
+        EconomyResponse refund = apply(from, null, amount, false);
+        return new EconomyResponse(0, refund.balance, deposit.type, deposit.errorMessage);
+    }
+
+    @Override
+    public List<EconomyResponse> transferAll(Collection<Transfer> transfers) {
+        List<EconomyResponse> responses = new ArrayList<EconomyResponse>(transfers.size());
+        boolean flush;
+        synchronized (this) {
+            for (Transfer transfer : transfers) {
+                responses.add(transferCached(transfer.from, transfer.to, transfer.amount));
+            }
+            flush = flushDue();
+        }
+        if (flush) {
+            flush();
+        }
+        return responses;
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        boolean created = economy.createPlayerAccount(player);
+        invalidate(player);
+        return created;
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+        boolean created = economy.createPlayerAccount(player, worldName);
+        invalidate(player);
+        return created;
+    }
+
+    // The name based methods cannot be matched to cached accounts. Reads write every pending delta first;
+    // anything that changes a balance drops the whole cache afterwards, so cached accounts are reloaded
+    // with their pending deltas on top of the new balance.
+
+    @Override
+    public double getBalance(String playerName) {
+        drain();
+        return economy.getBalance(playerName);
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        drain();
+        return economy.getBalance(playerName, world);
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        drain();
+        return economy.has(playerName, amount);
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        drain();
+        return economy.has(playerName, worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        EconomyResponse response = economy.withdrawPlayer(playerName, amount);
+        invalidateAll();
+        return response;
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        EconomyResponse response = economy.withdrawPlayer(playerName, worldName, amount);
+        invalidateAll();
+        return response;
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        EconomyResponse response = economy.depositPlayer(playerName, amount);
+        invalidateAll();
+        return response;
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        EconomyResponse response = economy.depositPlayer(playerName, worldName, amount);
+        invalidateAll();
+        return response;
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        boolean created = economy.createPlayerAccount(playerName);
+        invalidateAll();
+        return created;
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        boolean created = economy.createPlayerAccount(playerName, worldName);
+        invalidateAll();
+        return created;
+    }
+}
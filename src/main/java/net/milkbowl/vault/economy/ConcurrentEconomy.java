@@ -0,0 +1,387 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Makes another {@link Economy} safe to call from multiple threads by guarding every account with one of
+ * a fixed set of lock stripes.
+ * Operations on accounts that hash to different stripes run in parallel, while every read or read-modify-write
+ * of the same account is serialized.
+ *
+ * Player accounts are striped by the player's UUID only, not by world, since many economies answer
+ * world-specific calls from the global account. Banks are striped by name. The deprecated name based methods
+ * cannot be matched to a UUID stripe, so they take every stripe and are fully serialized.
+ *
+ * The wrapped economy must still tolerate concurrent calls for different accounts, which holds for any
+ * economy whose shared state is itself thread-safe (concurrent maps, database connection pools, ...).
+ */
+@SuppressWarnings("deprecation")
+public class ConcurrentEconomy extends ForwardingEconomy {
+
+    private final LockStripes stripes;
+
+    /**
+     * Creates a wrapper with 64 lock stripes
+     * @param economy to guard
+     */
+    public ConcurrentEconomy(Economy economy) {
+        this(economy, 64);
+    }
+
+    /**
+     * Creates a wrapper with at least the given number of lock stripes, rounded up to a power of two
+     * @param economy to guard
+     * @param stripes minimum number of lock stripes
+     */
+    public ConcurrentEconomy(Economy economy, int stripes) {
+        super(economy);
+        this.stripes = new LockStripes(stripes);
+    }
+
+    private <T> T locked(OfflinePlayer player, Supplier<T> call) {
+        return locked(stripes.player(player), call);
+    }
+
+    private <T> T lockedBank(String name, Supplier<T> call) {
+        return locked(stripes.bank(name), call);
+    }
+
+    private static <T> T locked(Lock lock, Supplier<T> call) {
+        lock.lock();
+        try {
+            return call.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private <T> T lockedAll(Supplier<T> call) {
+        stripes.lockAll();
+        try {
+            return call.get();
+        } finally {
+            stripes.unlockAll();
+        }
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player) {
+        return locked(player, () -> economy.hasAccount(player));
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player, String worldName) {
+        return locked(player, () -> economy.hasAccount(player, worldName));
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player) {
+        return locked(player, () -> economy.getBalance(player));
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player, String world) {
+        return locked(player, () -> economy.getBalance(player, world));
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, double amount) {
+        return locked(player, () -> economy.has(player, amount));
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, String worldName, double amount) {
+        return locked(player, () -> economy.has(player, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return locked(player, () -> economy.withdrawPlayer(player, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return locked(player, () -> economy.withdrawPlayer(player, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return locked(player, () -> economy.depositPlayer(player, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return locked(player, () -> economy.depositPlayer(player, worldName, amount));
+    }
+
+    @Override
+    public long getBalanceMinor(OfflinePlayer player) {
+        return locked(player, () -> economy.getBalanceMinor(player));
+    }
+
+    @Override
+    public long getBalanceMinor(OfflinePlayer player, String world) {
+        return locked(player, () -> economy.getBalanceMinor(player, world));
+    }
+
+    @Override
+    public boolean hasMinor(OfflinePlayer player, long amount) {
+        return locked(player, () -> economy.hasMinor(player, amount));
+    }
+
+    @Override
+    public boolean hasMinor(OfflinePlayer player, String worldName, long amount) {
+        return locked(player, () -> economy.hasMinor(player, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayerMinor(OfflinePlayer player, long amount) {
+        return locked(player, () -> economy.withdrawPlayerMinor(player, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        return locked(player, () -> economy.withdrawPlayerMinor(player, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayerMinor(OfflinePlayer player, long amount) {
+        return locked(player, () -> economy.depositPlayerMinor(player, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        return locked(player, () -> economy.depositPlayerMinor(player, worldName, amount));
+    }
+
+    @Override
+    public boolean withdrawPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        return locked(player, () -> economy.withdrawPlayer(player, amount, result));
+    }
+
+    @Override
+    public boolean withdrawPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        return locked(player, () -> economy.withdrawPlayer(player, worldName, amount, result));
+    }
+
+    @Override
+    public boolean depositPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        return locked(player, () -> economy.depositPlayer(player, amount, result));
+    }
+
+    @Override
+    public boolean depositPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        return locked(player, () -> economy.depositPlayer(player, worldName, amount, result));
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        return locked(player, () -> economy.createPlayerAccount(player));
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+        return locked(player, () -> economy.createPlayerAccount(player, worldName));
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, OfflinePlayer player) {
+        return lockedBank(name, () -> economy.createBank(name, player));
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        return lockedBank(name, () -> economy.createBank(name, player));
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        return lockedBank(name, () -> economy.deleteBank(name));
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        return lockedBank(name, () -> economy.bankBalance(name));
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        return lockedBank(name, () -> economy.bankHas(name, amount));
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return lockedBank(name, () -> economy.bankWithdraw(name, amount));
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return lockedBank(name, () -> economy.bankDeposit(name, amount));
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return lockedBank(name, () -> economy.isBankOwner(name, playerName));
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, OfflinePlayer player) {
+        return lockedBank(name, () -> economy.isBankOwner(name, player));
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return lockedBank(name, () -> economy.isBankMember(name, playerName));
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, OfflinePlayer player) {
+        return lockedBank(name, () -> economy.isBankMember(name, player));
+    }
+
+    @Override
+    public double bankBalanceFast(String name) {
+        return lockedBank(name, () -> economy.bankBalanceFast(name));
+    }
+
+    @Override
+    public boolean bankHasFast(String name, double amount) {
+        return lockedBank(name, () -> economy.bankHasFast(name, amount));
+    }
+
+    @Override
+    public boolean isBankOwnerFast(String name, OfflinePlayer player) {
+        return lockedBank(name, () -> economy.isBankOwnerFast(name, player));
+    }
+
+    @Override
+    public boolean isBankMemberFast(String name, OfflinePlayer player) {
+        return lockedBank(name, () -> economy.isBankMemberFast(name, player));
+    }
+
+    @Override
+    public EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        stripes.lock(from, to);
+        try {
+            return economy.transfer(from, to, amount);
+        } finally {
+            stripes.unlock(from, to);
+        }
+    }
+
+    @Override
+    public List<EconomyResponse> transferAll(Collection<Transfer> transfers) {
+        List<EconomyResponse> responses = new ArrayList<EconomyResponse>(transfers.size());
+        for (Transfer transfer : transfers) {
+            responses.add(transfer(transfer.from, transfer.to, transfer.amount));
+        }
+        return responses;
+    }
+
+    /**
+     * Takes the stripes of every player in index order, so the wrapped economy can answer in one call
+     * without racing writes to those accounts.
+     */
+    @Override
+    public BalanceMap getBalances(Collection<? extends OfflinePlayer> players, String world) {
+        boolean[] needed = new boolean[stripes.size()];
+        for (OfflinePlayer player : players) {
+            needed[stripes.index(player)] = true;
+        }
+        for (int i = 0; i < needed.length; i++) {
+            if (needed[i]) {
+                stripes.get(i).lock();
+            }
+        }
+        try {
+            return economy.getBalances(players, world);
+        } finally {
+            for (int i = needed.length - 1; i >= 0; i--) {
+                if (needed[i]) {
+                    stripes.get(i).unlock();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean hasAccount(String playerName) {
+        return lockedAll(() -> economy.hasAccount(playerName));
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return lockedAll(() -> economy.hasAccount(playerName, worldName));
+    }
+
+    @Override
+    public double getBalance(String playerName) {
+        return lockedAll(() -> economy.getBalance(playerName));
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        return lockedAll(() -> economy.getBalance(playerName, world));
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return lockedAll(() -> economy.has(playerName, amount));
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return lockedAll(() -> economy.has(playerName, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        return lockedAll(() -> economy.withdrawPlayer(playerName, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        return lockedAll(() -> economy.withdrawPlayer(playerName, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        return lockedAll(() -> economy.depositPlayer(playerName, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        return lockedAll(() -> economy.depositPlayer(playerName, worldName, amount));
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        return lockedAll(() -> economy.createPlayerAccount(playerName));
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return lockedAll(() -> economy.createPlayerAccount(playerName, worldName));
+    }
+}
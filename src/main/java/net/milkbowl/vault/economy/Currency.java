@@ -0,0 +1,105 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+/**
+ * An interned currency of a {@link MultiCurrencyEconomy}, obtained once from a {@link CurrencyRegistry} and then
+ * passed to every balance operation.
+ * Each currency has a small dense id, so economies can keep balances in arrays indexed by it.
+ * Currencies are compared by identity.
+ */
+public final class Currency {
+
+    private final int id;
+    private final String name;
+    private final int fractionalDigits;
+    private final String currencyNameSingular;
+    private final String currencyNamePlural;
+    private final CurrencyFormatter formatter;
+
+    Currency(int id, String name, int fractionalDigits, String currencyNameSingular, String currencyNamePlural) {
+        this.id = id;
+        this.name = name;
+        this.fractionalDigits = fractionalDigits;
+        this.currencyNameSingular = currencyNameSingular;
+        this.currencyNamePlural = currencyNamePlural;
+        this.formatter = new CurrencyFormatter(fractionalDigits, currencyNameSingular, currencyNamePlural);
+    }
+
+    /**
+     * Gets the dense id of this currency, unique within its registry and counting up from 0
+     * @return id of the currency
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name this currency was registered with
+     * @return name of the currency
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Some economy plugins round off after a certain number of digits.
+     * This function returns the number of digits the plugin keeps
+     * or -1 if no rounding occurs.
+     * @return number of digits after the decimal point kept
+     */
+    public int fractionalDigits() {
+        return fractionalDigits;
+    }
+
+    /**
+     * Returns the name of the currency in singular form.
+     * @return name of the currency (singular)
+     */
+    public String currencyNameSingular() {
+        return currencyNameSingular;
+    }
+
+    /**
+     * Returns the name of the currency in plural form.
+     * @return name of the currency (plural)
+     */
+    public String currencyNamePlural() {
+        return currencyNamePlural;
+    }
+
+    /**
+     * Format amount into a human readable String
+     * @param amount to format
+     * @return Human readable string describing amount
+     */
+    public String format(double amount) {
+        return formatter.format(amount);
+    }
+
+    /**
+     * Gets the formatter of this currency, to append amounts to a buffer without allocating
+     * @return the CurrencyFormatter
+     */
+    public CurrencyFormatter getFormatter() {
+        return formatter;
+    }
+
+    @Override
+    public String toString() {
+        return name + "#" + id;
+    }
+}
@@ -0,0 +1,206 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+
+/**
+ * Formats amounts of currency without going through String.format or DecimalFormat.
+ * The pattern is fixed when the formatter is created: the amount is rounded to the economy's fractional digits,
+ * the whole part is grouped by thousands and the singular or plural currency name follows, as in "1,234.50 Dollars".
+ * The append methods write straight into a caller-supplied buffer and allocate nothing. {@link #format(double)}
+ * keeps a small cache of recently formatted values, so amounts shown every tick return the same String.
+ * Amounts are converted like {@link MinorUnits#toMinor(double, int)}, except that values too large for minor units,
+ * infinities included, are clamped to the largest amount and NaN is formatted as zero.
+ * Instances are thread-safe; create one per economy and reuse it.
+ */
+public final class CurrencyFormatter {
+
+    private static final int CACHE_SIZE = 256;
+
+    private static final class Cached {
+        final long minor;
+        final String text;
+
+        Cached(long minor, String text) {
+            this.minor = minor;
+            this.text = text;
+        }
+    }
+
+    private final int digits;
+    private final long scale;
+    private final String singularSuffix;
+    private final String pluralSuffix;
+    private final char groupingSeparator;
+    private final char decimalSeparator;
+    // Direct-mapped: a value evicts whatever was cached in its slot. Entries are immutable, so racy reads are safe.
+    private final Cached[] cache = new Cached[CACHE_SIZE];
+
+    /**
+     * Constructor for CurrencyFormatter using ',' to group thousands and '.' before the fraction
+     * @param fractionalDigits amounts are rounded to, or -1 for {@link MinorUnits#DEFAULT_DIGITS}
+     * @param currencyNameSingular appended to an amount of exactly one, or null for none
+     * @param currencyNamePlural appended to every other amount, or null for none
+     */
+    public CurrencyFormatter(int fractionalDigits, String currencyNameSingular, String currencyNamePlural) {
+        this(fractionalDigits, currencyNameSingular, currencyNamePlural, ',', '.');
+    }
+
+    /**
+     * Constructor for CurrencyFormatter
+     * @param fractionalDigits amounts are rounded to, or -1 for {@link MinorUnits#DEFAULT_DIGITS}
+     * @param currencyNameSingular appended to an amount of exactly one, or null for none
+     * @param currencyNamePlural appended to every other amount, or null for none
+     * @param groupingSeparator placed between groups of thousands, or 0 for no grouping
+     * @param decimalSeparator placed before the fractional digits
+     */
+    public CurrencyFormatter(int fractionalDigits, String currencyNameSingular, String currencyNamePlural, char groupingSeparator, char decimalSeparator) {
+        this.digits = MinorUnits.digits(fractionalDigits);
+        this.scale = MinorUnits.scale(digits);
+        this.singularSuffix = suffix(currencyNameSingular);
+        this.pluralSuffix = suffix(currencyNamePlural);
+        this.groupingSeparator = groupingSeparator;
+        this.decimalSeparator = decimalSeparator;
+    }
+
+    /**
+     * Creates a formatter for the digits and currency names of an economy
+     * @param economy to format amounts of
+     * @return a new CurrencyFormatter
+     */
+    public static CurrencyFormatter of(Economy economy) {
+        return new CurrencyFormatter(economy.fractionalDigits(), economy.currencyNameSingular(), economy.currencyNamePlural());
+    }
+
+    private static String suffix(String name) {
+        return name == null || name.isEmpty() ? "" : " " + name;
+    }
+
+    /**
+     * Gets the number of fractional digits amounts are formatted with
+     * @return digits between 0 and {@link MinorUnits#MAX_DIGITS}
+     */
+    public int getDigits() {
+        return digits;
+    }
+
+    /**
+     * Formats an amount, reusing the String of a recent call with the same rounded amount
+     * @param amount to format
+     * @return Human readable string describing amount
+     */
+    public String format(double amount) {
+        return formatMinor(MinorUnits.toMinorClamped(amount, digits));
+    }
+
+    /**
+     * Formats an amount in minor units, reusing the String of a recent call with the same amount
+     * @param minor amount in minor units
+     * @return Human readable string describing amount
+     */
+    public String formatMinor(long minor) {
+        long hash = minor * 0x9e3779b97f4a7c15L;
+        int slot = (int) (hash >>> 56) & (CACHE_SIZE - 1);
+        Cached cached = cache[slot];
+        if (cached != null && cached.minor == minor) {
+            return cached.text;
+        }
+        StringBuilder builder = new StringBuilder(24 + pluralSuffix.length());
+        appendMinorTo(builder, minor);
+        String text = builder.toString();
+        cache[slot] = new Cached(minor, text);
+        return text;
+    }
+
+    /**
+     * Appends a formatted amount to a StringBuilder
+     * @param builder to append to
+     * @param amount to format
+     * @return the builder
+     */
+    public StringBuilder appendTo(StringBuilder builder, double amount) {
+        return appendMinorTo(builder, MinorUnits.toMinorClamped(amount, digits));
+    }
+
+    /**
+     * Appends a formatted amount in minor units to a StringBuilder
+     * @param builder to append to
+     * @param minor amount in minor units
+     * @return the builder
+     */
+    public StringBuilder appendMinorTo(StringBuilder builder, long minor) {
+        write(builder, minor);
+        return builder;
+    }
+
+    /**
+     * Writes a formatted amount into a CharBuffer at its position
+     * @param buffer to write to
+     * @param amount to format
+     * @return the buffer
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough room left
+     */
+    public CharBuffer appendTo(CharBuffer buffer, double amount) {
+        return appendMinorTo(buffer, MinorUnits.toMinorClamped(amount, digits));
+    }
+
+    /**
+     * Writes a formatted amount in minor units into a CharBuffer at its position
+     * @param buffer to write to
+     * @param minor amount in minor units
+     * @return the buffer
+     * @throws java.nio.BufferOverflowException if the buffer does not have enough room left
+     */
+    public CharBuffer appendMinorTo(CharBuffer buffer, long minor) {
+        write(buffer, minor);
+        return buffer;
+    }
+
+    private void write(Appendable out, long minor) {
+        String suffix = minor == scale ? singularSuffix : pluralSuffix;
+        try {
+            if (minor < 0) {
+                out.append('-');
+                // Long.MIN_VALUE has no positive counterpart, it is off by one minor unit
+                minor = minor == Long.MIN_VALUE ? Long.MAX_VALUE : -minor;
+            }
+            long whole = minor / scale;
+            int length = 1;
+            while (length <= MinorUnits.MAX_DIGITS && whole >= MinorUnits.scale(length)) {
+                length++;
+            }
+            for (int i = length - 1; i >= 0; i--) {
+                out.append((char) ('0' + whole / MinorUnits.scale(i) % 10));
+                if (i > 0 && i % 3 == 0 && groupingSeparator != 0) {
+                    out.append(groupingSeparator);
+                }
+            }
+            if (digits > 0) {
+                out.append(decimalSeparator);
+                long fraction = minor % scale;
+                for (int i = digits - 1; i >= 0; i--) {
+                    out.append((char) ('0' + fraction / MinorUnits.scale(i) % 10));
+                }
+            }
+            out.append(suffix);
+        } catch (IOException e) {
+            // StringBuilder and CharBuffer never throw it
+            throw new IllegalStateException(e);
+        }
+    }
+}
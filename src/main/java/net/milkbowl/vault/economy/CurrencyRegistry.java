@@ -0,0 +1,111 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the currencies of a {@link MultiCurrencyEconomy}: every name maps to a single {@link Currency} with
+ * a dense id. Lookups by name or id never lock; only registering a new currency does.
+ * Names are matched case-insensitively.
+ */
+public final class CurrencyRegistry {
+
+    private final ConcurrentHashMap<String, Currency> byName = new ConcurrentHashMap<String, Currency>();
+    private volatile Currency[] byId = new Currency[0];
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Registers a currency, or returns the currency already registered under the name
+     * @param name of the currency
+     * @param fractionalDigits amounts are rounded to, or -1 if no rounding occurs
+     * @param currencyNameSingular name of the currency in singular form
+     * @param currencyNamePlural name of the currency in plural form
+     * @return the interned currency
+     */
+    public Currency register(String name, int fractionalDigits, String currencyNameSingular, String currencyNamePlural) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null");
+        }
+        Currency currency = byName.get(key(name));
+        if (currency != null) {
+            return currency;
+        }
+        synchronized (this) {
+            currency = byName.get(key(name));
+            if (currency == null) {
+                Currency[] ids = byId;
+                currency = new Currency(ids.length, name, fractionalDigits, currencyNameSingular, currencyNamePlural);
+                Currency[] grown = Arrays.copyOf(ids, ids.length + 1);
+                grown[currency.getId()] = currency;
+                byId = grown;
+                byName.put(key(name), currency);
+            }
+            return currency;
+        }
+    }
+
+    /**
+     * Gets a currency by name
+     * @param name of the currency
+     * @return the currency, or null if none is registered under the name
+     */
+    public Currency get(String name) {
+        return byName.get(key(name));
+    }
+
+    /**
+     * Gets a currency by id
+     * @param id of the currency
+     * @return the currency, or null if no currency has the id
+     */
+    public Currency get(int id) {
+        Currency[] ids = byId;
+        return id >= 0 && id < ids.length ? ids[id] : null;
+    }
+
+    /**
+     * Checks if a currency was registered with this registry
+     * @param currency to check
+     * @return true if the currency belongs to this registry
+     */
+    public boolean contains(Currency currency) {
+        return get(currency.getId()) == currency;
+    }
+
+    /**
+     * Gets the number of registered currencies, which is also one more than the highest id
+     * @return number of currencies
+     */
+    public int size() {
+        return byId.length;
+    }
+
+    /**
+     * Gets every registered currency, ordered by id
+     * @return the currencies
+     */
+    public List<Currency> getCurrencies() {
+        return Collections.unmodifiableList(Arrays.asList(byId));
+    }
+}
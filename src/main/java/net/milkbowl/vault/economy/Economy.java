@@ -16,8 +16,15 @@
 
 package net.milkbowl.vault.economy;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Predicate;
 
+import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 
 /**
@@ -52,6 +59,15 @@ public interface Economy {
      */
     public int fractionalDigits();
 
+    /**
+     * Gets the number of fractional digits the minor unit methods are scaled by.
+     * This is {@link #fractionalDigits()}, or {@link MinorUnits#DEFAULT_DIGITS} if the economy does not round.
+     * @return number of digits after the decimal point represented in minor units
+     */
+    public default int minorUnitDigits() {
+        return MinorUnits.digits(fractionalDigits());
+    }
+
     /**
      * Format amount into a human readable String This provides translation into
      * economy specific formatting to improve consistency between plugins.  
@@ -236,6 +252,338 @@ public interface Economy {
      */
     public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount);
 
+    /**
+     * Gets balance of a player in minor units, see {@link #minorUnitDigits()}
+     *
+     * @param player of the player
+     * @return Amount currently held in players account in minor units
+     */
+    public default long getBalanceMinor(OfflinePlayer player) {
+        return MinorUnits.toMinor(getBalance(player), minorUnitDigits());
+    }
+
+    /**
+     * Gets balance of a player on the specified world in minor units, see {@link #minorUnitDigits()}
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to check
+     * @param world name of the world
+     * @return Amount currently held in players account in minor units
+     */
+    public default long getBalanceMinor(OfflinePlayer player, String world) {
+        return MinorUnits.toMinor(getBalance(player, world), minorUnitDigits());
+    }
+
+    /**
+     * Checks if the player account has the amount in minor units - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param player to check
+     * @param amount to check for in minor units
+     * @return True if <b>player</b> has <b>amount</b>, False else wise
+     */
+    public default boolean hasMinor(OfflinePlayer player, long amount) {
+        return getBalanceMinor(player) >= amount;
+    }
+
+    /**
+     * Checks if the player account has the amount in minor units in a given world - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to check
+     * @param worldName to check with
+     * @param amount to check for in minor units
+     * @return True if <b>player</b> has <b>amount</b>, False else wise
+     */
+    public default boolean hasMinor(OfflinePlayer player, String worldName, long amount) {
+        return getBalanceMinor(player, worldName) >= amount;
+    }
+
+    /**
+     * Withdraw an amount in minor units from a player - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param player to withdraw from
+     * @param amount Amount to withdraw in minor units
+     * @return Detailed response of transaction
+     */
+    public default EconomyResponse withdrawPlayerMinor(OfflinePlayer player, long amount) {
+        return withdrawPlayer(player, MinorUnits.toMajor(amount, minorUnitDigits()));
+    }
+
+    /**
+     * Withdraw an amount in minor units from a player on a given world - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to withdraw from
+     * @param worldName - name of the world
+     * @param amount Amount to withdraw in minor units
+     * @return Detailed response of transaction
+     */
+    public default EconomyResponse withdrawPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        return withdrawPlayer(player, worldName, MinorUnits.toMajor(amount, minorUnitDigits()));
+    }
+
+    /**
+     * Deposit an amount in minor units to a player - DO NOT USE NEGATIVE AMOUNTS
+     *
+     * @param player to deposit to
+     * @param amount Amount to deposit in minor units
+     * @return Detailed response of transaction
+     */
+    public default EconomyResponse depositPlayerMinor(OfflinePlayer player, long amount) {
+        return depositPlayer(player, MinorUnits.toMajor(amount, minorUnitDigits()));
+    }
+
+    /**
+     * Deposit an amount in minor units to a player on a given world - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to deposit to
+     * @param worldName name of the world
+     * @param amount Amount to deposit in minor units
+     * @return Detailed response of transaction
+     */
+    public default EconomyResponse depositPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        return depositPlayer(player, worldName, MinorUnits.toMajor(amount, minorUnitDigits()));
+    }
+
+    /**
+     * Withdraw an amount from a player into a reusable result - DO NOT USE NEGATIVE AMOUNTS
+     * Economies able to do so should override this to fill <b>result</b> without allocating a response.
+     *
+     * @param player to withdraw from
+     * @param amount Amount to withdraw
+     * @param result to fill with the outcome
+     * @return True if the transaction succeeded
+     */
+    public default boolean withdrawPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        return result.set(withdrawPlayer(player, amount)).transactionSuccess();
+    }
+
+    /**
+     * Withdraw an amount from a player on a given world into a reusable result - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to withdraw from
+     * @param worldName - name of the world
+     * @param amount Amount to withdraw
+     * @param result to fill with the outcome
+     * @return True if the transaction succeeded
+     */
+    public default boolean withdrawPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        return result.set(withdrawPlayer(player, worldName, amount)).transactionSuccess();
+    }
+
+    /**
+     * Deposit an amount to a player into a reusable result - DO NOT USE NEGATIVE AMOUNTS
+     * Economies able to do so should override this to fill <b>result</b> without allocating a response.
+     *
+     * @param player to deposit to
+     * @param amount Amount to deposit
+     * @param result to fill with the outcome
+     * @return True if the transaction succeeded
+     */
+    public default boolean depositPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        return result.set(depositPlayer(player, amount)).transactionSuccess();
+    }
+
+    /**
+     * Deposit an amount to a player on a given world into a reusable result - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     *
+     * @param player to deposit to
+     * @param worldName name of the world
+     * @param amount Amount to deposit
+     * @param result to fill with the outcome
+     * @return True if the transaction succeeded
+     */
+    public default boolean depositPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        return result.set(depositPlayer(player, worldName, amount)).transactionSuccess();
+    }
+
+    /**
+     * Moves an amount from one player to another - DO NOT USE NEGATIVE AMOUNTS
+     * Economies able to do so should override this to perform both sides as a single operation.
+     * The default implementation withdraws from <b>from</b> and then deposits to <b>to</b>,
+     * refunding <b>from</b> if the deposit fails.
+     *
+     * @param from Player to withdraw from
+     * @param to Player to deposit to
+     * @param amount Amount to transfer
+     * @return Detailed response of transaction, with the new balance of <b>from</b>
+     */
+    public default EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        EconomyResponse withdrawal = withdrawPlayer(from, amount);
+        if (!withdrawal.transactionSuccess()) {
+            return withdrawal;
+        }
+        EconomyResponse deposit = depositPlayer(to, amount);
+        if (deposit.transactionSuccess()) {
+            return withdrawal;
+        }
+        EconomyResponse refund = depositPlayer(from, amount);
+        double balance = refund.transactionSuccess() ? refund.balance : withdrawal.balance;
+        return new EconomyResponse(0, balance, deposit.type, deposit.errorMessage);
+    }
+
+    /**
+     * Performs a batch of transfers - DO NOT USE NEGATIVE AMOUNTS
+     * Economies able to do so should override this to perform the batch in as few operations as possible.
+     * The default implementation calls {@link #transfer(OfflinePlayer, OfflinePlayer, double)} for each entry in order.
+     *
+     * @param transfers to perform
+     * @return Detailed responses, one per transfer in iteration order
+     */
+    public default List<EconomyResponse> transferAll(Collection<Transfer> transfers) {
+        List<EconomyResponse> responses = new ArrayList<EconomyResponse>(transfers.size());
+        for (Transfer transfer : transfers) {
+            responses.add(transfer(transfer.from, transfer.to, transfer.amount));
+        }
+        return responses;
+    }
+
+    /**
+     * Deposits or withdraws an amount for every given player at once, like a salary, interest or a tax.
+     * Economies able to do so should override this to run a single set-based update; the default calls
+     * {@link #depositPlayer(OfflinePlayer, double)} or {@link #withdrawPlayer(OfflinePlayer, double)} (or their world
+     * variants) for each player, from several threads if the operation is {@link BulkOperation#parallel()}.
+     * Each account is updated on its own, so a failure for one player does not undo the others.
+     * @param players to apply the operation to
+     * @param world name of the world, or null for the global accounts
+     * @param operation to apply
+     * @return counts and totals of the update, with the players it failed for
+     */
+    public default BulkResult applyBulk(Collection<? extends OfflinePlayer> players, String world, BulkOperation operation) {
+        return BulkApplier.apply(this, new ArrayList<OfflinePlayer>(players), world, operation);
+    }
+
+    /**
+     * Deposits or withdraws an amount for every player with an account that matches a filter.
+     * Economies able to do so should override this; the default tests every player known to the server against the
+     * filter, checks the matches with {@link #hasAccount(OfflinePlayer)} (or its world variant) and passes those with
+     * an account to {@link #applyBulk(Collection, String, BulkOperation)}.
+     * @param filter players must match, for example player -> true for every account
+     * @param world name of the world, or null for the global accounts
+     * @param operation to apply
+     * @return counts and totals of the update, with the players it failed for
+     */
+    public default BulkResult applyBulk(Predicate<? super OfflinePlayer> filter, String world, BulkOperation operation) {
+        List<OfflinePlayer> players = new ArrayList<OfflinePlayer>();
+        for (OfflinePlayer player : Bukkit.getOfflinePlayers()) {
+            if (filter.test(player) && (world == null ? hasAccount(player) : hasAccount(player, world))) {
+                players.add(player);
+            }
+        }
+        return applyBulk(players, world, operation);
+    }
+
+    /**
+     * Sets funds of a player aside, so they can be captured or released later without another thread
+     * spending them in the meantime - DO NOT USE NEGATIVE AMOUNTS
+     * The default implementation withdraws the amount immediately and keeps it in escrow: capturing keeps it withdrawn
+     * and releasing deposits it back. Holds are therefore as safe under concurrency as {@link #withdrawPlayer(OfflinePlayer, double)}.
+     * @param player to hold funds of
+     * @param amount to hold
+     * @return the reservation, check {@link Reservation#isHeld()} to know if the hold succeeded
+     */
+    public default Reservation hold(OfflinePlayer player, double amount) {
+        return hold(player, null, amount);
+    }
+
+    /**
+     * Sets funds of a player on a given world aside, so they can be captured or released later without another thread
+     * spending them in the meantime - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be used.
+     * @param player to hold funds of
+     * @param worldName name of the world, or null for the global account
+     * @param amount to hold
+     * @return the reservation, check {@link Reservation#isHeld()} to know if the hold succeeded
+     */
+    public default Reservation hold(OfflinePlayer player, String worldName, double amount) {
+        EconomyResponse response = worldName == null ? withdrawPlayer(player, amount) : withdrawPlayer(player, worldName, amount);
+        return new Reservation(this, player, worldName, amount, response);
+    }
+
+    /**
+     * Checks if a reservation was created by this economy, and so can be captured or released by it
+     * @param reservation to check
+     * @return true if the reservation belongs to this economy
+     */
+    public default boolean owns(Reservation reservation) {
+        return reservation.owner == this;
+    }
+
+    /**
+     * Spends the funds of a reservation. Only the first capture or release of a reservation succeeds.
+     * @param reservation to capture
+     * @return Detailed response of transaction
+     * @throws IllegalArgumentException if the reservation was created by another economy
+     */
+    public default EconomyResponse capture(Reservation reservation) {
+        if (!owns(reservation)) {
+            throw new IllegalArgumentException(reservation + " does not belong to " + getName());
+        }
+        if (!reservation.transition(Reservation.State.HELD, Reservation.State.CAPTURED)) {
+            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Reservation is not held");
+        }
+        OfflinePlayer player = reservation.getPlayer();
+        String world = reservation.getWorld();
+        double balance = world == null ? getBalance(player) : getBalance(player, world);
+        return new EconomyResponse(reservation.getAmount(), balance, EconomyResponse.ResponseType.SUCCESS, null);
+    }
+
+    /**
+     * Returns the funds of a reservation to the player. Only the first capture or release of a reservation succeeds.
+     * If the funds cannot be returned the reservation stays held, so the release can be retried.
+     * @param reservation to release
+     * @return Detailed response of transaction
+     * @throws IllegalArgumentException if the reservation was created by another economy
+     */
+    public default EconomyResponse release(Reservation reservation) {
+        if (!owns(reservation)) {
+            throw new IllegalArgumentException(reservation + " does not belong to " + getName());
+        }
+        if (!reservation.transition(Reservation.State.HELD, Reservation.State.RELEASED)) {
+            return new EconomyResponse(0, 0, EconomyResponse.ResponseType.FAILURE, "Reservation is not held");
+        }
+        OfflinePlayer player = reservation.getPlayer();
+        String world = reservation.getWorld();
+        EconomyResponse response = world == null ? depositPlayer(player, reservation.getAmount()) : depositPlayer(player, world, reservation.getAmount());
+        if (!response.transactionSuccess()) {
+            reservation.transition(Reservation.State.RELEASED, Reservation.State.HELD);
+        }
+        return response;
+    }
+
+    /**
+     * Gets the balances of many players at once, on a given world or globally.
+     * Economies able to do so should override this to answer with a single query; the default calls
+     * {@link #getBalance(OfflinePlayer)} or {@link #getBalance(OfflinePlayer, String)} for each player.
+     * Players without an account may be left out of the map, so read it with {@link BalanceMap#getOrDefault(java.util.UUID, double)}
+     * when that difference matters.
+     * @param players to get the balances of
+     * @param world name of the world, or null for the global accounts
+     * @return balances of the players by UUID
+     */
+    public default BalanceMap getBalances(Collection<? extends OfflinePlayer> players, String world) {
+        BalanceMap balances = new BalanceMap(players.size());
+        for (OfflinePlayer player : players) {
+            balances.put(player.getUniqueId(), world == null ? getBalance(player) : getBalance(player, world));
+        }
+        return balances;
+    }
+
+    /**
+     * Gets a view of this economy bound to a world, to run many transactions on the same world without
+     * resolving its name every time.
+     * Economies keeping accounts per world should override this to resolve the world once; the default view
+     * passes the name to the world overloads on every call.
+     * @param worldName name of the world, or null for the global accounts
+     * @return the WorldEconomy bound to the world
+     */
+    public default WorldEconomy forWorld(String worldName) {
+        return new WorldView(this, worldName);
+    }
+
     /**
      * @deprecated As of VaultAPI 1.4 use {{@link #createBank(String, OfflinePlayer)} instead.
      */
@@ -321,12 +669,105 @@ public interface Economy {
      */
     public EconomyResponse isBankMember(String name, OfflinePlayer player);
 
+    /**
+     * Returns the amount the bank has, without allocating a response.
+     * Economies able to do so should override this; the default unwraps {@link #bankBalance(String)}.
+     *
+     * @param name of the account
+     * @return Balance of the bank, or 0 if the bank does not exist or banks are not supported
+     */
+    public default double bankBalanceFast(String name) {
+        EconomyResponse response = bankBalance(name);
+        return response.transactionSuccess() ? response.balance : 0;
+    }
+
+    /**
+     * Returns true or false whether the bank has the amount specified, without allocating a response - DO NOT USE NEGATIVE AMOUNTS
+     * Economies able to do so should override this; the default unwraps {@link #bankHas(String, double)}.
+     *
+     * @param name of the account
+     * @param amount to check for
+     * @return True if the bank has the amount
+     */
+    public default boolean bankHasFast(String name, double amount) {
+        return bankHas(name, amount).transactionSuccess();
+    }
+
+    /**
+     * Check if a player is the owner of a bank account, without allocating a response.
+     * Economies able to do so should override this; the default unwraps {@link #isBankOwner(String, OfflinePlayer)}.
+     *
+     * @param name of the account
+     * @param player to check for ownership
+     * @return True if the player owns the bank
+     */
+    public default boolean isBankOwnerFast(String name, OfflinePlayer player) {
+        return isBankOwner(name, player).transactionSuccess();
+    }
+
+    /**
+     * Check if the player is a member of the bank account, without allocating a response.
+     * Economies able to do so should override this; the default unwraps {@link #isBankMember(String, OfflinePlayer)}.
+     *
+     * @param name of the account
+     * @param player to check membership
+     * @return True if the player is a member of the bank
+     */
+    public default boolean isBankMemberFast(String name, OfflinePlayer player) {
+        return isBankMember(name, player).transactionSuccess();
+    }
+
     /**
      * Gets the list of banks
      * @return the List of Banks
      */
     public List<String> getBanks();
 
+    /**
+     * Lazily enumerates every bank together with its balance, for use with a for-each loop or
+     * {@link java.util.stream.StreamSupport#stream(Spliterator, boolean)}.
+     * Economies able to do so should override this; the default fetches {@link #getBanks()} when traversal starts
+     * and calls {@link #bankBalance(String)} as each bank is reached, skipping banks deleted in the meantime.
+     * @return Spliterator over the banks, empty if banks are not supported
+     */
+    public default Spliterator<BankBalance> bankSpliterator() {
+        if (!hasBankSupport()) {
+            return Spliterators.emptySpliterator();
+        }
+        return new BankSpliterator(this);
+    }
+
+    /**
+     * Gets one page of banks together with their balances, in the order of {@link #getBanks()}.
+     * Economies able to do so should override this; the default calls {@link #bankBalance(String)} for each bank
+     * on the page, leaving out banks deleted in the meantime, so a page may be shorter than <b>limit</b>.
+     * @param offset number of banks to skip
+     * @param limit maximum number of banks to return
+     * @return the page of banks, empty past the last bank or if banks are not supported
+     */
+    public default List<BankBalance> getBankBalances(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        if (!hasBankSupport()) {
+            return Collections.emptyList();
+        }
+        List<String> names = getBanks();
+        int end = (int) Math.min(names.size(), (long) offset + limit);
+        if (offset >= end) {
+            return Collections.emptyList();
+        }
+        List<BankBalance> page = new ArrayList<BankBalance>(end - offset);
+        for (int i = offset; i < end; i++) {
+            String name = names.get(i);
+            EconomyResponse response = bankBalance(name);
+            if (response.transactionSuccess()) {
+                page.add(new BankBalance(name, response.balance));
+            }
+        }
+        return page;
+    }
+
     /**
      * @deprecated As of VaultAPI 1.4 use {{@link #createPlayerAccount(OfflinePlayer)} instead.
      */
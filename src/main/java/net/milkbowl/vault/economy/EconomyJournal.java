@@ -0,0 +1,406 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+import net.milkbowl.vault.economy.JournalRecord.Operation;
+
+/**
+ * Append-only log of balance changes, written to memory-mapped segment files of a fixed size.
+ * When a segment is full the journal moves on to the next one, so writes are always sequential.
+ *
+ * Every record is stored as its length, a compact binary body and a CRC32 of the body. A torn or corrupt record
+ * at the end of the last segment, as left behind by a crash, ends the journal: replay stops there and a reopened
+ * journal continues writing from that point.
+ *
+ * Records are durable once the operating system writes the mapped pages back, which survives a crash of the
+ * server process but not of the machine. Open the journal with sync enabled, or call {@link #flush()}, to force
+ * them to disk.
+ *
+ * Segments are kept until {@link #compact()} replaces them with a snapshot of the latest balances, which should
+ * be called periodically, for example after a backup.
+ */
+public class EconomyJournal implements Closeable {
+
+    /**
+     * Default size of a segment file, 16 MiB
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final String PREFIX = "journal-";
+    private static final String SUFFIX = ".log";
+    // length + crc
+    private static final int FRAME = 8;
+    // operation + timestamp + world length + amount + balance
+    private static final int FIXED_BODY = 1 + 8 + 2 + 8 + 8;
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean sync;
+    private final CRC32 crc = new CRC32();
+    private ByteBuffer scratch = ByteBuffer.allocate(256);
+    private long segment;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+
+    /**
+     * Opens a journal with the default segment size and without forced syncs
+     * @param directory to keep the segment files in, created if needed
+     * @throws IOException if the journal cannot be opened
+     */
+    public EconomyJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, false);
+    }
+
+    /**
+     * Opens a journal, continuing after the last valid record of the newest segment
+     * @param directory to keep the segment files in, created if needed
+     * @param segmentSize size of each segment file in bytes
+     * @param sync whether to force every record to disk before returning from an append
+     * @throws IOException if the journal cannot be opened
+     */
+    public EconomyJournal(Path directory, int segmentSize, boolean sync) throws IOException {
+        if (segmentSize < 1024) {
+            throw new IllegalArgumentException("Segment size must be at least 1024 bytes");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.sync = sync;
+        Files.createDirectories(directory);
+        List<Path> segments = segments(directory);
+        if (segments.isEmpty()) {
+            open(0);
+        } else {
+            Path last = segments.get(segments.size() - 1);
+            open(index(last));
+            while (read(buffer) != null) {
+                // Skip to the end of the valid records
+            }
+        }
+    }
+
+    private static List<Path> segments(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<Path>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        // Indexes are zero padded so names sort in segment order
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private static long index(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private void open(long index) throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+        }
+        Path path = directory.resolve(String.format("%s%016d%s", PREFIX, index, SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+        segment = index;
+    }
+
+    /**
+     * Appends a change to a player account
+     * @param operation {@link Operation#PLAYER_DEPOSIT}, {@link Operation#PLAYER_WITHDRAW} or {@link Operation#PLAYER_SNAPSHOT}
+     * @param player whose account changed
+     * @param world of the account, or null for the global account
+     * @param amount deposited or withdrawn
+     * @param balance of the account after the change
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void appendPlayer(Operation operation, UUID player, String world, double amount, double balance) throws IOException {
+        if (operation.isBank()) {
+            throw new IllegalArgumentException(operation + " is not a player operation");
+        }
+        byte[] worldBytes = encode(world);
+        ByteBuffer body = scratch(FIXED_BODY + 16 + length(worldBytes));
+        body.put((byte) operation.getId());
+        body.putLong(System.currentTimeMillis());
+        body.putLong(player.getMostSignificantBits());
+        body.putLong(player.getLeastSignificantBits());
+        putString(body, worldBytes);
+        body.putDouble(amount);
+        body.putDouble(balance);
+        write(body);
+    }
+
+    /**
+     * Appends a change to a bank account
+     * @param operation {@link Operation#BANK_DEPOSIT}, {@link Operation#BANK_WITHDRAW} or {@link Operation#BANK_SNAPSHOT}
+     * @param bank whose account changed
+     * @param amount deposited or withdrawn
+     * @param balance of the account after the change
+     * @throws IOException if the record cannot be written
+     */
+    public synchronized void appendBank(Operation operation, String bank, double amount, double balance) throws IOException {
+        if (!operation.isBank()) {
+            throw new IllegalArgumentException(operation + " is not a bank operation");
+        }
+        byte[] bankBytes = encode(bank);
+        ByteBuffer body = scratch(FIXED_BODY + 2 + length(bankBytes));
+        body.put((byte) operation.getId());
+        body.putLong(System.currentTimeMillis());
+        putString(body, bankBytes);
+        putString(body, null);
+        body.putDouble(amount);
+        body.putDouble(balance);
+        write(body);
+    }
+
+    private ByteBuffer scratch(int size) {
+        if (scratch.capacity() < size) {
+            scratch = ByteBuffer.allocate(Math.max(size, scratch.capacity() * 2));
+        }
+        scratch.clear();
+        return scratch;
+    }
+
+    private static byte[] encode(String value) {
+        if (value == null) {
+            return null;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Name too long to journal: " + value);
+        }
+        return bytes;
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static void putString(ByteBuffer body, byte[] bytes) {
+        if (bytes == null) {
+            body.putShort((short) -1);
+        } else {
+            body.putShort((short) bytes.length);
+            body.put(bytes);
+        }
+    }
+
+    private void write(ByteBuffer body) throws IOException {
+        if (channel == null) {
+            throw new IOException("Journal is closed");
+        }
+        int length = body.position();
+        if (length + FRAME > segmentSize) {
+            throw new IOException("Record of " + length + " bytes does not fit in a journal segment");
+        }
+        if (buffer.remaining() < length + FRAME) {
+            open(segment + 1);
+        }
+        crc.reset();
+        crc.update(body.array(), 0, length);
+        buffer.putInt(length);
+        buffer.put(body.array(), 0, length);
+        buffer.putInt((int) crc.getValue());
+        if (sync) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * Starts a new segment holding one snapshot record per account with its latest journaled balance, then deletes
+     * every older segment. Replaying the compacted journal rebuilds the same latest balances.
+     * A crash during compaction leaves the old segments in place, followed by part of the snapshot.
+     * @return number of segment files deleted
+     * @throws IOException if the journal cannot be read or the snapshot cannot be written
+     */
+    public synchronized int compact() throws IOException {
+        if (channel == null) {
+            throw new IOException("Journal is closed");
+        }
+        buffer.force();
+        final Map<UUID, Map<String, Double>> players = new HashMap<UUID, Map<String, Double>>();
+        final Map<String, Double> banks = new HashMap<String, Double>();
+        replay(directory, record -> collect(record, players, banks));
+        long first = segment + 1;
+        open(first);
+        for (Map.Entry<UUID, Map<String, Double>> player : players.entrySet()) {
+            for (Map.Entry<String, Double> account : player.getValue().entrySet()) {
+                appendPlayer(Operation.PLAYER_SNAPSHOT, player.getKey(), account.getKey(), 0, account.getValue());
+            }
+        }
+        for (Map.Entry<String, Double> bank : banks.entrySet()) {
+            appendBank(Operation.BANK_SNAPSHOT, bank.getKey(), 0, bank.getValue());
+        }
+        buffer.force();
+        int deleted = 0;
+        for (Path path : segments(directory)) {
+            if (index(path) < first) {
+                Files.delete(path);
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    private static void collect(JournalRecord record, Map<UUID, Map<String, Double>> players, Map<String, Double> banks) {
+        if (record.player != null) {
+            players.computeIfAbsent(record.player, k -> new HashMap<String, Double>()).put(record.world, record.balance);
+        } else if (record.bank != null) {
+            banks.put(record.bank, record.balance);
+        }
+    }
+
+    /**
+     * Forces every record written so far to disk
+     */
+    public synchronized void flush() {
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            buffer.force();
+            channel.close();
+            channel = null;
+        }
+    }
+
+    // Reads the record at the buffer's position, or returns null without moving past the end of the valid records
+    private static JournalRecord read(ByteBuffer in) {
+        int start = in.position();
+        if (in.remaining() < FRAME + FIXED_BODY) {
+            return null;
+        }
+        int length = in.getInt();
+        if (length < FIXED_BODY || length + 4 > in.remaining()) {
+            in.position(start);
+            return null;
+        }
+        ByteBuffer body = in.slice();
+        body.limit(length);
+        CRC32 check = new CRC32();
+        check.update(body.duplicate());
+        in.position(start + 4 + length);
+        if ((int) check.getValue() != in.getInt()) {
+            in.position(start);
+            return null;
+        }
+        Operation operation = Operation.byId(body.get());
+        if (operation == null) {
+            in.position(start);
+            return null;
+        }
+        long timestamp = body.getLong();
+        UUID player = null;
+        String bank = null;
+        if (operation.isBank()) {
+            bank = getString(body);
+        } else {
+            player = new UUID(body.getLong(), body.getLong());
+        }
+        String world = getString(body);
+        double amount = body.getDouble();
+        double balance = body.getDouble();
+        return new JournalRecord(operation, timestamp, player, bank, world, amount, balance);
+    }
+
+    private static String getString(ByteBuffer body) {
+        short length = body.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        body.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads every valid record in a journal directory, oldest first.
+     * Can be used on a journal that is open for writing, in which case records appended during the replay may or may not be seen.
+     * @param directory holding the segment files
+     * @param consumer to pass each record to
+     * @throws IOException if a segment cannot be read
+     */
+    public static void replay(Path directory, Consumer<JournalRecord> consumer) throws IOException {
+        for (Path path : segments(directory)) {
+            try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+                MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY, 0, in.size());
+                JournalRecord record;
+                while ((record = read(mapped)) != null) {
+                    consumer.accept(record);
+                }
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the last journaled balance of every player account
+     * @param directory holding the segment files
+     * @return balances by player, then by world name (null for the global account)
+     * @throws IOException if a segment cannot be read
+     */
+    public static Map<UUID, Map<String, Double>> latestPlayerBalances(Path directory) throws IOException {
+        final Map<UUID, Map<String, Double>> balances = new HashMap<UUID, Map<String, Double>>();
+        replay(directory, record -> {
+            if (record.player != null) {
+                balances.computeIfAbsent(record.player, k -> new HashMap<String, Double>()).put(record.world, record.balance);
+            }
+        });
+        return balances;
+    }
+
+    /**
+     * Rebuilds the last journaled balance of every bank account
+     * @param directory holding the segment files
+     * @return balances by bank name
+     * @throws IOException if a segment cannot be read
+     */
+    public static Map<String, Double> latestBankBalances(Path directory) throws IOException {
+        final Map<String, Double> balances = new HashMap<String, Double>();
+        replay(directory, record -> {
+            if (record.bank != null) {
+                balances.put(record.bank, record.balance);
+            }
+        });
+        return balances;
+    }
+}
@@ -42,6 +42,15 @@ public class EconomyResponse {
         }
     }
 
+    /**
+     * Shared successful response for operations that neither move an amount nor report a balance, like {@link Economy#isBankOwner(String, org.bukkit.OfflinePlayer)}
+     */
+    public static final EconomyResponse SUCCESS = new EconomyResponse(0, 0, ResponseType.SUCCESS, null);
+    /**
+     * Shared failed response for operations that neither move an amount nor report a balance, like {@link Economy#isBankOwner(String, org.bukkit.OfflinePlayer)}
+     */
+    public static final EconomyResponse FAILURE = new EconomyResponse(0, 0, ResponseType.FAILURE, null);
+
     /**
      * Amount modified by calling method
      */
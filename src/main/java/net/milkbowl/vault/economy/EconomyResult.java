@@ -0,0 +1,85 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+/**
+ * Mutable, reusable counterpart of {@link EconomyResponse}.
+ * Callers performing many operations in a loop can pass the same instance to the Economy methods
+ * that accept one, avoiding an allocation per call. Instances are not thread-safe.
+ */
+public class EconomyResult {
+
+    /**
+     * Amount modified by calling method
+     */
+    public double amount;
+    /**
+     * New balance of account
+     */
+    public double balance;
+    /**
+     * Success or failure of call. Using Enum of ResponseType to determine valid
+     * outcomes
+     */
+    public ResponseType type = ResponseType.NOT_IMPLEMENTED;
+    /**
+     * Error message if the variable 'type' is ResponseType.FAILURE
+     */
+    public String errorMessage;
+
+    /**
+     * Sets every field of this result
+     * @param amount Amount modified during operation
+     * @param balance New balance of account
+     * @param type Success or failure type of the operation
+     * @param errorMessage Error message if necessary (commonly null)
+     * @return this result
+     */
+    public EconomyResult set(double amount, double balance, ResponseType type, String errorMessage) {
+        this.amount = amount;
+        this.balance = balance;
+        this.type = type;
+        this.errorMessage = errorMessage;
+        return this;
+    }
+
+    /**
+     * Copies every field of a response into this result
+     * @param response to copy
+     * @return this result
+     */
+    public EconomyResult set(EconomyResponse response) {
+        return set(response.amount, response.balance, response.type, response.errorMessage);
+    }
+
+    /**
+     * Checks if an operation was successful
+     * @return Value
+     */
+    public boolean transactionSuccess() {
+        return type == ResponseType.SUCCESS;
+    }
+
+    /**
+     * Creates an immutable response holding the current values of this result
+     * @return a new EconomyResponse
+     */
+    public EconomyResponse toResponse() {
+        return new EconomyResponse(amount, balance, type, errorMessage);
+    }
+}
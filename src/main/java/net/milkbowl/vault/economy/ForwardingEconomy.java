@@ -0,0 +1,323 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Spliterator;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * An {@link Economy} that forwards every call to another Economy.
+ * Decorators extend this and override only the methods they change.
+ * The minor unit and {@link EconomyResult} variants of the player methods are left to their defaults, which call
+ * the double based methods of this object, so a decorator overriding those sees every deposit and withdrawal.
+ * Reservations ({@link #hold(OfflinePlayer, String, double)}, {@link #capture(Reservation)}, {@link #release(Reservation)}
+ * and {@link #owns(Reservation)}),
+ * bulk operations ({@link #applyBulk(java.util.Collection, String, BulkOperation)}) and world views
+ * ({@link #forWorld(String)}) are deliberately not forwarded: their defaults are built on withdrawPlayer and
+ * depositPlayer, so running them on the decorator keeps it aware of the funds they move.
+ */
+@SuppressWarnings("deprecation")
+public class ForwardingEconomy implements Economy {
+
+    protected final Economy economy;
+
+    /**
+     * Constructor for ForwardingEconomy
+     * @param economy to forward calls to
+     */
+    public ForwardingEconomy(Economy economy) {
+        if (economy == null) {
+            throw new IllegalArgumentException("Economy cannot be null");
+        }
+        this.economy = economy;
+    }
+
+    /**
+     * Gets the economy calls are forwarded to
+     * @return the wrapped Economy
+     */
+    public Economy getDelegate() {
+        return economy;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return economy.isEnabled();
+    }
+
+    @Override
+    public String getName() {
+        return economy.getName();
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return economy.hasBankSupport();
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return economy.fractionalDigits();
+    }
+
+    @Override
+    public int minorUnitDigits() {
+        return economy.minorUnitDigits();
+    }
+
+    @Override
+    public String format(double amount) {
+        return economy.format(amount);
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return economy.currencyNamePlural();
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return economy.currencyNameSingular();
+    }
+
+    @Override
+    public boolean hasAccount(String playerName) {
+        return economy.hasAccount(playerName);
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player) {
+        return economy.hasAccount(player);
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return economy.hasAccount(playerName, worldName);
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player, String worldName) {
+        return economy.hasAccount(player, worldName);
+    }
+
+    @Override
+    public double getBalance(String playerName) {
+        return economy.getBalance(playerName);
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player) {
+        return economy.getBalance(player);
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        return economy.getBalance(playerName, world);
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player, String world) {
+        return economy.getBalance(player, world);
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return economy.has(playerName, amount);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, double amount) {
+        return economy.has(player, amount);
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return economy.has(playerName, worldName, amount);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, String worldName, double amount) {
+        return economy.has(player, worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        return economy.withdrawPlayer(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return economy.withdrawPlayer(player, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        return economy.withdrawPlayer(playerName, worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return economy.withdrawPlayer(player, worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        return economy.depositPlayer(playerName, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return economy.depositPlayer(player, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        return economy.depositPlayer(playerName, worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return economy.depositPlayer(player, worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        return economy.transfer(from, to, amount);
+    }
+
+    @Override
+    public List<EconomyResponse> transferAll(Collection<Transfer> transfers) {
+        return economy.transferAll(transfers);
+    }
+
+    @Override
+    public BalanceMap getBalances(Collection<? extends OfflinePlayer> players, String world) {
+        return economy.getBalances(players, world);
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        return economy.createBank(name, player);
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, OfflinePlayer player) {
+        return economy.createBank(name, player);
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        return economy.deleteBank(name);
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        return economy.bankBalance(name);
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        return economy.bankHas(name, amount);
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return economy.bankWithdraw(name, amount);
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return economy.bankDeposit(name, amount);
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return economy.isBankOwner(name, playerName);
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, OfflinePlayer player) {
+        return economy.isBankOwner(name, player);
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return economy.isBankMember(name, playerName);
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, OfflinePlayer player) {
+        return economy.isBankMember(name, player);
+    }
+
+    @Override
+    public double bankBalanceFast(String name) {
+        return economy.bankBalanceFast(name);
+    }
+
+    @Override
+    public boolean bankHasFast(String name, double amount) {
+        return economy.bankHasFast(name, amount);
+    }
+
+    @Override
+    public boolean isBankOwnerFast(String name, OfflinePlayer player) {
+        return economy.isBankOwnerFast(name, player);
+    }
+
+    @Override
+    public boolean isBankMemberFast(String name, OfflinePlayer player) {
+        return economy.isBankMemberFast(name, player);
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return economy.getBanks();
+    }
+
+    @Override
+    public Spliterator<BankBalance> bankSpliterator() {
+        return economy.bankSpliterator();
+    }
+
+    @Override
+    public List<BankBalance> getBankBalances(int offset, int limit) {
+        return economy.getBankBalances(offset, limit);
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        return economy.createPlayerAccount(playerName);
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        return economy.createPlayerAccount(player);
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return economy.createPlayerAccount(playerName, worldName);
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+        return economy.createPlayerAccount(player, worldName);
+    }
+}
@@ -0,0 +1,253 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.bukkit.OfflinePlayer;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+/**
+ * Adds variants of deposit, withdraw and transfer taking a transaction ID, which are safe to retry.
+ * The first call with a given ID is applied to the wrapped economy and its response is remembered; later calls
+ * with the same ID return that response without applying the operation again. Calls made while the first one is
+ * still running wait for it up to a timeout, then fail with a pending response without applying the operation;
+ * a later retry returns the real response. Failed responses are remembered too, so a retry of a withdrawal
+ * that failed for insufficient funds fails the same way.
+ *
+ * IDs are remembered for a fixed window after the operation finished, and only the most recent ones are kept
+ * once the table is full, so retries must happen within the window. IDs of running operations are never
+ * forgotten. If the wrapped economy throws, the ID is forgotten and the exception is rethrown to every caller
+ * waiting on it.
+ * An ID must only ever be used for a single operation; reusing it for another returns the first response.
+ * The methods without an ID are forwarded unchanged.
+ */
+public class IdempotentEconomy extends ForwardingEconomy {
+
+    private static final class Entry {
+        final String id;
+        volatile long finished;
+        final CompletableFuture<EconomyResponse> response = new CompletableFuture<EconomyResponse>();
+
+        Entry(String id) {
+            this.id = id;
+        }
+
+        boolean expired(long now, long window) {
+            return response.isDone() && now - finished > window;
+        }
+    }
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+    private final Queue<Entry> order = new ConcurrentLinkedQueue<Entry>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final int maxEntries;
+    private final long window;
+    private final long timeout;
+
+    /**
+     * Constructor for IdempotentEconomy, waiting up to 10 seconds for a running operation on a retry
+     * @param economy to wrap
+     * @param maxEntries number of finished transaction IDs to remember at most
+     * @param window time a transaction ID is remembered for
+     * @param unit of the window
+     */
+    public IdempotentEconomy(Economy economy, int maxEntries, long window, TimeUnit unit) {
+        this(economy, maxEntries, window, unit, 10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Constructor for IdempotentEconomy
+     * @param economy to wrap
+     * @param maxEntries number of finished transaction IDs to remember at most
+     * @param window time a transaction ID is remembered for
+     * @param unit of the window
+     * @param timeout time a retry waits for the running operation with the same ID
+     * @param timeoutUnit of the timeout
+     */
+    public IdempotentEconomy(Economy economy, int maxEntries, long window, TimeUnit unit, long timeout, TimeUnit timeoutUnit) {
+        super(economy);
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be at least 1");
+        }
+        if (window <= 0) {
+            throw new IllegalArgumentException("Window must be positive");
+        }
+        if (timeout < 0) {
+            throw new IllegalArgumentException("Timeout cannot be negative");
+        }
+        this.maxEntries = maxEntries;
+        this.window = unit.toNanos(window);
+        this.timeout = timeoutUnit.toNanos(timeout);
+    }
+
+    /**
+     * Gets the number of transaction IDs currently remembered
+     * @return number of remembered IDs
+     */
+    public int size() {
+        return size.get();
+    }
+
+    // Forgets finished entries, oldest first, that are expired or over the limit; running ones are skipped
+    private void evict(long now) {
+        Iterator<Entry> it = order.iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            boolean expired = entry.expired(now, window);
+            if (!expired && size.get() <= maxEntries) {
+                break;
+            }
+            if (entry.response.isDone()) {
+                forget(entry);
+            }
+        }
+    }
+
+    private void forget(Entry entry) {
+        entries.remove(entry.id, entry);
+        if (order.remove(entry)) {
+            size.decrementAndGet();
+        }
+    }
+
+    private EconomyResponse execute(String transactionId, Supplier<EconomyResponse> operation) {
+        if (transactionId == null) {
+            throw new IllegalArgumentException("Transaction ID cannot be null");
+        }
+        long now = System.nanoTime();
+        Entry entry = entries.get(transactionId);
+        if (entry != null && entry.expired(now, window)) {
+            // Expired but not evicted yet
+            forget(entry);
+            entry = null;
+        }
+        if (entry == null) {
+            Entry created = new Entry(transactionId);
+            entry = entries.putIfAbsent(transactionId, created);
+            if (entry == null) {
+                order.add(created);
+                size.incrementAndGet();
+                evict(now);
+                return run(created, operation);
+            }
+        }
+        try {
+            return entry.response.get(timeout, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            return pending(transactionId);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return pending(transactionId);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static EconomyResponse pending(String transactionId) {
+        return new EconomyResponse(0, 0, ResponseType.FAILURE, "Transaction " + transactionId + " is still pending");
+    }
+
+    private EconomyResponse run(Entry entry, Supplier<EconomyResponse> operation) {
+        EconomyResponse response;
+        try {
+            response = operation.get();
+        } catch (RuntimeException | Error e) {
+            forget(entry);
+            entry.finished = System.nanoTime();
+            entry.response.completeExceptionally(e);
+            throw e;
+        }
+        entry.finished = System.nanoTime();
+        entry.response.complete(response);
+        return response;
+    }
+
+    /**
+     * Deposit an amount to a player unless a deposit with the same transaction ID was already made - DO NOT USE NEGATIVE AMOUNTS
+     * @param transactionId unique to this deposit, reused on every retry
+     * @param player to deposit to
+     * @param amount Amount to deposit
+     * @return Detailed response of transaction, the remembered one on a retry
+     */
+    public EconomyResponse depositPlayerOnce(String transactionId, OfflinePlayer player, double amount) {
+        return execute(transactionId, () -> economy.depositPlayer(player, amount));
+    }
+
+    /**
+     * Deposit an amount to a player on a given world unless a deposit with the same transaction ID was already made - DO NOT USE NEGATIVE AMOUNTS
+     * @param transactionId unique to this deposit, reused on every retry
+     * @param player to deposit to
+     * @param worldName name of the world
+     * @param amount Amount to deposit
+     * @return Detailed response of transaction, the remembered one on a retry
+     */
+    public EconomyResponse depositPlayerOnce(String transactionId, OfflinePlayer player, String worldName, double amount) {
+        return execute(transactionId, () -> economy.depositPlayer(player, worldName, amount));
+    }
+
+    /**
+     * Withdraw an amount from a player unless a withdrawal with the same transaction ID was already made - DO NOT USE NEGATIVE AMOUNTS
+     * @param transactionId unique to this withdrawal, reused on every retry
+     * @param player to withdraw from
+     * @param amount Amount to withdraw
+     * @return Detailed response of transaction, the remembered one on a retry
+     */
+    public EconomyResponse withdrawPlayerOnce(String transactionId, OfflinePlayer player, double amount) {
+        return execute(transactionId, () -> economy.withdrawPlayer(player, amount));
+    }
+
+    /**
+     * Withdraw an amount from a player on a given world unless a withdrawal with the same transaction ID was already made - DO NOT USE NEGATIVE AMOUNTS
+     * @param transactionId unique to this withdrawal, reused on every retry
+     * @param player to withdraw from
+     * @param worldName name of the world
+     * @param amount Amount to withdraw
+     * @return Detailed response of transaction, the remembered one on a retry
+     */
+    public EconomyResponse withdrawPlayerOnce(String transactionId, OfflinePlayer player, String worldName, double amount) {
+        return execute(transactionId, () -> economy.withdrawPlayer(player, worldName, amount));
+    }
+
+    /**
+     * Transfer an amount between players unless a transfer with the same transaction ID was already made - DO NOT USE NEGATIVE AMOUNTS
+     * @param transactionId unique to this transfer, reused on every retry
+     * @param from player to withdraw from
+     * @param to player to deposit to
+     * @param amount Amount to transfer
+     * @return Detailed response of transaction, the remembered one on a retry
+     */
+    public EconomyResponse transferOnce(String transactionId, OfflinePlayer from, OfflinePlayer to, double amount) {
+        return execute(transactionId, () -> economy.transfer(from, to, amount));
+    }
+}
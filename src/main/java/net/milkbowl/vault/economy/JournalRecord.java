@@ -0,0 +1,109 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.UUID;
+
+/**
+ * A single balance change read back from an {@link EconomyJournal}.
+ */
+public class JournalRecord {
+
+    /**
+     * Kinds of balance change recorded in the journal
+     */
+    public static enum Operation {
+        PLAYER_DEPOSIT(1),
+        PLAYER_WITHDRAW(2),
+        BANK_DEPOSIT(3),
+        BANK_WITHDRAW(4),
+        // Balance of an account carried over by EconomyJournal#compact(), with an amount of 0
+        PLAYER_SNAPSHOT(5),
+        BANK_SNAPSHOT(6);
+
+        private final int id;
+
+        Operation(int id) {
+            this.id = id;
+        }
+
+        int getId() {
+            return id;
+        }
+
+        boolean isBank() {
+            return this == BANK_DEPOSIT || this == BANK_WITHDRAW || this == BANK_SNAPSHOT;
+        }
+
+        static Operation byId(int id) {
+            for (Operation operation : values()) {
+                if (operation.id == id) {
+                    return operation;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Kind of balance change
+     */
+    public final Operation operation;
+    /**
+     * Time the change was journaled, in milliseconds since the epoch
+     */
+    public final long timestamp;
+    /**
+     * Player whose account changed, or null for bank operations
+     */
+    public final UUID player;
+    /**
+     * Bank whose account changed, or null for player operations
+     */
+    public final String bank;
+    /**
+     * World of the player account, or null for the global account and for banks
+     */
+    public final String world;
+    /**
+     * Amount deposited or withdrawn
+     */
+    public final double amount;
+    /**
+     * Balance of the account after the change
+     */
+    public final double balance;
+
+    /**
+     * Constructor for JournalRecord
+     * @param operation Kind of balance change
+     * @param timestamp Time of the change in milliseconds since the epoch
+     * @param player Player whose account changed, or null for bank operations
+     * @param bank Bank whose account changed, or null for player operations
+     * @param world World of the player account, or null
+     * @param amount Amount deposited or withdrawn
+     * @param balance Balance of the account after the change
+     */
+    public JournalRecord(Operation operation, long timestamp, UUID player, String bank, String world, double amount, double balance) {
+        this.operation = operation;
+        this.timestamp = timestamp;
+        this.player = player;
+        this.bank = bank;
+        this.world = world;
+        this.amount = amount;
+        this.balance = balance;
+    }
+}
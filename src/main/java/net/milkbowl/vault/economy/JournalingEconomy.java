@@ -0,0 +1,235 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+import net.milkbowl.vault.economy.JournalRecord.Operation;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Records every successful deposit and withdrawal made through this economy in an {@link EconomyJournal}
+ * before the response is returned to the caller.
+ * The journal can be replayed with {@link EconomyJournal#replay(java.nio.file.Path, java.util.function.Consumer)}
+ * to rebuild balances after a crash. The deprecated name based methods are not journaled, since their accounts
+ * cannot be identified by UUID.
+ *
+ * Each change is applied and journaled while holding a lock stripe of its account, so records of the same account
+ * are written in the order the changes were made. If the journal cannot be written the change is undone and
+ * a failure is returned, so every acknowledged change is in the journal.
+ */
+public class JournalingEconomy extends ForwardingEconomy {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+    private static final String JOURNAL_FAILED = "Failed to journal transaction";
+
+    private final EconomyJournal journal;
+    private final LockStripes stripes = new LockStripes(64);
+
+    /**
+     * Constructor for JournalingEconomy
+     * @param economy to journal
+     * @param journal to write to
+     */
+    public JournalingEconomy(Economy economy, EconomyJournal journal) {
+        super(economy);
+        if (journal == null) {
+            throw new IllegalArgumentException("Journal cannot be null");
+        }
+        this.journal = journal;
+    }
+
+    /**
+     * Gets the journal changes are written to
+     * @return the journal
+     */
+    public EconomyJournal getJournal() {
+        return journal;
+    }
+
+    private EconomyResponse change(Operation operation, OfflinePlayer player, String world, double amount) {
+        if (operation == Operation.PLAYER_DEPOSIT) {
+            return world == null ? economy.depositPlayer(player, amount) : economy.depositPlayer(player, world, amount);
+        }
+        return world == null ? economy.withdrawPlayer(player, amount) : economy.withdrawPlayer(player, world, amount);
+    }
+
+    private EconomyResponse change(Operation operation, String bank, double amount) {
+        return operation == Operation.BANK_DEPOSIT ? economy.bankDeposit(bank, amount) : economy.bankWithdraw(bank, amount);
+    }
+
+    private static Operation reverse(Operation operation) {
+        switch (operation) {
+        case PLAYER_DEPOSIT:
+            return Operation.PLAYER_WITHDRAW;
+        case PLAYER_WITHDRAW:
+            return Operation.PLAYER_DEPOSIT;
+        case BANK_DEPOSIT:
+            return Operation.BANK_WITHDRAW;
+        default:
+            return Operation.BANK_DEPOSIT;
+        }
+    }
+
+    // Appends the record of a change already made, returning false if it could not be written
+    private boolean record(Operation operation, OfflinePlayer player, String world, double amount, double balance) {
+        try {
+            journal.appendPlayer(operation, player.getUniqueId(), world, amount, balance);
+            return true;
+        } catch (IOException e) {
+            log.log(Level.SEVERE, "[Vault] Failed to journal " + operation + " of " + amount + " for " + player.getName(), e);
+            return false;
+        }
+    }
+
+    // Undoes a change that could not be journaled and turns it into a failure
+    private EconomyResponse undo(Operation operation, OfflinePlayer player, String world, EconomyResponse response) {
+        EconomyResponse undone = change(reverse(operation), player, world, response.amount);
+        if (!undone.transactionSuccess()) {
+            log.severe("[Vault] Failed to undo unjournaled " + operation + " of " + response.amount + " for " + player.getName()
+                    + ": " + undone.errorMessage);
+            return new EconomyResponse(0, response.balance, ResponseType.FAILURE, JOURNAL_FAILED);
+        }
+        return new EconomyResponse(0, undone.balance, ResponseType.FAILURE, JOURNAL_FAILED);
+    }
+
+    private EconomyResponse apply(Operation operation, OfflinePlayer player, String world, double amount) {
+        Lock lock = stripes.player(player);
+        lock.lock();
+        try {
+            EconomyResponse response = change(operation, player, world, amount);
+            if (!response.transactionSuccess() || record(operation, player, world, response.amount, response.balance)) {
+                return response;
+            }
+            return undo(operation, player, world, response);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private EconomyResponse apply(Operation operation, String bank, double amount) {
+        Lock lock = stripes.bank(bank);
+        lock.lock();
+        try {
+            EconomyResponse response = change(operation, bank, amount);
+            if (!response.transactionSuccess()) {
+                return response;
+            }
+            try {
+                journal.appendBank(operation, bank, response.amount, response.balance);
+                return response;
+            } catch (IOException e) {
+                log.log(Level.SEVERE, "[Vault] Failed to journal " + operation + " of " + response.amount + " for bank " + bank, e);
+            }
+            EconomyResponse undone = change(reverse(operation), bank, response.amount);
+            if (!undone.transactionSuccess()) {
+                log.severe("[Vault] Failed to undo unjournaled " + operation + " of " + response.amount + " for bank " + bank
+                        + ": " + undone.errorMessage);
+            }
+            return new EconomyResponse(0, undone.transactionSuccess() ? undone.balance : response.balance, ResponseType.FAILURE, JOURNAL_FAILED);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return apply(Operation.PLAYER_WITHDRAW, player, null, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return apply(Operation.PLAYER_WITHDRAW, player, worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return apply(Operation.PLAYER_DEPOSIT, player, null, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return apply(Operation.PLAYER_DEPOSIT, player, worldName, amount);
+    }
+
+    /**
+     * Journals the balance of both players right after the transfer, while holding both of their lock stripes.
+     */
+    @Override
+    public EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        stripes.lock(from, to);
+        try {
+            EconomyResponse response = economy.transfer(from, to, amount);
+            if (!response.transactionSuccess()) {
+                return response;
+            }
+            if (!record(Operation.PLAYER_WITHDRAW, from, null, amount, response.balance)) {
+                return undoTransfer(from, to, amount, response, false);
+            }
+            if (!record(Operation.PLAYER_DEPOSIT, to, null, amount, economy.getBalance(to))) {
+                return undoTransfer(from, to, amount, response, true);
+            }
+            return response;
+        } finally {
+            stripes.unlock(from, to);
+        }
+    }
+
+    // Moves the funds back, journaling the reversal of the half that was already journaled
+    private EconomyResponse undoTransfer(OfflinePlayer from, OfflinePlayer to, double amount, EconomyResponse response, boolean withdrawalJournaled) {
+        EconomyResponse undone = economy.transfer(to, from, amount);
+        if (!undone.transactionSuccess()) {
+            log.severe("[Vault] Failed to undo unjournaled transfer of " + amount + " from " + from.getName() + " to " + to.getName()
+                    + ": " + undone.errorMessage);
+            return new EconomyResponse(0, response.balance, ResponseType.FAILURE, JOURNAL_FAILED);
+        }
+        double balance = economy.getBalance(from);
+        if (withdrawalJournaled) {
+            record(Operation.PLAYER_DEPOSIT, from, null, amount, balance);
+        }
+        return new EconomyResponse(0, balance, ResponseType.FAILURE, JOURNAL_FAILED);
+    }
+
+    /**
+     * Performs and journals the transfers one at a time, so each record holds the balance right after its transfer.
+     */
+    @Override
+    public List<EconomyResponse> transferAll(Collection<Transfer> transfers) {
+        List<EconomyResponse> responses = new ArrayList<EconomyResponse>(transfers.size());
+        for (Transfer transfer : transfers) {
+            responses.add(transfer(transfer.from, transfer.to, transfer.amount));
+        }
+        return responses;
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return apply(Operation.BANK_WITHDRAW, name, amount);
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return apply(Operation.BANK_DEPOSIT, name, amount);
+    }
+}
@@ -0,0 +1,168 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Thread-safe bounded set of keys, each optionally expiring a fixed time after it was added.
+ * Once full, the oldest keys are dropped first; expired keys at the head are dropped on every add.
+ * Every removal starts a new generation, so a key looked up before a removal can be added without undoing it.
+ */
+final class KeyCache<K> {
+
+    private static final class Entry<K> {
+        final K key;
+        final long added;
+
+        Entry(K key, long added) {
+            this.key = key;
+            this.added = added;
+        }
+    }
+
+    private final ConcurrentHashMap<K, Entry<K>> entries = new ConcurrentHashMap<K, Entry<K>>();
+    // Entries in insertion order; replaced and removed ones are taken out with them
+    private final Queue<Entry<K>> order = new ConcurrentLinkedQueue<Entry<K>>();
+    private final AtomicInteger length = new AtomicInteger();
+    private final AtomicLong generation = new AtomicLong();
+    private final int maxSize;
+    private final long ttl;
+
+    /**
+     * Creates an empty cache
+     * @param maxSize number of keys to hold at most
+     * @param ttl nanoseconds a key is held for, or 0 to hold keys until they are dropped for space
+     */
+    KeyCache(int maxSize, long ttl) {
+        this.maxSize = maxSize;
+        this.ttl = ttl;
+    }
+
+    private boolean expired(Entry<K> entry, long now) {
+        return ttl > 0 && now - entry.added >= ttl;
+    }
+
+    /**
+     * Checks if the cache holds a key that has not expired
+     * @param key to check
+     * @param now current {@link System#nanoTime()}
+     * @return true if the key is held
+     */
+    boolean contains(K key, long now) {
+        Entry<K> entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (expired(entry, now)) {
+            if (entries.remove(key, entry)) {
+                unlink(entry);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    private void unlink(Entry<K> entry) {
+        if (order.remove(entry)) {
+            length.decrementAndGet();
+        }
+    }
+
+    /**
+     * Gets the current generation, to be passed to {@link #add(Object, long, long)}
+     * @return generation
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Adds a key, or restarts its time to live if it is already held
+     * @param key to add
+     * @param now current {@link System#nanoTime()}
+     */
+    void add(K key, long now) {
+        add(key, now, generation.get());
+    }
+
+    /**
+     * Adds a key unless a key was removed since the given generation, or restarts its time to live if it is
+     * already held
+     * @param key to add
+     * @param now current {@link System#nanoTime()}
+     * @param generation from before the key was looked up
+     */
+    void add(K key, long now, long generation) {
+        if (maxSize == 0 || this.generation.get() != generation) {
+            return;
+        }
+        Entry<K> entry = new Entry<K>(key, now);
+        order.add(entry);
+        length.incrementAndGet();
+        Entry<K> replaced = entries.put(key, entry);
+        if (replaced != null) {
+            unlink(replaced);
+        }
+        // A removal may have missed the entry while it was being added
+        if (this.generation.get() != generation && entries.remove(key, entry)) {
+            unlink(entry);
+        }
+        Entry<K> head;
+        while ((head = order.peek()) != null && (length.get() > maxSize || expired(head, now))) {
+            if (order.remove(head)) {
+                length.decrementAndGet();
+                entries.remove(head.key, head);
+            }
+        }
+    }
+
+    /**
+     * Drops a key
+     * @param key to drop
+     */
+    void remove(K key) {
+        generation.incrementAndGet();
+        Entry<K> entry = entries.remove(key);
+        if (entry != null) {
+            unlink(entry);
+        }
+    }
+
+    /**
+     * Drops every key
+     */
+    void clear() {
+        generation.incrementAndGet();
+        Entry<K> head;
+        while ((head = order.poll()) != null) {
+            length.decrementAndGet();
+            entries.remove(head.key, head);
+        }
+    }
+
+    /**
+     * Gets the number of keys held, including expired ones not dropped yet
+     * @return number of keys
+     */
+    int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,179 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Keeps a {@link BalanceLeaderboard} of global balances up to date as money moves through this economy,
+ * so baltop style listings never have to enumerate every account.
+ * Every successful global deposit, withdrawal or transfer made through this wrapper updates the leaderboard
+ * with the balance of its response. Changes are made under a per-player lock so the leaderboard sees them in
+ * the order the wrapped economy made them. A transfer response only carries the sender's balance, so the
+ * receiver's balance is read back, as are the balances of everyone in a batch of transfers. World-specific and
+ * deprecated name based calls are not tracked, and neither are changes made to the wrapped economy directly.
+ *
+ * Use {@link #seed(Iterable)} once on startup to load existing balances.
+ */
+public class LeaderboardEconomy extends ForwardingEconomy {
+
+    private final BalanceLeaderboard leaderboard;
+    private final LockStripes stripes = new LockStripes(64);
+
+    /**
+     * Creates a wrapper maintaining a new, empty leaderboard
+     * @param economy to track
+     */
+    public LeaderboardEconomy(Economy economy) {
+        this(economy, new BalanceLeaderboard());
+    }
+
+    /**
+     * Creates a wrapper maintaining the given leaderboard
+     * @param economy to track
+     * @param leaderboard to keep updated
+     */
+    public LeaderboardEconomy(Economy economy, BalanceLeaderboard leaderboard) {
+        super(economy);
+        this.leaderboard = leaderboard;
+    }
+
+    /**
+     * Gets the leaderboard maintained by this wrapper
+     * @return the leaderboard
+     */
+    public BalanceLeaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Loads the current global balance of every given player that has an account into the leaderboard
+     * @param players to load, for example from Bukkit.getOfflinePlayers()
+     */
+    public void seed(Iterable<? extends OfflinePlayer> players) {
+        for (OfflinePlayer player : players) {
+            if (economy.hasAccount(player)) {
+                refresh(player);
+            }
+        }
+    }
+
+    /**
+     * Gets the richest players, richest first
+     * @param count maximum number of entries to return
+     * @return up to <b>count</b> entries
+     */
+    public List<BalanceLeaderboard.Entry> top(int count) {
+        return leaderboard.top(count);
+    }
+
+    /**
+     * Gets the rank of a player, where the richest player is rank 1
+     * @param player to look up
+     * @return rank of the player, or -1 if the player is not on the leaderboard
+     */
+    public int rankOf(OfflinePlayer player) {
+        return leaderboard.rankOf(player.getUniqueId());
+    }
+
+    private void refresh(OfflinePlayer player) {
+        Lock lock = stripes.player(player);
+        lock.lock();
+        try {
+            leaderboard.update(player.getUniqueId(), economy.getBalance(player));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        Lock lock = stripes.player(player);
+        lock.lock();
+        try {
+            EconomyResponse response = economy.withdrawPlayer(player, amount);
+            if (response.transactionSuccess()) {
+                leaderboard.update(player.getUniqueId(), response.balance);
+            }
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        Lock lock = stripes.player(player);
+        lock.lock();
+        try {
+            EconomyResponse response = economy.depositPlayer(player, amount);
+            if (response.transactionSuccess()) {
+                leaderboard.update(player.getUniqueId(), response.balance);
+            }
+            return response;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        stripes.lock(from, to);
+        try {
+            EconomyResponse response = economy.transfer(from, to, amount);
+            if (response.transactionSuccess()) {
+                leaderboard.update(from.getUniqueId(), response.balance);
+                leaderboard.update(to.getUniqueId(), economy.getBalance(to));
+            }
+            return response;
+        } finally {
+            stripes.unlock(from, to);
+        }
+    }
+
+    @Override
+    public List<EconomyResponse> transferAll(Collection<Transfer> transfers) {
+        List<EconomyResponse> responses = economy.transferAll(transfers);
+        Map<UUID, OfflinePlayer> changed = new LinkedHashMap<UUID, OfflinePlayer>();
+        int i = 0;
+        for (Transfer transfer : transfers) {
+            if (responses.get(i++).transactionSuccess()) {
+                changed.put(transfer.from.getUniqueId(), transfer.from);
+                changed.put(transfer.to.getUniqueId(), transfer.to);
+            }
+        }
+        for (OfflinePlayer player : changed.values()) {
+            refresh(player);
+        }
+        return responses;
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        boolean created = economy.createPlayerAccount(player);
+        if (created) {
+            refresh(player);
+        }
+        return created;
+    }
+}
@@ -0,0 +1,101 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * A fixed set of locks that accounts are hashed onto, so decorators can serialize work on one account
+ * without a lock per account. Player accounts are striped by UUID only, banks by name.
+ */
+final class LockStripes {
+
+    private static final int BANK_SEED = 0x5bd1e995;
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    LockStripes(int stripes) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("Stripe count must be at least 1");
+        }
+        int size = Integer.highestOneBit(stripes);
+        if (size < stripes) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            this.locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        return hash ^ (hash >>> 13);
+    }
+
+    int size() {
+        return locks.length;
+    }
+
+    int index(OfflinePlayer player) {
+        return spread(player.getUniqueId().hashCode()) & mask;
+    }
+
+    Lock get(int index) {
+        return locks[index];
+    }
+
+    Lock player(OfflinePlayer player) {
+        return locks[index(player)];
+    }
+
+    Lock bank(String name) {
+        return locks[spread(name.hashCode() ^ BANK_SEED) & mask];
+    }
+
+    // Always takes the lower stripe first so opposing transfers cannot deadlock
+    void lock(OfflinePlayer first, OfflinePlayer second) {
+        int a = index(first);
+        int b = index(second);
+        locks[Math.min(a, b)].lock();
+        locks[Math.max(a, b)].lock();
+    }
+
+    void unlock(OfflinePlayer first, OfflinePlayer second) {
+        int a = index(first);
+        int b = index(second);
+        locks[Math.max(a, b)].unlock();
+        locks[Math.min(a, b)].unlock();
+    }
+
+    void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+}
@@ -0,0 +1,1045 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+/**
+ * A complete Economy that keeps every account in memory.
+ * Balances are stored as minor units in primitive open-addressing tables, one per world plus one for global accounts,
+ * so reads never lock and deposits and withdrawals are a single compare-and-set. Banks are fully supported.
+ * Further currencies can be registered with the {@link CurrencyRegistry} passed to the constructor; each gets its
+ * own set of tables, found by currency id. A player holds every currency once they have an account.
+ * Nothing is persisted; wrap it in a {@link JournalingEconomy} to keep a record of transactions.
+ * Useful as a default provider for small servers, in tests, and as a baseline when benchmarking other providers.
+ */
+@SuppressWarnings("deprecation")
+public class MemoryEconomy extends AbstractEconomy implements MultiCurrencyEconomy {
+
+    private static final String NO_ACCOUNT = "Account does not exist";
+    private static final String NO_BANK = "Bank does not exist";
+    private static final String INSUFFICIENT_FUNDS = "Insufficient funds";
+    private static final String BALANCE_LIMIT = "Balance limit reached";
+    private static final String NEGATIVE_WITHDRAW = "Cannot withdraw negative funds";
+    private static final String NEGATIVE_DEPOSIT = "Cannot deposit negative funds";
+    // Shared failures that report neither an amount nor a balance
+    private static final EconomyResponse NO_ACCOUNT_FAILURE = new EconomyResponse(0, 0, ResponseType.FAILURE, NO_ACCOUNT);
+    private static final EconomyResponse NO_BANK_FAILURE = new EconomyResponse(0, 0, ResponseType.FAILURE, NO_BANK);
+    private static final EconomyResponse NEGATIVE_WITHDRAW_FAILURE = new EconomyResponse(0, 0, ResponseType.FAILURE, NEGATIVE_WITHDRAW);
+    private static final EconomyResponse NEGATIVE_DEPOSIT_FAILURE = new EconomyResponse(0, 0, ResponseType.FAILURE, NEGATIVE_DEPOSIT);
+    // Returned by the raw operations for negative amounts
+    private static final long NEGATIVE = Long.MIN_VALUE + 2;
+
+    private static final class Bank {
+        final UUID owner;
+        final AtomicLong balance = new AtomicLong();
+        final Set<UUID> members = ConcurrentHashMap.newKeySet();
+
+        Bank(UUID owner) {
+            this.owner = owner;
+        }
+    }
+
+    // Balances in one currency
+    private final class Ledger {
+        final Currency currency;
+        final int digits;
+        final BalanceTable global = new BalanceTable();
+        final ConcurrentHashMap<String, BalanceTable> worlds = new ConcurrentHashMap<String, BalanceTable>();
+
+        Ledger(Currency currency) {
+            this.currency = currency;
+            this.digits = MinorUnits.digits(currency.fractionalDigits());
+        }
+
+        long minor(double amount) {
+            return MinorUnits.toMinor(amount, digits);
+        }
+
+        double major(long amount) {
+            return MinorUnits.toMajor(amount, digits);
+        }
+
+        // Table holding the accounts of a world, or null if no account was ever created in it
+        BalanceTable table(String world) {
+            if (world == null || !perWorld) {
+                return global;
+            }
+            return worlds.get(world);
+        }
+
+        BalanceTable createTable(String world) {
+            BalanceTable table = table(world);
+            if (table == null) {
+                BalanceTable created = new BalanceTable();
+                table = worlds.putIfAbsent(world, created);
+                if (table == null) {
+                    table = created;
+                }
+            }
+            return table;
+        }
+    }
+
+    private final String name;
+    private final int fractionalDigits;
+    private final int digits;
+    private final String currencyNameSingular;
+    private final String currencyNamePlural;
+    private final long startingBalance;
+    private final boolean perWorld;
+    private final CurrencyFormatter formatter;
+    private final CurrencyRegistry registry;
+    private final Ledger ledger;
+    // Indexed by currency id, grown as currencies are first used
+    private volatile Ledger[] ledgers;
+    private final ConcurrentHashMap<String, Bank> banks = new ConcurrentHashMap<String, Bank>();
+
+    /**
+     * Constructor for MemoryEconomy with shared accounts across worlds and an empty starting balance
+     * @param name of the economy
+     * @param fractionalDigits amounts are rounded to, or -1 for {@link MinorUnits#DEFAULT_DIGITS}
+     * @param currencyNameSingular name of the currency in singular form
+     * @param currencyNamePlural name of the currency in plural form
+     */
+    public MemoryEconomy(String name, int fractionalDigits, String currencyNameSingular, String currencyNamePlural) {
+        this(name, fractionalDigits, currencyNameSingular, currencyNamePlural, 0, false);
+    }
+
+    /**
+     * Constructor for MemoryEconomy
+     * @param name of the economy
+     * @param fractionalDigits amounts are rounded to, or -1 for {@link MinorUnits#DEFAULT_DIGITS}
+     * @param currencyNameSingular name of the currency in singular form
+     * @param currencyNamePlural name of the currency in plural form
+     * @param startingBalance new accounts are created with
+     * @param perWorld true to keep a separate account for every world, false to use the global account everywhere
+     */
+    public MemoryEconomy(String name, int fractionalDigits, String currencyNameSingular, String currencyNamePlural, double startingBalance, boolean perWorld) {
+        this(name, singleCurrency(name, fractionalDigits, currencyNameSingular, currencyNamePlural), startingBalance, perWorld);
+    }
+
+    private MemoryEconomy(String name, CurrencyRegistry registry, double startingBalance, boolean perWorld) {
+        this(name, registry, registry.get(0), startingBalance, perWorld);
+    }
+
+    /**
+     * Constructor for MemoryEconomy holding several currencies
+     * @param name of the economy
+     * @param registry of every currency the economy holds, to which more can be added later
+     * @param defaultCurrency the single-currency methods operate on, registered with the registry
+     * @param startingBalance in the default currency new accounts are created with
+     * @param perWorld true to keep a separate account for every world, false to use the global account everywhere
+     */
+    public MemoryEconomy(String name, CurrencyRegistry registry, Currency defaultCurrency, double startingBalance, boolean perWorld) {
+        if (name == null) {
+            throw new IllegalArgumentException("Name cannot be null");
+        }
+        if (!registry.contains(defaultCurrency)) {
+            throw new IllegalArgumentException("Default currency is not registered with the registry");
+        }
+        if (defaultCurrency.fractionalDigits() > MinorUnits.MAX_DIGITS) {
+            throw new IllegalArgumentException("Fractional digits cannot exceed " + MinorUnits.MAX_DIGITS);
+        }
+        if (startingBalance < 0) {
+            throw new IllegalArgumentException("Starting balance cannot be negative");
+        }
+        this.name = name;
+        this.fractionalDigits = defaultCurrency.fractionalDigits();
+        this.digits = MinorUnits.digits(fractionalDigits);
+        this.currencyNameSingular = defaultCurrency.currencyNameSingular();
+        this.currencyNamePlural = defaultCurrency.currencyNamePlural();
+        this.startingBalance = MinorUnits.toMinor(startingBalance, digits);
+        this.perWorld = perWorld;
+        this.formatter = defaultCurrency.getFormatter();
+        this.registry = registry;
+        this.ledger = new Ledger(defaultCurrency);
+        Ledger[] initial = new Ledger[defaultCurrency.getId() + 1];
+        initial[defaultCurrency.getId()] = ledger;
+        this.ledgers = initial;
+    }
+
+    private static CurrencyRegistry singleCurrency(String name, int fractionalDigits, String currencyNameSingular, String currencyNamePlural) {
+        CurrencyRegistry registry = new CurrencyRegistry();
+        registry.register(currencyNameSingular == null ? String.valueOf(name) : currencyNameSingular, fractionalDigits, currencyNameSingular, currencyNamePlural);
+        return registry;
+    }
+
+    private static UUID id(String playerName) {
+        return Bukkit.getOfflinePlayer(playerName).getUniqueId();
+    }
+
+    private long minor(double amount) {
+        return ledger.minor(amount);
+    }
+
+    private double major(long amount) {
+        return ledger.major(amount);
+    }
+
+    private BalanceTable table(String world) {
+        return ledger.table(world);
+    }
+
+    private long balance(UUID id, String world) {
+        return balance(table(world), id);
+    }
+
+    private long withdraw(UUID id, String world, long amount) {
+        return withdraw(table(world), id, amount);
+    }
+
+    private long deposit(UUID id, String world, long amount) {
+        return deposit(table(world), id, amount);
+    }
+
+    private static long balance(BalanceTable table, UUID id) {
+        return table == null ? BalanceTable.ABSENT : table.get(id);
+    }
+
+    private static long withdraw(BalanceTable table, UUID id, long amount) {
+        if (amount < 0) {
+            return NEGATIVE;
+        }
+        return table == null ? BalanceTable.ABSENT : table.add(id, -amount, 0);
+    }
+
+    private static long deposit(BalanceTable table, UUID id, long amount) {
+        if (amount < 0) {
+            return NEGATIVE;
+        }
+        return table == null ? BalanceTable.ABSENT : table.add(id, amount, Long.MIN_VALUE);
+    }
+
+    private EconomyResponse response(long balance, long amount, boolean withdraw, UUID id, String world) {
+        return response(ledger, table(world), balance, amount, withdraw, id);
+    }
+
+    private static EconomyResponse response(Ledger ledger, BalanceTable table, long balance, long amount, boolean withdraw, UUID id) {
+        if (balance == BalanceTable.ABSENT) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        if (balance == NEGATIVE) {
+            return withdraw ? NEGATIVE_WITHDRAW_FAILURE : NEGATIVE_DEPOSIT_FAILURE;
+        }
+        if (balance == BalanceTable.REJECTED) {
+            return new EconomyResponse(0, ledger.major(balance(table, id)), ResponseType.FAILURE, withdraw ? INSUFFICIENT_FUNDS : BALANCE_LIMIT);
+        }
+        return new EconomyResponse(ledger.major(amount), ledger.major(balance), ResponseType.SUCCESS, null);
+    }
+
+    private boolean result(long balance, long amount, boolean withdraw, UUID id, String world, EconomyResult result) {
+        if (balance == BalanceTable.ABSENT) {
+            result.set(0, 0, ResponseType.FAILURE, NO_ACCOUNT);
+        } else if (balance == NEGATIVE) {
+            result.set(0, 0, ResponseType.FAILURE, withdraw ? NEGATIVE_WITHDRAW : NEGATIVE_DEPOSIT);
+        } else if (balance == BalanceTable.REJECTED) {
+            result.set(0, major(balance(id, world)), ResponseType.FAILURE, withdraw ? INSUFFICIENT_FUNDS : BALANCE_LIMIT);
+        } else {
+            result.set(major(amount), major(balance), ResponseType.SUCCESS, null);
+        }
+        return result.transactionSuccess();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return true;
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return fractionalDigits;
+    }
+
+    @Override
+    public int minorUnitDigits() {
+        return digits;
+    }
+
+    @Override
+    public String format(double amount) {
+        return formatter.format(amount);
+    }
+
+    /**
+     * Gets the formatter used by {@link #format(double)}, to append amounts to a buffer without allocating
+     * @return the CurrencyFormatter of this economy
+     */
+    public CurrencyFormatter getFormatter() {
+        return formatter;
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return currencyNamePlural;
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return currencyNameSingular;
+    }
+
+    /**
+     * Checks if every world keeps separate accounts
+     * @return true if accounts are kept per world, false if the global account is used everywhere
+     */
+    public boolean isPerWorld() {
+        return perWorld;
+    }
+
+    /**
+     * Gets a view bound to the table of a world, so its calls skip the world lookup.
+     * Each world has its own table, so views of different worlds never contend with each other.
+     */
+    @Override
+    public WorldEconomy forWorld(String worldName) {
+        return new WorldAccounts(worldName);
+    }
+
+    private final class WorldAccounts implements WorldEconomy {
+        private final String world;
+        // Null until the first account is created in the world
+        private volatile BalanceTable table;
+
+        WorldAccounts(String world) {
+            this.world = world;
+            this.table = ledger.table(world);
+        }
+
+        private BalanceTable table() {
+            BalanceTable current = table;
+            if (current == null) {
+                current = ledger.table(world);
+                table = current;
+            }
+            return current;
+        }
+
+        @Override
+        public Economy getEconomy() {
+            return MemoryEconomy.this;
+        }
+
+        @Override
+        public String getWorld() {
+            return world;
+        }
+
+        @Override
+        public boolean hasAccount(OfflinePlayer player) {
+            return balance(table(), player.getUniqueId()) != BalanceTable.ABSENT;
+        }
+
+        @Override
+        public boolean createPlayerAccount(OfflinePlayer player) {
+            BalanceTable current = table;
+            if (current == null) {
+                current = ledger.createTable(world);
+                table = current;
+            }
+            return current.create(player.getUniqueId(), startingBalance);
+        }
+
+        @Override
+        public double getBalance(OfflinePlayer player) {
+            long balance = balance(table(), player.getUniqueId());
+            return balance == BalanceTable.ABSENT ? 0 : major(balance);
+        }
+
+        @Override
+        public boolean has(OfflinePlayer player, double amount) {
+            long balance = balance(table(), player.getUniqueId());
+            return balance != BalanceTable.ABSENT && balance >= minor(amount);
+        }
+
+        @Override
+        public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+            UUID id = player.getUniqueId();
+            BalanceTable current = table();
+            long minor = minor(amount);
+            return response(ledger, current, withdraw(current, id, minor), minor, true, id);
+        }
+
+        @Override
+        public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+            UUID id = player.getUniqueId();
+            BalanceTable current = table();
+            long minor = minor(amount);
+            return response(ledger, current, deposit(current, id, minor), minor, false, id);
+        }
+
+        @Override
+        public String toString() {
+            return name + "@" + world;
+        }
+    }
+
+    /**
+     * Gets the registry of the currencies this economy holds, to register more
+     * @return the CurrencyRegistry
+     */
+    public CurrencyRegistry getCurrencyRegistry() {
+        return registry;
+    }
+
+    @Override
+    public Currency getDefaultCurrency() {
+        return ledger.currency;
+    }
+
+    @Override
+    public Currency getCurrency(String name) {
+        return registry.get(name);
+    }
+
+    @Override
+    public List<Currency> getCurrencies() {
+        return registry.getCurrencies();
+    }
+
+    private Ledger ledger(Currency currency) {
+        int id = currency.getId();
+        Ledger[] all = ledgers;
+        if (id < all.length && all[id] != null && all[id].currency == currency) {
+            return all[id];
+        }
+        if (!registry.contains(currency)) {
+            throw new IllegalArgumentException("Currency " + currency.getName() + " does not belong to " + name);
+        }
+        synchronized (this) {
+            all = ledgers;
+            if (id >= all.length || all[id] == null) {
+                all = Arrays.copyOf(all, Math.max(all.length, id + 1));
+                all[id] = new Ledger(currency);
+                ledgers = all;
+            }
+            return all[id];
+        }
+    }
+
+    // Table of a currency holding the player's account, created on first use as long as the player has an account
+    private BalanceTable open(Ledger target, UUID id, String world) {
+        if (target == ledger) {
+            return table(world);
+        }
+        if (balance(id, world) == BalanceTable.ABSENT) {
+            return null;
+        }
+        BalanceTable table = target.createTable(world);
+        if (table.get(id) == BalanceTable.ABSENT) {
+            table.create(id, 0);
+        }
+        return table;
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player, String world, Currency currency) {
+        Ledger target = ledger(currency);
+        long balance = balance(target.table(world), player.getUniqueId());
+        return balance == BalanceTable.ABSENT ? 0 : target.major(balance);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, String worldName, Currency currency, double amount) {
+        Ledger target = ledger(currency);
+        long balance = balance(target.table(worldName), player.getUniqueId());
+        return balance == BalanceTable.ABSENT ? amount <= 0 && hasAccount(player, worldName) : balance >= target.minor(amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, Currency currency, double amount) {
+        Ledger target = ledger(currency);
+        UUID id = player.getUniqueId();
+        BalanceTable table = open(target, id, worldName);
+        long minor = target.minor(amount);
+        return response(target, table, withdraw(table, id, minor), minor, true, id);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, Currency currency, double amount) {
+        Ledger target = ledger(currency);
+        UUID id = player.getUniqueId();
+        BalanceTable table = open(target, id, worldName);
+        long minor = target.minor(amount);
+        return response(target, table, deposit(table, id, minor), minor, false, id);
+    }
+
+    @Override
+    public boolean hasUuidSupport() {
+        return true;
+    }
+
+    @Override
+    public boolean hasAccount(UUID uuid, String worldName) {
+        return balance(uuid, worldName) != BalanceTable.ABSENT;
+    }
+
+    @Override
+    public double getBalance(UUID uuid, String world) {
+        long balance = balance(uuid, world);
+        return balance == BalanceTable.ABSENT ? 0 : major(balance);
+    }
+
+    @Override
+    public boolean has(UUID uuid, String worldName, double amount) {
+        long balance = balance(uuid, worldName);
+        return balance != BalanceTable.ABSENT && balance >= minor(amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(UUID uuid, String worldName, double amount) {
+        long minor = minor(amount);
+        return response(withdraw(uuid, worldName, minor), minor, true, uuid, worldName);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(UUID uuid, String worldName, double amount) {
+        long minor = minor(amount);
+        return response(deposit(uuid, worldName, minor), minor, false, uuid, worldName);
+    }
+
+    @Override
+    public boolean createPlayerAccount(UUID uuid, String worldName) {
+        return ledger.createTable(worldName).create(uuid, startingBalance);
+    }
+
+    @Override
+    public boolean hasAccount(String playerName) {
+        return playerName != null && hasAccount(id(playerName));
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return playerName != null && hasAccount(id(playerName), worldName);
+    }
+
+    @Override
+    public double getBalance(String playerName) {
+        return playerName == null ? 0 : getBalance(id(playerName));
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        return playerName == null ? 0 : getBalance(id(playerName), world);
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return playerName != null && has(id(playerName), amount);
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return playerName != null && has(id(playerName), worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        if (playerName == null) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        return withdrawPlayer(id(playerName), amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        if (playerName == null) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        return withdrawPlayer(id(playerName), worldName, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        if (playerName == null) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        return depositPlayer(id(playerName), amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        if (playerName == null) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        return depositPlayer(id(playerName), worldName, amount);
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        return playerName != null && createPlayerAccount(id(playerName));
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return playerName != null && createPlayerAccount(id(playerName), worldName);
+    }
+
+    /**
+     * Looks every player up in the same partition; players without an account are left out.
+     */
+    @Override
+    public BalanceMap getBalances(Collection<? extends OfflinePlayer> players, String world) {
+        BalanceMap balances = new BalanceMap(players.size());
+        BalanceTable table = table(world);
+        if (table == null) {
+            return balances;
+        }
+        for (OfflinePlayer player : players) {
+            UUID id = player.getUniqueId();
+            long balance = table.get(id);
+            if (balance != BalanceTable.ABSENT) {
+                balances.put(id, major(balance));
+            }
+        }
+        return balances;
+    }
+
+    /**
+     * Updates the partition directly, one compare-and-set per account. Runs on the calling thread even for
+     * parallel operations, since each update is only a table write.
+     */
+    @Override
+    public BulkResult applyBulk(Collection<? extends OfflinePlayer> players, String world, BulkOperation operation) {
+        BulkTally tally = new BulkTally(operation);
+        BalanceTable table = table(world);
+        for (OfflinePlayer player : players) {
+            tally.apply(table, player.getUniqueId(), player);
+        }
+        return tally.toResult();
+    }
+
+    /**
+     * Scans the accounts of the partition instead of every player known to the server.
+     */
+    @Override
+    public BulkResult applyBulk(Predicate<? super OfflinePlayer> filter, String world, BulkOperation operation) {
+        BulkTally tally = new BulkTally(operation);
+        BalanceTable table = table(world);
+        if (table != null) {
+            table.forEach((id, balance) -> {
+                OfflinePlayer player = Bukkit.getOfflinePlayer(id);
+                if (filter.test(player)) {
+                    tally.apply(table, id, player);
+                }
+            });
+        }
+        return tally.toResult();
+    }
+
+    private final class BulkTally {
+        private final BulkOperation operation;
+        private final long fixed;
+        private int succeeded;
+        private long deposited;
+        private long withdrawn;
+        private final List<OfflinePlayer> failures = new ArrayList<OfflinePlayer>();
+
+        BulkTally(BulkOperation operation) {
+            this.operation = operation;
+            this.fixed = minor(operation.value);
+        }
+
+        void apply(BalanceTable table, UUID id, OfflinePlayer player) {
+            long delta = table == null ? BalanceTable.ABSENT : operation.needsBalance() ? applyPercentage(table, id) : applyFixed(table, id);
+            if (delta == BalanceTable.ABSENT || delta == BalanceTable.REJECTED) {
+                failures.add(player);
+                return;
+            }
+            succeeded++;
+            if (delta > 0) {
+                deposited += delta;
+            } else {
+                withdrawn -= delta;
+            }
+        }
+
+        private long applyFixed(BalanceTable table, UUID id) {
+            long balance = table.add(id, fixed, fixed < 0 ? 0 : Long.MIN_VALUE);
+            return balance == BalanceTable.ABSENT || balance == BalanceTable.REJECTED ? balance : fixed;
+        }
+
+        private long applyPercentage(BalanceTable table, UUID id) {
+            while (true) {
+                long balance = table.get(id);
+                if (balance == BalanceTable.ABSENT) {
+                    return balance;
+                }
+                long delta = Math.round(balance * operation.value / 100);
+                long updated = BalanceTable.add(balance, delta, delta < 0 ? 0 : Long.MIN_VALUE);
+                if (updated == BalanceTable.REJECTED) {
+                    return updated;
+                }
+                if (delta == 0 || table.compareAndSet(id, balance, updated)) {
+                    return delta;
+                }
+            }
+        }
+
+        BulkResult toResult() {
+            return new BulkResult(succeeded, major(deposited), major(withdrawn), failures);
+        }
+    }
+
+    @Override
+    public long getBalanceMinor(OfflinePlayer player) {
+        return getBalanceMinor(player, null);
+    }
+
+    @Override
+    public long getBalanceMinor(OfflinePlayer player, String world) {
+        long balance = balance(player.getUniqueId(), world);
+        return balance == BalanceTable.ABSENT ? 0 : balance;
+    }
+
+    @Override
+    public boolean hasMinor(OfflinePlayer player, long amount) {
+        return hasMinor(player, null, amount);
+    }
+
+    @Override
+    public boolean hasMinor(OfflinePlayer player, String worldName, long amount) {
+        long balance = balance(player.getUniqueId(), worldName);
+        return balance != BalanceTable.ABSENT && balance >= amount;
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayerMinor(OfflinePlayer player, long amount) {
+        return withdrawPlayerMinor(player, null, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        UUID id = player.getUniqueId();
+        return response(withdraw(id, worldName, amount), amount, true, id, worldName);
+    }
+
+    @Override
+    public EconomyResponse depositPlayerMinor(OfflinePlayer player, long amount) {
+        return depositPlayerMinor(player, null, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        UUID id = player.getUniqueId();
+        return response(deposit(id, worldName, amount), amount, false, id, worldName);
+    }
+
+    @Override
+    public boolean withdrawPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        return withdrawPlayer(player, null, amount, result);
+    }
+
+    @Override
+    public boolean withdrawPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        UUID id = player.getUniqueId();
+        long minor = minor(amount);
+        return result(withdraw(id, worldName, minor), minor, true, id, worldName, result);
+    }
+
+    @Override
+    public boolean depositPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        return depositPlayer(player, null, amount, result);
+    }
+
+    @Override
+    public boolean depositPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        UUID id = player.getUniqueId();
+        long minor = minor(amount);
+        return result(deposit(id, worldName, minor), minor, false, id, worldName, result);
+    }
+
+    @Override
+    public EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        UUID source = from.getUniqueId();
+        UUID target = to.getUniqueId();
+        long minor = minor(amount);
+        if (minor >= 0 && ledger.global.get(target) == BalanceTable.ABSENT) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        long balance = withdraw(source, null, minor);
+        EconomyResponse withdrawal = response(balance, minor, true, source, null);
+        if (!withdrawal.transactionSuccess()) {
+            return withdrawal;
+        }
+        long deposited = deposit(target, null, minor);
+        if (deposited == BalanceTable.ABSENT || deposited == BalanceTable.REJECTED) {
+            // The sender's account cannot overflow from getting back what was just taken from it
+            long refunded = ledger.global.add(source, minor, Long.MIN_VALUE);
+            return new EconomyResponse(0, major(refunded), ResponseType.FAILURE, deposited == BalanceTable.ABSENT ? NO_ACCOUNT : BALANCE_LIMIT);
+        }
+        return withdrawal;
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        if (player == null) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        return createBank(name, id(player));
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, OfflinePlayer player) {
+        return createBank(name, player.getUniqueId());
+    }
+
+    private EconomyResponse createBank(String name, UUID owner) {
+        if (banks.putIfAbsent(name, new Bank(owner)) != null) {
+            return new EconomyResponse(0, bankBalanceFast(name), ResponseType.FAILURE, "Bank already exists");
+        }
+        return EconomyResponse.SUCCESS;
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        Bank bank = banks.remove(name);
+        if (bank == null) {
+            return NO_BANK_FAILURE;
+        }
+        return new EconomyResponse(0, major(bank.balance.get()), ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        Bank bank = banks.get(name);
+        if (bank == null) {
+            return NO_BANK_FAILURE;
+        }
+        return new EconomyResponse(0, major(bank.balance.get()), ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        Bank bank = banks.get(name);
+        if (bank == null) {
+            return NO_BANK_FAILURE;
+        }
+        long balance = bank.balance.get();
+        if (balance < minor(amount)) {
+            return new EconomyResponse(0, major(balance), ResponseType.FAILURE, INSUFFICIENT_FUNDS);
+        }
+        return new EconomyResponse(0, major(balance), ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return bankAdd(name, minor(amount), true);
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return bankAdd(name, minor(amount), false);
+    }
+
+    private EconomyResponse bankAdd(String name, long amount, boolean withdraw) {
+        if (amount < 0) {
+            return withdraw ? NEGATIVE_WITHDRAW_FAILURE : NEGATIVE_DEPOSIT_FAILURE;
+        }
+        Bank bank = banks.get(name);
+        if (bank == null) {
+            return NO_BANK_FAILURE;
+        }
+        long delta = withdraw ? -amount : amount;
+        long minimum = withdraw ? 0 : Long.MIN_VALUE;
+        while (true) {
+            long balance = bank.balance.get();
+            long updated = BalanceTable.add(balance, delta, minimum);
+            if (updated == BalanceTable.REJECTED) {
+                return new EconomyResponse(0, major(balance), ResponseType.FAILURE, withdraw ? INSUFFICIENT_FUNDS : BALANCE_LIMIT);
+            }
+            if (bank.balance.compareAndSet(balance, updated)) {
+                return new EconomyResponse(major(amount), major(updated), ResponseType.SUCCESS, null);
+            }
+        }
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        if (playerName == null) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        return bankRole(name, id(playerName), false);
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, OfflinePlayer player) {
+        return bankRole(name, player.getUniqueId(), false);
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        if (playerName == null) {
+            return NO_ACCOUNT_FAILURE;
+        }
+        return bankRole(name, id(playerName), true);
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, OfflinePlayer player) {
+        return bankRole(name, player.getUniqueId(), true);
+    }
+
+    private EconomyResponse bankRole(String name, UUID id, boolean member) {
+        Bank bank = banks.get(name);
+        if (bank == null) {
+            return NO_BANK_FAILURE;
+        }
+        double balance = major(bank.balance.get());
+        if (bank.owner.equals(id) || member && bank.members.contains(id)) {
+            return new EconomyResponse(0, balance, ResponseType.SUCCESS, null);
+        }
+        return new EconomyResponse(0, balance, ResponseType.FAILURE, member ? "Not a member of the bank" : "Not the owner of the bank");
+    }
+
+    @Override
+    public double bankBalanceFast(String name) {
+        Bank bank = banks.get(name);
+        return bank == null ? 0 : major(bank.balance.get());
+    }
+
+    @Override
+    public boolean bankHasFast(String name, double amount) {
+        Bank bank = banks.get(name);
+        return bank != null && bank.balance.get() >= minor(amount);
+    }
+
+    @Override
+    public boolean isBankOwnerFast(String name, OfflinePlayer player) {
+        Bank bank = banks.get(name);
+        return bank != null && bank.owner.equals(player.getUniqueId());
+    }
+
+    @Override
+    public boolean isBankMemberFast(String name, OfflinePlayer player) {
+        Bank bank = banks.get(name);
+        if (bank == null) {
+            return false;
+        }
+        UUID id = player.getUniqueId();
+        return bank.owner.equals(id) || bank.members.contains(id);
+    }
+
+    /**
+     * Adds a member to a bank
+     * @param name of the bank
+     * @param player to add
+     * @return true if the player was added, false if the bank does not exist or the player already is a member
+     */
+    public boolean addBankMember(String name, OfflinePlayer player) {
+        Bank bank = banks.get(name);
+        return bank != null && bank.members.add(player.getUniqueId());
+    }
+
+    /**
+     * Removes a member from a bank. The owner cannot be removed.
+     * @param name of the bank
+     * @param player to remove
+     * @return true if the player was removed, false if the bank does not exist or the player is not a member
+     */
+    public boolean removeBankMember(String name, OfflinePlayer player) {
+        Bank bank = banks.get(name);
+        return bank != null && bank.members.remove(player.getUniqueId());
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return new ArrayList<String>(banks.keySet());
+    }
+
+    @Override
+    public Spliterator<BankBalance> bankSpliterator() {
+        return new BankEntries(banks.entrySet().spliterator());
+    }
+
+    @Override
+    public List<BankBalance> getBankBalances(int offset, int limit) {
+        if (offset < 0 || limit < 0) {
+            throw new IllegalArgumentException("Offset and limit cannot be negative");
+        }
+        if (limit == 0) {
+            return Collections.emptyList();
+        }
+        List<BankBalance> page = new ArrayList<BankBalance>(Math.min(limit, 64));
+        Iterator<Map.Entry<String, Bank>> entries = banks.entrySet().iterator();
+        for (int skipped = 0; skipped < offset && entries.hasNext(); skipped++) {
+            entries.next();
+        }
+        while (page.size() < limit && entries.hasNext()) {
+            Map.Entry<String, Bank> entry = entries.next();
+            page.add(new BankBalance(entry.getKey(), major(entry.getValue().balance.get())));
+        }
+        return page;
+    }
+
+    // Reads balances straight from the weakly consistent, splittable view of the bank map
+    private final class BankEntries implements Spliterator<BankBalance> {
+        private final Spliterator<Map.Entry<String, Bank>> entries;
+
+        BankEntries(Spliterator<Map.Entry<String, Bank>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super BankBalance> action) {
+            return entries.tryAdvance(entry -> action.accept(new BankBalance(entry.getKey(), major(entry.getValue().balance.get()))));
+        }
+
+        @Override
+        public Spliterator<BankBalance> trySplit() {
+            Spliterator<Map.Entry<String, Bank>> prefix = entries.trySplit();
+            return prefix == null ? null : new BankEntries(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return entries.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return CONCURRENT | DISTINCT | NONNULL;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.plugin.Plugin;
+
+/**
+ * Records call counts, response types, exceptions and latency histograms for every account and bank method
+ * of another {@link Economy}, broken down by calling plugin.
+ * Recording is lock-free once a caller has called a method the first time.
+ *
+ * Each plugin should use its own view from {@link #forCaller(Plugin)}; every view shares the same metrics,
+ * which can be polled with {@link #snapshot()}. Calls through a view created with the constructor are recorded
+ * under {@link #UNKNOWN_CALLER}. The metadata getters (getName, fractionalDigits, currency names, ...) are
+ * forwarded without being metered, as is bankSpliterator, which does its work lazily during traversal.
+ */
+@SuppressWarnings("deprecation")
+public class MeteredEconomy extends ForwardingEconomy {
+
+    /**
+     * Caller name used for calls through a view not bound to a plugin
+     */
+    public static final String UNKNOWN_CALLER = "unknown";
+
+    private static final class Meter {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final LongAdder exceptions = new LongAdder();
+        final LongAdder[] responses = new LongAdder[ResponseType.values().length];
+
+        Meter() {
+            for (int i = 0; i < responses.length; i++) {
+                responses[i] = new LongAdder();
+            }
+        }
+
+        void record(long start, ResponseType type) {
+            latency.record(System.nanoTime() - start);
+            if (type != null) {
+                responses[type.ordinal()].increment();
+            }
+        }
+
+        void exception(long start) {
+            latency.record(System.nanoTime() - start);
+            exceptions.increment();
+        }
+    }
+
+    private final Map<String, Map<String, Meter>> callers;
+    private final String caller;
+    private final Map<String, Meter> meters;
+
+    /**
+     * Creates a metered view of an economy, recording calls under {@link #UNKNOWN_CALLER}
+     * @param economy to meter
+     */
+    public MeteredEconomy(Economy economy) {
+        this(economy, new ConcurrentHashMap<String, Map<String, Meter>>(), UNKNOWN_CALLER);
+    }
+
+    private MeteredEconomy(Economy economy, Map<String, Map<String, Meter>> callers, String caller) {
+        super(economy);
+        this.callers = callers;
+        this.caller = caller;
+        this.meters = callers.computeIfAbsent(caller, k -> new ConcurrentHashMap<String, Meter>());
+    }
+
+    /**
+     * Gets a view of the same economy recording calls under the given caller, sharing metrics with this view
+     * @param caller name to record calls under
+     * @return a metered view for the caller
+     */
+    public MeteredEconomy forCaller(String caller) {
+        return new MeteredEconomy(economy, callers, caller);
+    }
+
+    /**
+     * Gets a view of the same economy recording calls under the plugin's name, sharing metrics with this view
+     * @param plugin making the calls
+     * @return a metered view for the plugin
+     */
+    public MeteredEconomy forCaller(Plugin plugin) {
+        return forCaller(plugin.getName());
+    }
+
+    /**
+     * Gets the name calls through this view are recorded under
+     * @return caller name
+     */
+    public String getCaller() {
+        return caller;
+    }
+
+    /**
+     * Takes a snapshot of the metrics of every caller and method called so far
+     * @return one entry per caller and method
+     */
+    public List<MethodMetrics> snapshot() {
+        List<MethodMetrics> metrics = new ArrayList<MethodMetrics>();
+        for (Map.Entry<String, Map<String, Meter>> byCaller : callers.entrySet()) {
+            for (Map.Entry<String, Meter> byMethod : byCaller.getValue().entrySet()) {
+                Meter meter = byMethod.getValue();
+                long[] responses = new long[meter.responses.length];
+                for (int i = 0; i < responses.length; i++) {
+                    responses[i] = meter.responses[i].sum();
+                }
+                LatencyHistogram latency = meter.latency;
+                metrics.add(new MethodMetrics(byCaller.getKey(), byMethod.getKey(), latency.getCount(), meter.exceptions.sum(),
+                        responses, latency.getMean(), latency.getValueAtPercentile(50), latency.getValueAtPercentile(99), latency.getMax()));
+            }
+        }
+        return metrics;
+    }
+
+    /**
+     * Clears the metrics of every caller
+     */
+    public void reset() {
+        for (Map<String, Meter> meters : callers.values()) {
+            meters.clear();
+        }
+    }
+
+    private Meter meter(String method) {
+        Meter meter = meters.get(method);
+        if (meter == null) {
+            meter = meters.computeIfAbsent(method, k -> new Meter());
+        }
+        return meter;
+    }
+
+    // Runs a call to the wrapped economy under the method's meter, counting the type of an EconomyResponse it returns
+    private <T> T timed(String method, Supplier<T> call) {
+        return timed(method, call, value -> value instanceof EconomyResponse ? ((EconomyResponse) value).type : null);
+    }
+
+    private <T> T timed(String method, Supplier<T> call, Function<? super T, ResponseType> type) {
+        Meter meter = meter(method);
+        long start = System.nanoTime();
+        T value;
+        try {
+            value = call.get();
+        } catch (RuntimeException e) {
+            meter.exception(start);
+            throw e;
+        }
+        meter.record(start, type.apply(value));
+        return value;
+    }
+
+    @Override
+    public String format(double amount) {
+        return timed("format(double)", () -> economy.format(amount));
+    }
+
+    @Override
+    public boolean hasAccount(String playerName) {
+        return timed("hasAccount(String)", () -> economy.hasAccount(playerName));
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player) {
+        return timed("hasAccount(OfflinePlayer)", () -> economy.hasAccount(player));
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return timed("hasAccount(String, String)", () -> economy.hasAccount(playerName, worldName));
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player, String worldName) {
+        return timed("hasAccount(OfflinePlayer, String)", () -> economy.hasAccount(player, worldName));
+    }
+
+    @Override
+    public double getBalance(String playerName) {
+        return timed("getBalance(String)", () -> economy.getBalance(playerName));
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player) {
+        return timed("getBalance(OfflinePlayer)", () -> economy.getBalance(player));
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        return timed("getBalance(String, String)", () -> economy.getBalance(playerName, world));
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player, String world) {
+        return timed("getBalance(OfflinePlayer, String)", () -> economy.getBalance(player, world));
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return timed("has(String, double)", () -> economy.has(playerName, amount));
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, double amount) {
+        return timed("has(OfflinePlayer, double)", () -> economy.has(player, amount));
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return timed("has(String, String, double)", () -> economy.has(playerName, worldName, amount));
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, String worldName, double amount) {
+        return timed("has(OfflinePlayer, String, double)", () -> economy.has(player, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        return timed("withdrawPlayer(String, double)", () -> economy.withdrawPlayer(playerName, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return timed("withdrawPlayer(OfflinePlayer, double)", () -> economy.withdrawPlayer(player, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        return timed("withdrawPlayer(String, String, double)", () -> economy.withdrawPlayer(playerName, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return timed("withdrawPlayer(OfflinePlayer, String, double)", () -> economy.withdrawPlayer(player, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        return timed("depositPlayer(String, double)", () -> economy.depositPlayer(playerName, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return timed("depositPlayer(OfflinePlayer, double)", () -> economy.depositPlayer(player, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        return timed("depositPlayer(String, String, double)", () -> economy.depositPlayer(playerName, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return timed("depositPlayer(OfflinePlayer, String, double)", () -> economy.depositPlayer(player, worldName, amount));
+    }
+
+    @Override
+    public long getBalanceMinor(OfflinePlayer player) {
+        return timed("getBalanceMinor(OfflinePlayer)", () -> economy.getBalanceMinor(player));
+    }
+
+    @Override
+    public long getBalanceMinor(OfflinePlayer player, String world) {
+        return timed("getBalanceMinor(OfflinePlayer, String)", () -> economy.getBalanceMinor(player, world));
+    }
+
+    @Override
+    public boolean hasMinor(OfflinePlayer player, long amount) {
+        return timed("hasMinor(OfflinePlayer, long)", () -> economy.hasMinor(player, amount));
+    }
+
+    @Override
+    public boolean hasMinor(OfflinePlayer player, String worldName, long amount) {
+        return timed("hasMinor(OfflinePlayer, String, long)", () -> economy.hasMinor(player, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayerMinor(OfflinePlayer player, long amount) {
+        return timed("withdrawPlayerMinor(OfflinePlayer, long)", () -> economy.withdrawPlayerMinor(player, amount));
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        return timed("withdrawPlayerMinor(OfflinePlayer, String, long)", () -> economy.withdrawPlayerMinor(player, worldName, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayerMinor(OfflinePlayer player, long amount) {
+        return timed("depositPlayerMinor(OfflinePlayer, long)", () -> economy.depositPlayerMinor(player, amount));
+    }
+
+    @Override
+    public EconomyResponse depositPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        return timed("depositPlayerMinor(OfflinePlayer, String, long)", () -> economy.depositPlayerMinor(player, worldName, amount));
+    }
+
+    @Override
+    public boolean withdrawPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        return timed("withdrawPlayer(OfflinePlayer, double, EconomyResult)", () -> economy.withdrawPlayer(player, amount, result), success -> result.type);
+    }
+
+    @Override
+    public boolean withdrawPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        return timed("withdrawPlayer(OfflinePlayer, String, double, EconomyResult)", () -> economy.withdrawPlayer(player, worldName, amount, result), success -> result.type);
+    }
+
+    @Override
+    public boolean depositPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        return timed("depositPlayer(OfflinePlayer, double, EconomyResult)", () -> economy.depositPlayer(player, amount, result), success -> result.type);
+    }
+
+    @Override
+    public boolean depositPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        return timed("depositPlayer(OfflinePlayer, String, double, EconomyResult)", () -> economy.depositPlayer(player, worldName, amount, result), success -> result.type);
+    }
+
+    @Override
+    public EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        return timed("transfer(OfflinePlayer, OfflinePlayer, double)", () -> economy.transfer(from, to, amount));
+    }
+
+    @Override
+    public List<EconomyResponse> transferAll(Collection<Transfer> transfers) {
+        return timed("transferAll(Collection<Transfer>)", () -> economy.transferAll(transfers));
+    }
+
+    @Override
+    public BalanceMap getBalances(Collection<? extends OfflinePlayer> players, String world) {
+        return timed("getBalances(Collection<OfflinePlayer>, String)", () -> economy.getBalances(players, world));
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        return timed("createBank(String, String)", () -> economy.createBank(name, player));
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, OfflinePlayer player) {
+        return timed("createBank(String, OfflinePlayer)", () -> economy.createBank(name, player));
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        return timed("deleteBank(String)", () -> economy.deleteBank(name));
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        return timed("bankBalance(String)", () -> economy.bankBalance(name));
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        return timed("bankHas(String, double)", () -> economy.bankHas(name, amount));
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return timed("bankWithdraw(String, double)", () -> economy.bankWithdraw(name, amount));
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return timed("bankDeposit(String, double)", () -> economy.bankDeposit(name, amount));
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return timed("isBankOwner(String, String)", () -> economy.isBankOwner(name, playerName));
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, OfflinePlayer player) {
+        return timed("isBankOwner(String, OfflinePlayer)", () -> economy.isBankOwner(name, player));
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return timed("isBankMember(String, String)", () -> economy.isBankMember(name, playerName));
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, OfflinePlayer player) {
+        return timed("isBankMember(String, OfflinePlayer)", () -> economy.isBankMember(name, player));
+    }
+
+    @Override
+    public double bankBalanceFast(String name) {
+        return timed("bankBalanceFast(String)", () -> economy.bankBalanceFast(name));
+    }
+
+    @Override
+    public boolean bankHasFast(String name, double amount) {
+        return timed("bankHasFast(String, double)", () -> economy.bankHasFast(name, amount));
+    }
+
+    @Override
+    public boolean isBankOwnerFast(String name, OfflinePlayer player) {
+        return timed("isBankOwnerFast(String, OfflinePlayer)", () -> economy.isBankOwnerFast(name, player));
+    }
+
+    @Override
+    public boolean isBankMemberFast(String name, OfflinePlayer player) {
+        return timed("isBankMemberFast(String, OfflinePlayer)", () -> economy.isBankMemberFast(name, player));
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return timed("getBanks()", () -> economy.getBanks());
+    }
+
+    @Override
+    public List<BankBalance> getBankBalances(int offset, int limit) {
+        return timed("getBankBalances(int, int)", () -> economy.getBankBalances(offset, limit));
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        return timed("createPlayerAccount(String)", () -> economy.createPlayerAccount(playerName));
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        return timed("createPlayerAccount(OfflinePlayer)", () -> economy.createPlayerAccount(player));
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return timed("createPlayerAccount(String, String)", () -> economy.createPlayerAccount(playerName, worldName));
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player, String worldName) {
+        return timed("createPlayerAccount(OfflinePlayer, String)", () -> economy.createPlayerAccount(player, worldName));
+    }
+}
@@ -0,0 +1,112 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+/**
+ * Snapshot of the calls made to one {@link Economy} method by one caller, taken by {@link MeteredEconomy#snapshot()}.
+ * Latencies are in nanoseconds.
+ */
+public class MethodMetrics {
+
+    /**
+     * Caller the calls were made by
+     */
+    public final String caller;
+    /**
+     * Method signature, like getBalance(OfflinePlayer, String)
+     */
+    public final String method;
+    /**
+     * Number of completed calls
+     */
+    public final long calls;
+    /**
+     * Number of calls that threw an exception
+     */
+    public final long exceptions;
+    /**
+     * Mean latency
+     */
+    public final double meanLatency;
+    /**
+     * Median latency
+     */
+    public final long p50Latency;
+    /**
+     * 99th percentile latency
+     */
+    public final long p99Latency;
+    /**
+     * Largest latency
+     */
+    public final long maxLatency;
+
+    private final long[] responses;
+
+    /**
+     * Constructor for MethodMetrics
+     * @param caller Caller the calls were made by
+     * @param method Method signature
+     * @param calls Number of completed calls
+     * @param exceptions Number of calls that threw an exception
+     * @param responses Number of responses of each {@link ResponseType}, indexed by ordinal
+     * @param meanLatency Mean latency
+     * @param p50Latency Median latency
+     * @param p99Latency 99th percentile latency
+     * @param maxLatency Largest latency
+     */
+    public MethodMetrics(String caller, String method, long calls, long exceptions, long[] responses,
+            double meanLatency, long p50Latency, long p99Latency, long maxLatency) {
+        this.caller = caller;
+        this.method = method;
+        this.calls = calls;
+        this.exceptions = exceptions;
+        this.responses = responses.clone();
+        this.meanLatency = meanLatency;
+        this.p50Latency = p50Latency;
+        this.p99Latency = p99Latency;
+        this.maxLatency = maxLatency;
+    }
+
+    /**
+     * Gets the number of calls that returned a response of the given type.
+     * Only methods returning an {@link EconomyResponse} or filling an {@link EconomyResult} report response types.
+     * @param type of response
+     * @return number of responses
+     */
+    public long getResponses(ResponseType type) {
+        return responses[type.ordinal()];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append(caller).append(' ').append(method).append(": calls=").append(calls);
+        for (ResponseType type : ResponseType.values()) {
+            if (responses[type.ordinal()] > 0) {
+                builder.append(' ').append(type.name().toLowerCase()).append('=').append(responses[type.ordinal()]);
+            }
+        }
+        if (exceptions > 0) {
+            builder.append(" exceptions=").append(exceptions);
+        }
+        builder.append(String.format(" mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus",
+                meanLatency / 1000, p50Latency / 1000.0, p99Latency / 1000.0, maxLatency / 1000.0));
+        return builder.toString();
+    }
+}
@@ -0,0 +1,118 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+/**
+ * Conversions between currency amounts and fixed-point minor units.
+ * An amount in minor units is the amount multiplied by 10 to the power of the number of fractional digits,
+ * so with 2 digits, 12.34 is 1234 minor units.
+ */
+public final class MinorUnits {
+
+    /**
+     * Number of fractional digits used when an economy does not round ({@link Economy#fractionalDigits()} is -1)
+     */
+    public static final int DEFAULT_DIGITS = 2;
+
+    /**
+     * Largest supported number of fractional digits
+     */
+    public static final int MAX_DIGITS = 18;
+
+    private static final long[] SCALES = new long[MAX_DIGITS + 1];
+
+    static {
+        long scale = 1;
+        for (int i = 0; i <= MAX_DIGITS; i++) {
+            SCALES[i] = scale;
+            scale *= 10;
+        }
+    }
+
+    private MinorUnits() {
+    }
+
+    /**
+     * Gets the number of fractional digits minor units are scaled by for the given {@link Economy#fractionalDigits()}
+     * @param fractionalDigits as reported by the economy, or -1 if it does not round
+     * @return digits between 0 and {@link #MAX_DIGITS}
+     */
+    public static int digits(int fractionalDigits) {
+        if (fractionalDigits < 0) {
+            return DEFAULT_DIGITS;
+        }
+        return Math.min(fractionalDigits, MAX_DIGITS);
+    }
+
+    /**
+     * Gets the number of minor units in one whole unit of currency
+     * @param digits number of fractional digits, as returned by {@link #digits(int)}
+     * @return 10 to the power of digits
+     */
+    public static long scale(int digits) {
+        return SCALES[digits];
+    }
+
+    /**
+     * Converts an amount to minor units, rounding half away from zero to the nearest minor unit,
+     * so with 0 digits 2.5 becomes 3 and -2.5 becomes -3.
+     * Amounts beyond the range of a long in minor units saturate to {@link Long#MAX_VALUE} or {@link Long#MIN_VALUE}.
+     * @param amount to convert
+     * @param digits number of fractional digits, as returned by {@link #digits(int)}
+     * @return amount in minor units
+     * @throws IllegalArgumentException if the amount is NaN or infinite
+     */
+    public static long toMinor(double amount, int digits) {
+        if (Double.isNaN(amount) || Double.isInfinite(amount)) {
+            throw new IllegalArgumentException("Amount must be a finite number, got " + amount);
+        }
+        return saturate(amount * SCALES[digits]);
+    }
+
+    /**
+     * Converts an amount to minor units like {@link #toMinor(double, int)}, but never fails:
+     * infinite amounts saturate like amounts out of range, and NaN becomes 0
+     * @param amount to convert
+     * @param digits number of fractional digits, as returned by {@link #digits(int)}
+     * @return amount in minor units
+     */
+    static long toMinorClamped(double amount, int digits) {
+        if (Double.isNaN(amount)) {
+            return 0;
+        }
+        return saturate(amount * SCALES[digits]);
+    }
+
+    private static long saturate(double scaled) {
+        if (scaled >= Long.MAX_VALUE) {
+            return Long.MAX_VALUE;
+        }
+        if (scaled <= Long.MIN_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return scaled < 0 ? -Math.round(-scaled) : Math.round(scaled);
+    }
+
+    /**
+     * Converts an amount in minor units back to an amount of currency
+     * @param minor amount in minor units
+     * @param digits number of fractional digits, as returned by {@link #digits(int)}
+     * @return amount of currency
+     */
+    public static double toMajor(long minor, int digits) {
+        return (double) minor / SCALES[digits];
+    }
+}
@@ -0,0 +1,136 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.List;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * An {@link Economy} holding balances in several currencies.
+ * Currencies are resolved once with {@link #getCurrency(String)} and the resulting handle is passed to every
+ * balance operation, so implementations can index per-currency balances by {@link Currency#getId()} instead of
+ * looking names up on each call. The methods inherited from Economy operate on {@link #getDefaultCurrency()}.
+ */
+public interface MultiCurrencyEconomy extends Economy {
+
+    /**
+     * Gets the currency the single-currency methods of {@link Economy} operate on
+     * @return the default currency
+     */
+    public Currency getDefaultCurrency();
+
+    /**
+     * Gets a currency by name
+     * @param name of the currency, matched case-insensitively
+     * @return the currency, or null if the economy has no such currency
+     */
+    public Currency getCurrency(String name);
+
+    /**
+     * Gets every currency of the economy, ordered by id
+     * @return the currencies
+     */
+    public List<Currency> getCurrencies();
+
+    /**
+     * Gets balance of a player in a currency
+     * @param player of the player
+     * @param currency to get the balance in
+     * @return Amount currently held in players account
+     */
+    public default double getBalance(OfflinePlayer player, Currency currency) {
+        return getBalance(player, null, currency);
+    }
+
+    /**
+     * Gets balance of a player in a currency on the specified world.
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     * @param player to check
+     * @param world name of the world, or null for the global account
+     * @param currency to get the balance in
+     * @return Amount currently held in players account
+     */
+    public double getBalance(OfflinePlayer player, String world, Currency currency);
+
+    /**
+     * Checks if the player account has the amount in a currency - DO NOT USE NEGATIVE AMOUNTS
+     * @param player to check
+     * @param currency of the amount
+     * @param amount to check for
+     * @return True if <b>player</b> has <b>amount</b>, False else wise
+     */
+    public default boolean has(OfflinePlayer player, Currency currency, double amount) {
+        return has(player, null, currency, amount);
+    }
+
+    /**
+     * Checks if the player account has the amount in a currency on the specified world - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     * @param player to check
+     * @param worldName to check with, or null for the global account
+     * @param currency of the amount
+     * @param amount to check for
+     * @return True if <b>player</b> has <b>amount</b>, False else wise
+     */
+    public default boolean has(OfflinePlayer player, String worldName, Currency currency, double amount) {
+        return getBalance(player, worldName, currency) >= amount;
+    }
+
+    /**
+     * Withdraw an amount in a currency from a player - DO NOT USE NEGATIVE AMOUNTS
+     * @param player to withdraw from
+     * @param currency of the amount
+     * @param amount Amount to withdraw
+     * @return Detailed response of transaction
+     */
+    public default EconomyResponse withdrawPlayer(OfflinePlayer player, Currency currency, double amount) {
+        return withdrawPlayer(player, null, currency, amount);
+    }
+
+    /**
+     * Withdraw an amount in a currency from a player on a given world - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     * @param player to withdraw from
+     * @param worldName name of the world, or null for the global account
+     * @param currency of the amount
+     * @param amount Amount to withdraw
+     * @return Detailed response of transaction
+     */
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, Currency currency, double amount);
+
+    /**
+     * Deposit an amount in a currency to a player - DO NOT USE NEGATIVE AMOUNTS
+     * @param player to deposit to
+     * @param currency of the amount
+     * @param amount Amount to deposit
+     * @return Detailed response of transaction
+     */
+    public default EconomyResponse depositPlayer(OfflinePlayer player, Currency currency, double amount) {
+        return depositPlayer(player, null, currency, amount);
+    }
+
+    /**
+     * Deposit an amount in a currency to a player on a given world - DO NOT USE NEGATIVE AMOUNTS
+     * IMPLEMENTATION SPECIFIC - if an economy plugin does not support this the global balance will be returned.
+     * @param player to deposit to
+     * @param worldName name of the world, or null for the global account
+     * @param currency of the amount
+     * @param amount Amount to deposit
+     * @return Detailed response of transaction
+     */
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, Currency currency, double amount);
+}
@@ -0,0 +1,326 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Notifies listeners after every successful deposit, withdrawal and transfer made through this economy,
+ * with the balance before and after the change.
+ *
+ * Listeners subscribe with an executor that delivers their changes, for example one that runs tasks on the
+ * server main thread. Batched subscriptions collect changes until {@link #flush()} is called, typically from
+ * a task repeating every tick, and then receive one change per account with the balance before the first and
+ * after the last change of the batch.
+ *
+ * The old balance is derived from the new balance and the amount of the response. The response of a transfer only
+ * carries the sender's balance, so while anyone is subscribed transfers are made as a withdrawal and a deposit on the
+ * wrapped economy, like the default {@link Economy#transfer(OfflinePlayer, OfflinePlayer, double)}, and both are
+ * observed with their balances. The deprecated name based methods are not observed, since their accounts cannot be
+ * identified by UUID. When nobody is subscribed nothing extra is done and transfers are passed on as they are.
+ */
+public class ObservableEconomy extends ForwardingEconomy {
+
+    private static final Logger log = Logger.getLogger("Minecraft");
+
+    /**
+     * A listener registration, returned by the subscribe methods
+     */
+    public final class Subscription {
+        private final BalanceListener listener;
+        private final Executor executor;
+        private final boolean batched;
+
+        private Subscription(BalanceListener listener, Executor executor, boolean batched) {
+            this.listener = listener;
+            this.executor = executor;
+            this.batched = batched;
+        }
+
+        /**
+         * Stops delivering changes to the listener. Changes already handed to the executor are still delivered.
+         */
+        public void cancel() {
+            synchronized (subscriptions) {
+                subscriptions.remove(this);
+                updateBatched();
+            }
+        }
+
+        private void deliver(BalanceChange change) {
+            executor.execute(() -> {
+                try {
+                    listener.onBalanceChange(change);
+                } catch (RuntimeException e) {
+                    log.log(Level.SEVERE, "[Vault] Balance listener failed on " + change, e);
+                }
+            });
+        }
+
+        private void deliver(List<BalanceChange> changes) {
+            executor.execute(() -> {
+                try {
+                    listener.onBalanceChanges(changes);
+                } catch (RuntimeException e) {
+                    log.log(Level.SEVERE, "[Vault] Balance listener failed on a batch of " + changes.size() + " changes", e);
+                }
+            });
+        }
+    }
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<Subscription>();
+    private volatile boolean hasBatched;
+    // Keyed by AccountKey for players and by bank name for banks
+    private Map<Object, BalanceChange> pending = new LinkedHashMap<Object, BalanceChange>();
+
+    /**
+     * Constructor for ObservableEconomy
+     * @param economy to observe
+     */
+    public ObservableEconomy(Economy economy) {
+        super(economy);
+    }
+
+    /**
+     * Delivers every change to a listener as it happens
+     * @param listener to notify
+     * @param executor to deliver changes on, for example Runnable::run to deliver on the calling thread
+     * @return the subscription, to cancel it
+     */
+    public Subscription subscribe(BalanceListener listener, Executor executor) {
+        return subscribe(listener, executor, false);
+    }
+
+    /**
+     * Delivers the changes collected since the last {@link #flush()} to a listener, one per account
+     * @param listener to notify
+     * @param executor to deliver batches on
+     * @return the subscription, to cancel it
+     */
+    public Subscription subscribeBatched(BalanceListener listener, Executor executor) {
+        return subscribe(listener, executor, true);
+    }
+
+    private Subscription subscribe(BalanceListener listener, Executor executor, boolean batched) {
+        if (listener == null || executor == null) {
+            throw new IllegalArgumentException("Listener and executor cannot be null");
+        }
+        Subscription subscription = new Subscription(listener, executor, batched);
+        synchronized (subscriptions) {
+            subscriptions.add(subscription);
+            updateBatched();
+        }
+        return subscription;
+    }
+
+    // Called while holding the subscriptions monitor
+    private void updateBatched() {
+        boolean batched = false;
+        for (Subscription subscription : subscriptions) {
+            batched |= subscription.batched;
+        }
+        hasBatched = batched;
+    }
+
+    /**
+     * Hands the changes collected since the last flush to every batched subscription.
+     * Does nothing if there were no changes.
+     */
+    public void flush() {
+        Map<Object, BalanceChange> changes;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            changes = pending;
+            pending = new LinkedHashMap<Object, BalanceChange>();
+        }
+        List<BalanceChange> batch = Collections.unmodifiableList(new ArrayList<BalanceChange>(changes.values()));
+        for (Subscription subscription : subscriptions) {
+            if (subscription.batched) {
+                subscription.deliver(batch);
+            }
+        }
+    }
+
+    private void publish(Object key, BalanceChange change) {
+        for (Subscription subscription : subscriptions) {
+            if (!subscription.batched) {
+                subscription.deliver(change);
+            }
+        }
+        if (hasBatched) {
+            synchronized (this) {
+                BalanceChange previous = pending.get(key);
+                // A change with unknown balances is left out of a merge, so it cannot hide the known ones
+                if (previous != null && !change.isBalanceKnown()) {
+                    return;
+                }
+                if (previous != null) {
+                    change = new BalanceChange(change.player, change.bank, change.world, previous.oldBalance, change.newBalance);
+                }
+                pending.put(key, change);
+            }
+        }
+    }
+
+    private void publish(OfflinePlayer player, String world, double oldBalance, double newBalance) {
+        AccountKey key = AccountKey.of(player, world);
+        publish(key, new BalanceChange(key.id, null, world, oldBalance, newBalance));
+    }
+
+    private EconomyResponse publish(OfflinePlayer player, String world, EconomyResponse response, boolean withdraw) {
+        if (response.transactionSuccess() && !subscriptions.isEmpty()) {
+            publish(player, world, withdraw ? response.balance + response.amount : response.balance - response.amount, response.balance);
+        }
+        return response;
+    }
+
+    private boolean publish(OfflinePlayer player, String world, EconomyResult result, boolean withdraw) {
+        if (result.transactionSuccess() && !subscriptions.isEmpty()) {
+            publish(player, world, withdraw ? result.balance + result.amount : result.balance - result.amount, result.balance);
+        }
+        return result.transactionSuccess();
+    }
+
+    private EconomyResponse publish(String bank, EconomyResponse response, boolean withdraw) {
+        if (response.transactionSuccess() && !subscriptions.isEmpty()) {
+            double oldBalance = withdraw ? response.balance + response.amount : response.balance - response.amount;
+            publish(bank, new BalanceChange(null, bank, null, oldBalance, response.balance));
+        }
+        return response;
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return publish(player, null, economy.withdrawPlayer(player, amount), true);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+        return publish(player, worldName, economy.withdrawPlayer(player, worldName, amount), true);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return publish(player, null, economy.depositPlayer(player, amount), false);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, String worldName, double amount) {
+        return publish(player, worldName, economy.depositPlayer(player, worldName, amount), false);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayerMinor(OfflinePlayer player, long amount) {
+        return publish(player, null, economy.withdrawPlayerMinor(player, amount), true);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        return publish(player, worldName, economy.withdrawPlayerMinor(player, worldName, amount), true);
+    }
+
+    @Override
+    public EconomyResponse depositPlayerMinor(OfflinePlayer player, long amount) {
+        return publish(player, null, economy.depositPlayerMinor(player, amount), false);
+    }
+
+    @Override
+    public EconomyResponse depositPlayerMinor(OfflinePlayer player, String worldName, long amount) {
+        return publish(player, worldName, economy.depositPlayerMinor(player, worldName, amount), false);
+    }
+
+    @Override
+    public boolean withdrawPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        economy.withdrawPlayer(player, amount, result);
+        return publish(player, null, result, true);
+    }
+
+    @Override
+    public boolean withdrawPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        economy.withdrawPlayer(player, worldName, amount, result);
+        return publish(player, worldName, result, true);
+    }
+
+    @Override
+    public boolean depositPlayer(OfflinePlayer player, double amount, EconomyResult result) {
+        economy.depositPlayer(player, amount, result);
+        return publish(player, null, result, false);
+    }
+
+    @Override
+    public boolean depositPlayer(OfflinePlayer player, String worldName, double amount, EconomyResult result) {
+        economy.depositPlayer(player, worldName, amount, result);
+        return publish(player, worldName, result, false);
+    }
+
+    @Override
+    public EconomyResponse transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        if (subscriptions.isEmpty()) {
+            return economy.transfer(from, to, amount);
+        }
+        return observedTransfer(from, to, amount);
+    }
+
+    @Override
+    public List<EconomyResponse> transferAll(Collection<Transfer> transfers) {
+        if (subscriptions.isEmpty()) {
+            return economy.transferAll(transfers);
+        }
+        List<EconomyResponse> responses = new ArrayList<EconomyResponse>(transfers.size());
+        for (Transfer transfer : transfers) {
+            responses.add(observedTransfer(transfer.from, transfer.to, transfer.amount));
+        }
+        return responses;
+    }
+
+    // The default transfer, made through the observed methods so both accounts are published with their balances
+    private EconomyResponse observedTransfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        EconomyResponse withdrawal = withdrawPlayer(from, amount);
+        if (!withdrawal.transactionSuccess()) {
+            return withdrawal;
+        }
+        EconomyResponse deposit = depositPlayer(to, amount);
+        if (deposit.transactionSuccess()) {
+            return withdrawal;
+        }
+        EconomyResponse refund = depositPlayer(from, amount);
+        double balance = refund.transactionSuccess() ? refund.balance : withdrawal.balance;
+        return new EconomyResponse(0, balance, deposit.type, deposit.errorMessage);
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return publish(name, economy.bankWithdraw(name, amount), true);
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return publish(name, economy.bankDeposit(name, amount), false);
+    }
+}
@@ -0,0 +1,123 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Funds set aside by {@link Economy#hold(OfflinePlayer, String, double)}, to be either captured or released.
+ * A reservation moves out of {@link State#HELD} exactly once, even when several threads race to capture
+ * or release it. Only the Economy that created a reservation can capture or release it.
+ */
+public final class Reservation {
+
+    /**
+     * States of a reservation
+     */
+    public static enum State {
+        /**
+         * The hold failed and no funds were set aside
+         */
+        FAILED,
+        /**
+         * The funds are set aside and can be captured or released
+         */
+        HELD,
+        /**
+         * The funds were spent
+         */
+        CAPTURED,
+        /**
+         * The funds were returned to the player
+         */
+        RELEASED
+    }
+
+    final Economy owner;
+    private final OfflinePlayer player;
+    private final String world;
+    private final double amount;
+    private final EconomyResponse response;
+    private final AtomicReference<State> state;
+
+    Reservation(Economy owner, OfflinePlayer player, String world, double amount, EconomyResponse response) {
+        this.owner = owner;
+        this.player = player;
+        this.world = world;
+        this.amount = amount;
+        this.response = response;
+        this.state = new AtomicReference<State>(response.transactionSuccess() ? State.HELD : State.FAILED);
+    }
+
+    /**
+     * Gets the player whose funds are held
+     * @return the player
+     */
+    public OfflinePlayer getPlayer() {
+        return player;
+    }
+
+    /**
+     * Gets the world of the account funds are held on
+     * @return name of the world, or null for the global account
+     */
+    public String getWorld() {
+        return world;
+    }
+
+    /**
+     * Gets the amount held
+     * @return amount
+     */
+    public double getAmount() {
+        return amount;
+    }
+
+    /**
+     * Gets the response of the hold, holding the error message if it failed
+     * @return the response
+     */
+    public EconomyResponse getResponse() {
+        return response;
+    }
+
+    /**
+     * Gets the current state
+     * @return the state
+     */
+    public State getState() {
+        return state.get();
+    }
+
+    /**
+     * Checks if the funds are still held
+     * @return true if the reservation can be captured or released
+     */
+    public boolean isHeld() {
+        return state.get() == State.HELD;
+    }
+
+    boolean transition(State from, State to) {
+        return state.compareAndSet(from, to);
+    }
+
+    @Override
+    public String toString() {
+        return "Reservation of " + amount + " for " + player.getName() + (world == null ? "" : " in " + world) + ": " + state.get();
+    }
+}
@@ -0,0 +1,49 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * A single payment of an amount from one player to another, as used by {@link Economy#transferAll(java.util.Collection)}.
+ */
+public class Transfer {
+
+    /**
+     * Player the amount is withdrawn from
+     */
+    public final OfflinePlayer from;
+    /**
+     * Player the amount is deposited to
+     */
+    public final OfflinePlayer to;
+    /**
+     * Amount to move between the players
+     */
+    public final double amount;
+
+    /**
+     * Constructor for Transfer
+     * @param from Player to withdraw from
+     * @param to Player to deposit to
+     * @param amount Amount to move - DO NOT USE NEGATIVE AMOUNTS
+     */
+    public Transfer(OfflinePlayer from, OfflinePlayer to, double amount) {
+        this.from = from;
+        this.to = to;
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,83 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * A view of an {@link Economy} bound to one world, obtained from {@link Economy#forWorld(String)}.
+ * The world is resolved once when the view is created, so calls on the view skip the per-call lookup of the world name.
+ * Views are cheap and thread safe; keep one per world instead of looking it up for every transaction.
+ */
+public interface WorldEconomy {
+
+    /**
+     * Gets the economy this view belongs to
+     * @return the Economy
+     */
+    public Economy getEconomy();
+
+    /**
+     * Gets the name of the world this view is bound to
+     * @return name of the world, or null for the global accounts
+     */
+    public String getWorld();
+
+    /**
+     * Checks if this player has an account on the world
+     * @param player to check
+     * @return if the player has an account
+     */
+    public boolean hasAccount(OfflinePlayer player);
+
+    /**
+     * Attempts to create a player account for the given player on the world
+     * @param player OfflinePlayer
+     * @return if the account creation was successful
+     */
+    public boolean createPlayerAccount(OfflinePlayer player);
+
+    /**
+     * Gets balance of a player on the world
+     * @param player to check
+     * @return Amount currently held in players account
+     */
+    public double getBalance(OfflinePlayer player);
+
+    /**
+     * Checks if the player account has the amount on the world - DO NOT USE NEGATIVE AMOUNTS
+     * @param player to check
+     * @param amount to check for
+     * @return True if <b>player</b> has <b>amount</b>, False else wise
+     */
+    public boolean has(OfflinePlayer player, double amount);
+
+    /**
+     * Withdraw an amount from a player on the world - DO NOT USE NEGATIVE AMOUNTS
+     * @param player to withdraw from
+     * @param amount Amount to withdraw
+     * @return Detailed response of transaction
+     */
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount);
+
+    /**
+     * Deposit an amount to a player on the world - DO NOT USE NEGATIVE AMOUNTS
+     * @param player to deposit to
+     * @param amount Amount to deposit
+     * @return Detailed response of transaction
+     */
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount);
+}
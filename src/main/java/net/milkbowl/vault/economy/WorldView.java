@@ -0,0 +1,78 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import org.bukkit.OfflinePlayer;
+
+/**
+ * Default {@link WorldEconomy} that passes the world name to the world overloads of the {@link Economy},
+ * or calls the global methods when bound to no world.
+ */
+final class WorldView implements WorldEconomy {
+
+    private final Economy economy;
+    private final String world;
+
+    WorldView(Economy economy, String world) {
+        this.economy = economy;
+        this.world = world;
+    }
+
+    @Override
+    public Economy getEconomy() {
+        return economy;
+    }
+
+    @Override
+    public String getWorld() {
+        return world;
+    }
+
+    @Override
+    public boolean hasAccount(OfflinePlayer player) {
+        return world == null ? economy.hasAccount(player) : economy.hasAccount(player, world);
+    }
+
+    @Override
+    public boolean createPlayerAccount(OfflinePlayer player) {
+        return world == null ? economy.createPlayerAccount(player) : economy.createPlayerAccount(player, world);
+    }
+
+    @Override
+    public double getBalance(OfflinePlayer player) {
+        return world == null ? economy.getBalance(player) : economy.getBalance(player, world);
+    }
+
+    @Override
+    public boolean has(OfflinePlayer player, double amount) {
+        return world == null ? economy.has(player, amount) : economy.has(player, world, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+        return world == null ? economy.withdrawPlayer(player, amount) : economy.withdrawPlayer(player, world, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+        return world == null ? economy.depositPlayer(player, amount) : economy.depositPlayer(player, world, amount);
+    }
+
+    @Override
+    public String toString() {
+        return economy.getName() + "@" + world;
+    }
+}
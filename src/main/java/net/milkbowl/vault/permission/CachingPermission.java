@@ -0,0 +1,418 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.permission;
+
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+
+/**
+ * A {@link Permission} that remembers the results of {@link #playerHas(String, OfflinePlayer, String)} and its
+ * {@link PermissionNode} overload per player, world and node, so repeated checks are answered from memory
+ * without asking the wrapped provider.
+ *
+ * Results of a player are forgotten when that player's permissions or groups are changed through this object.
+ * Changes to groups and changes made by player name may affect any player, so they clear the whole cache.
+ * Changes made to the wrapped provider behind its back are not seen until {@link #invalidate(OfflinePlayer)}
+ * or {@link #invalidateAll()} is called, for example from the provider's own change events.
+ * When the cache holds more than the maximum number of results, the results of the players cached longest ago are
+ * forgotten until it fits again. Checks of a null node are passed to the wrapped provider and not cached.
+ */
+@SuppressWarnings("deprecation")
+public class CachingPermission extends Permission {
+
+    private final Permission permission;
+    private final int maxEntries;
+    private volatile Generation generation = new Generation();
+
+    // Results cached since the last invalidateAll, replaced as a whole so checks still running on the old one don't count
+    private static final class Generation {
+        final ConcurrentHashMap<UUID, PlayerChecks> players = new ConcurrentHashMap<UUID, PlayerChecks>();
+        // Players in the order they were first cached, for eviction
+        final Queue<PlayerChecks> order = new ConcurrentLinkedQueue<PlayerChecks>();
+        final AtomicInteger size = new AtomicInteger();
+    }
+
+    // Cached results of one player
+    private static final class PlayerChecks {
+        private static final int DETACHED = Integer.MIN_VALUE / 2;
+
+        final UUID id;
+        final ConcurrentHashMap<String, Boolean> global = new ConcurrentHashMap<String, Boolean>();
+        final ConcurrentHashMap<String, ConcurrentHashMap<String, Boolean>> worlds = new ConcurrentHashMap<String, ConcurrentHashMap<String, Boolean>>();
+        // Results held, or negative once removed from its generation so later results are not counted
+        final AtomicInteger count = new AtomicInteger();
+
+        PlayerChecks(UUID id) {
+            this.id = id;
+        }
+
+        boolean added() {
+            return count.incrementAndGet() > 0;
+        }
+
+        int detach() {
+            return Math.max(count.getAndSet(DETACHED), 0);
+        }
+
+        ConcurrentHashMap<String, Boolean> nodes(String world) {
+            if (world == null) {
+                return global;
+            }
+            ConcurrentHashMap<String, Boolean> nodes = worlds.get(world);
+            if (nodes == null) {
+                ConcurrentHashMap<String, Boolean> created = new ConcurrentHashMap<String, Boolean>();
+                nodes = worlds.putIfAbsent(world, created);
+                if (nodes == null) {
+                    nodes = created;
+                }
+            }
+            return nodes;
+        }
+    }
+
+    /**
+     * Constructor for CachingPermission
+     * @param permission to cache the checks of
+     * @param maxEntries number of results to remember at most
+     */
+    public CachingPermission(Permission permission, int maxEntries) {
+        if (permission == null) {
+            throw new IllegalArgumentException("Permission cannot be null");
+        }
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Max entries must be positive");
+        }
+        this.permission = permission;
+        this.maxEntries = maxEntries;
+        this.plugin = permission.plugin;
+    }
+
+    /**
+     * Gets the permission provider checks are cached for
+     * @return the wrapped Permission
+     */
+    public Permission getDelegate() {
+        return permission;
+    }
+
+    /**
+     * Forgets every cached result of a player
+     * @param player to forget
+     */
+    public void invalidate(OfflinePlayer player) {
+        Generation current = generation;
+        PlayerChecks checks = current.players.get(player.getUniqueId());
+        if (checks != null && remove(current, checks)) {
+            current.order.remove(checks);
+        }
+    }
+
+    /**
+     * Forgets every cached result
+     */
+    public void invalidateAll() {
+        generation = new Generation();
+    }
+
+    /**
+     * Gets the number of cached results
+     * @return number of results
+     */
+    public int size() {
+        return Math.max(generation.size.get(), 0);
+    }
+
+    private boolean remove(Generation current, PlayerChecks checks) {
+        if (!current.players.remove(checks.id, checks)) {
+            return false;
+        }
+        current.size.addAndGet(-checks.detach());
+        return true;
+    }
+
+    // Forgets the players cached longest ago until the results fit
+    private void evict(Generation current) {
+        PlayerChecks eldest;
+        while (current.size.get() > maxEntries && (eldest = current.order.poll()) != null) {
+            remove(current, eldest);
+        }
+    }
+
+    @Override
+    public boolean playerHas(String world, OfflinePlayer player, String permission) {
+        if (permission == null) {
+            return this.permission.playerHas(world, player, permission);
+        }
+        return check(world, player, permission, null);
+    }
+
+    @Override
+    public boolean playerHas(String world, OfflinePlayer player, PermissionNode node) {
+        if (node == null) {
+            return this.permission.playerHas(world, player, node);
+        }
+        checkNode(node);
+        return check(world, player, node.getName(), node);
+    }
+
+    private boolean check(String world, OfflinePlayer player, String permission, PermissionNode node) {
+        Generation current = generation;
+        UUID id = player.getUniqueId();
+        PlayerChecks checks = current.players.get(id);
+        if (checks == null) {
+            PlayerChecks created = new PlayerChecks(id);
+            checks = current.players.putIfAbsent(id, created);
+            if (checks == null) {
+                checks = created;
+                current.order.add(created);
+            }
+        }
+        ConcurrentHashMap<String, Boolean> nodes = checks.nodes(world);
+        Boolean cached = nodes.get(permission);
+        if (cached != null) {
+            return cached;
+        }
+        boolean result = node == null ? this.permission.playerHas(world, player, permission) : this.permission.playerHas(world, player, node);
+        // An invalidation during the check detaches the map, so a stale result is never seen nor counted
+        if (nodes.putIfAbsent(permission, result) == null && checks.added() && current.size.incrementAndGet() > maxEntries) {
+            evict(current);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the handle of a permission node from the wrapped provider, so its ids stay meaningful to it
+     */
+    @Override
+    public PermissionNode node(String permission) {
+        return this.permission.node(permission);
+    }
+
+    @Override
+    public int nodeCount() {
+        return permission.nodeCount();
+    }
+
+    /**
+     * Checks if a node handle was handed out by the wrapped provider, which this hands out nodes from
+     */
+    @Override
+    public boolean owns(PermissionNode node) {
+        return permission.owns(node);
+    }
+
+    @Override
+    public String getName() {
+        return permission.getName();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return permission.isEnabled();
+    }
+
+    @Override
+    public boolean hasSuperPermsCompat() {
+        return permission.hasSuperPermsCompat();
+    }
+
+    @Override
+    public boolean playerHas(String world, String player, String permission) {
+        return this.permission.playerHas(world, player, permission);
+    }
+
+    @Override
+    public boolean playerAdd(String world, String player, String permission) {
+        boolean result = this.permission.playerAdd(world, player, permission);
+        invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean playerAdd(String world, OfflinePlayer player, String permission) {
+        boolean result = this.permission.playerAdd(world, player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerAddTransient(OfflinePlayer player, String permission) throws UnsupportedOperationException {
+        boolean result = this.permission.playerAddTransient(player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerAddTransient(Player player, String permission) {
+        boolean result = this.permission.playerAddTransient(player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerAddTransient(String worldName, OfflinePlayer player, String permission) {
+        boolean result = this.permission.playerAddTransient(worldName, player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerAddTransient(String worldName, Player player, String permission) {
+        boolean result = this.permission.playerAddTransient(worldName, player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerRemoveTransient(String worldName, OfflinePlayer player, String permission) {
+        boolean result = this.permission.playerRemoveTransient(worldName, player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerRemoveTransient(String worldName, Player player, String permission) {
+        boolean result = this.permission.playerRemoveTransient(worldName, player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerRemove(String world, String player, String permission) {
+        boolean result = this.permission.playerRemove(world, player, permission);
+        invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean playerRemove(String world, OfflinePlayer player, String permission) {
+        boolean result = this.permission.playerRemove(world, player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerRemoveTransient(OfflinePlayer player, String permission) {
+        boolean result = this.permission.playerRemoveTransient(player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerRemoveTransient(Player player, String permission) {
+        boolean result = this.permission.playerRemoveTransient(player, permission);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean groupHas(String world, String group, String permission) {
+        return this.permission.groupHas(world, group, permission);
+    }
+
+    @Override
+    public boolean groupHas(String world, String group, PermissionNode node) {
+        return permission.groupHas(world, group, node);
+    }
+
+    @Override
+    public boolean groupAdd(String world, String group, String permission) {
+        boolean result = this.permission.groupAdd(world, group, permission);
+        invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean groupRemove(String world, String group, String permission) {
+        boolean result = this.permission.groupRemove(world, group, permission);
+        invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean playerInGroup(String world, String player, String group) {
+        return permission.playerInGroup(world, player, group);
+    }
+
+    @Override
+    public boolean playerInGroup(String world, OfflinePlayer player, String group) {
+        return permission.playerInGroup(world, player, group);
+    }
+
+    @Override
+    public boolean playerAddGroup(String world, String player, String group) {
+        boolean result = permission.playerAddGroup(world, player, group);
+        invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean playerAddGroup(String world, OfflinePlayer player, String group) {
+        boolean result = permission.playerAddGroup(world, player, group);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public boolean playerRemoveGroup(String world, String player, String group) {
+        boolean result = permission.playerRemoveGroup(world, player, group);
+        invalidateAll();
+        return result;
+    }
+
+    @Override
+    public boolean playerRemoveGroup(String world, OfflinePlayer player, String group) {
+        boolean result = permission.playerRemoveGroup(world, player, group);
+        invalidate(player);
+        return result;
+    }
+
+    @Override
+    public String[] getPlayerGroups(String world, String player) {
+        return permission.getPlayerGroups(world, player);
+    }
+
+    @Override
+    public String[] getPlayerGroups(String world, OfflinePlayer player) {
+        return permission.getPlayerGroups(world, player);
+    }
+
+    @Override
+    public String getPrimaryGroup(String world, String player) {
+        return permission.getPrimaryGroup(world, player);
+    }
+
+    @Override
+    public String getPrimaryGroup(String world, OfflinePlayer player) {
+        return permission.getPrimaryGroup(world, player);
+    }
+
+    @Override
+    public String[] getGroups() {
+        return permission.getGroups();
+    }
+
+    @Override
+    public boolean hasGroupSupport() {
+        return permission.hasGroupSupport();
+    }
+}
@@ -15,6 +15,8 @@
  */
 package net.milkbowl.vault.permission;
 
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Logger;
 
 import org.bukkit.OfflinePlayer;
@@ -33,6 +35,7 @@ public abstract class Permission {
 
 	protected static final Logger log = Logger.getLogger("Minecraft");
     protected Plugin plugin = null;
+    private final ConcurrentHashMap<String, PermissionNode> nodes = new ConcurrentHashMap<String, PermissionNode>();
 
     /**
      * Gets name of permission method
@@ -51,6 +54,56 @@ public abstract class Permission {
      * @return True if this permission implementation works with super-perms
      */
     abstract public boolean hasSuperPermsCompat();
+
+    /**
+     * Gets the handle of a permission node, to check it many times without resolving its name every time.
+     * The same handle is returned for every spelling of the node that differs only in case.
+     * @param permission Permission node
+     * @return the PermissionNode
+     */
+    public PermissionNode node(String permission) {
+        String key = permission.toLowerCase(Locale.ROOT);
+        PermissionNode node = nodes.get(key);
+        if (node == null) {
+            synchronized (nodes) {
+                node = nodes.get(key);
+                if (node == null) {
+                    node = new PermissionNode(this, nodes.size(), permission);
+                    nodes.put(key, node);
+                }
+            }
+        }
+        return node;
+    }
+
+    /**
+     * Gets the number of nodes handed out by {@link #node(String)}, so providers can size arrays indexed by node id
+     * @return number of nodes
+     */
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    /**
+     * Checks if a node handle was handed out by this Permission, so its id is meaningful here
+     * @param node Permission node handle
+     * @return true if the node belongs to this Permission
+     */
+    public boolean owns(PermissionNode node) {
+        return node.owner == this;
+    }
+
+    /**
+     * Rejects a node handle handed out by another Permission.
+     * Providers overriding the {@link PermissionNode} overloads should call this before using the node id.
+     * @param node Permission node handle
+     * @throws IllegalArgumentException if the node does not belong to this Permission
+     */
+    protected void checkNode(PermissionNode node) {
+        if (!owns(node)) {
+            throw new IllegalArgumentException("Permission node " + node + " does not belong to " + getName());
+        }
+    }
     
     /**
      * @deprecated As of VaultAPI 1.4 use {@link #playerHas(String, OfflinePlayer, String)} instead.
@@ -145,6 +198,37 @@ public abstract class Permission {
         return has(player, permission);
     }
 
+    /**
+     * Checks if player has a permission node.
+     * Supports NULL value for World if the permission system registered supports global permissions.
+     * Providers able to do so should override this to answer from the node id; the default checks the node name.
+     * 
+     * @param world String world name
+     * @param player to check
+     * @param node Permission node handle from {@link #node(String)}
+     * @return Success or Failure
+     */
+    public boolean playerHas(String world, OfflinePlayer player, PermissionNode node) {
+        checkNode(node);
+        return playerHas(world, player, node.getName());
+    }
+
+    /**
+     * Checks if player has a permission node on a world.
+     * Supports NULL value for World if the permission system registered supports global permissions.
+     * 
+     * @param world World Object
+     * @param player Player Object
+     * @param node Permission node handle from {@link #node(String)}
+     * @return Success or Failure
+     */
+    public boolean playerHas(World world, Player player, PermissionNode node) {
+        if (world == null) {
+            return playerHas((String) null, player, node);
+        }
+        return playerHas(world.getName(), player, node);
+    }
+
     /**
      * @deprecated As of VaultAPI 1.4 use {@link #playerAdd(String, OfflinePlayer, String)} instead.
      * Add permission to a player.
@@ -408,6 +492,21 @@ public abstract class Permission {
         return groupHas(world.getName(), group, permission);
     }
 
+    /**
+     * Checks if group has a permission node.
+     * Supports NULL value for World if the permission system registered supports global permissions.
+     * Providers able to do so should override this to answer from the node id; the default checks the node name.
+     * 
+     * @param world World name
+     * @param group Group name
+     * @param node Permission node handle from {@link #node(String)}
+     * @return Success or Failure
+     */
+    public boolean groupHas(String world, String group, PermissionNode node) {
+        checkNode(node);
+        return groupHas(world, group, node.getName());
+    }
+
     /**
      * Add permission to a group.
      * Supports NULL value for World if the permission system registered supports global permissions.
@@ -0,0 +1,56 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.permission;
+
+/**
+ * A permission node resolved once with {@link Permission#node(String)}, to be checked many times.
+ * Each node gets a dense integer id from the Permission that created it, starting at 0, so providers can
+ * answer checks from arrays or bitsets indexed by id instead of hashing the node name every time.
+ * Ids are only meaningful to the Permission that created the node, which rejects handles created by any other.
+ */
+public final class PermissionNode {
+
+    final Permission owner;
+    private final int id;
+    private final String name;
+
+    PermissionNode(Permission owner, int id, String name) {
+        this.owner = owner;
+        this.id = id;
+        this.name = name;
+    }
+
+    /**
+     * Gets the id of this node, unique within the Permission that created it
+     * @return id between 0 and {@link Permission#nodeCount()} - 1
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Gets the name of this node
+     * @return the permission node name
+     */
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,274 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.permission;
+
+/**
+ * Evaluates permission nodes against a set of granted and negated nodes by walking a tree of node segments,
+ * for use by {@link Permission} implementations that keep a node list per player or group.
+ *
+ * Nodes are split on '.' and matched case-insensitively. A node starting with '-' is negated, and a node ending
+ * with '*' applies to every node below it, so <code>essentials.*</code> matches <code>essentials.give</code>
+ * but not <code>essentials</code> itself. A lone <code>*</code> matches every node.
+ * The most specific node wins: an exact node over any wildcard, and a deeper wildcard over a shallower one.
+ * Looking a node up takes one step per segment and does not allocate.
+ *
+ * Not safe for concurrent modification: change a trie from one thread, or build a new one and publish it
+ * in place of the old one. Lookups may run concurrently with each other.
+ */
+public final class PermissionTrie {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private static final class Node {
+        final String segment;
+        final int hash;
+        // Value of the node itself, and of every node below it through a wildcard
+        Boolean value;
+        Boolean any;
+        Node[] children;
+        int count;
+
+        Node(String segment, int hash) {
+            this.segment = segment;
+            this.hash = hash;
+        }
+
+        Node find(String node, int start, int end, int hash) {
+            Node[] table = children;
+            if (table == null) {
+                return null;
+            }
+            int mask = table.length - 1;
+            for (int i = hash & mask; ; i = (i + 1) & mask) {
+                Node child = table[i];
+                if (child == null) {
+                    return null;
+                }
+                if (child.hash == hash && matches(child.segment, node, start, end)) {
+                    return child;
+                }
+            }
+        }
+
+        Node findOrCreate(String node, int start, int end, int hash) {
+            Node child = find(node, start, end, hash);
+            if (child == null) {
+                if (children == null) {
+                    children = new Node[INITIAL_CAPACITY];
+                } else if ((count + 1) * 4 > children.length * 3) {
+                    Node[] old = children;
+                    children = new Node[old.length * 2];
+                    for (Node moved : old) {
+                        if (moved != null) {
+                            insert(moved);
+                        }
+                    }
+                }
+                child = new Node(node.substring(start, end), hash);
+                insert(child);
+                count++;
+            }
+            return child;
+        }
+
+        private void insert(Node child) {
+            int mask = children.length - 1;
+            int i = child.hash & mask;
+            while (children[i] != null) {
+                i = (i + 1) & mask;
+            }
+            children[i] = child;
+        }
+    }
+
+    private final Node root = new Node("", 0);
+    private int size;
+
+    private static int hash(String node, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(node.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean matches(String segment, String node, int start, int end) {
+        if (segment.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < segment.length(); i++) {
+            if (Character.toLowerCase(segment.charAt(i)) != Character.toLowerCase(node.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWildcard(String node, int start, int end) {
+        return end - start == 1 && node.charAt(start) == '*';
+    }
+
+    /**
+     * Adds a node, granted or negated by a leading '-'
+     * @param node to add
+     */
+    public void add(String node) {
+        if (node.startsWith("-")) {
+            put(node.substring(1), false);
+        } else {
+            put(node, true);
+        }
+    }
+
+    /**
+     * Adds every node of a list, granted or negated by a leading '-'
+     * @param nodes to add
+     */
+    public void addAll(Iterable<String> nodes) {
+        for (String node : nodes) {
+            add(node);
+        }
+    }
+
+    /**
+     * Sets the value of a node, replacing any previous value
+     * @param node to set, ending with '*' to set every node below it
+     * @param value true to grant the node, false to negate it
+     */
+    public void put(String node, boolean value) {
+        Node current = root;
+        int start = 0;
+        while (true) {
+            int end = node.indexOf('.', start);
+            if (end < 0) {
+                end = node.length();
+            }
+            boolean last = end == node.length();
+            if (last && isWildcard(node, start, end)) {
+                if (current.any == null) {
+                    size++;
+                }
+                current.any = value;
+                return;
+            }
+            current = current.findOrCreate(node, start, end, hash(node, start, end));
+            if (last) {
+                if (current.value == null) {
+                    size++;
+                }
+                current.value = value;
+                return;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Removes a node, whether it was granted or negated
+     * @param node to remove, with or without a leading '-'
+     * @return true if the node was present
+     */
+    public boolean remove(String node) {
+        Node current = root;
+        int start = node.startsWith("-") ? 1 : 0;
+        while (true) {
+            int end = node.indexOf('.', start);
+            if (end < 0) {
+                end = node.length();
+            }
+            boolean last = end == node.length();
+            if (last && isWildcard(node, start, end)) {
+                Boolean old = current.any;
+                current.any = null;
+                return forget(old);
+            }
+            current = current.find(node, start, end, hash(node, start, end));
+            if (current == null) {
+                return false;
+            }
+            if (last) {
+                Boolean old = current.value;
+                current.value = null;
+                return forget(old);
+            }
+            start = end + 1;
+        }
+    }
+
+    private boolean forget(Boolean old) {
+        if (old == null) {
+            return false;
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the value of the most specific node matching a permission
+     * @param permission to evaluate, without wildcards
+     * @return true if granted, false if negated, or null if no node matches
+     */
+    public Boolean getValue(String permission) {
+        Node current = root;
+        Boolean best = null;
+        int start = 0;
+        while (true) {
+            if (current.any != null) {
+                best = current.any;
+            }
+            int end = permission.indexOf('.', start);
+            if (end < 0) {
+                end = permission.length();
+            }
+            current = current.find(permission, start, end, hash(permission, start, end));
+            if (current == null) {
+                return best;
+            }
+            if (end == permission.length()) {
+                return current.value != null ? current.value : best;
+            }
+            start = end + 1;
+        }
+    }
+
+    /**
+     * Checks if a permission is granted
+     * @param permission to check
+     * @return true if the most specific matching node grants it, false if it is negated or no node matches
+     */
+    public boolean has(String permission) {
+        return Boolean.TRUE.equals(getValue(permission));
+    }
+
+    /**
+     * Gets the number of nodes, counting wildcards
+     * @return number of nodes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every node
+     */
+    public void clear() {
+        root.value = null;
+        root.any = null;
+        root.children = null;
+        root.count = 0;
+        size = 0;
+    }
+}
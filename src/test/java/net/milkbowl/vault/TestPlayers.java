@@ -0,0 +1,117 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import org.bukkit.OfflinePlayer;
+import org.bukkit.entity.Player;
+
+/**
+ * Players for tests, without a running server.
+ */
+public final class TestPlayers {
+
+    private TestPlayers() {
+    }
+
+    /**
+     * Creates an offline player with a random UUID
+     * @return the player
+     */
+    public static OfflinePlayer offline() {
+        return offline(UUID.randomUUID());
+    }
+
+    /**
+     * Creates an offline player
+     * @param id of the player
+     * @return the player
+     */
+    public static OfflinePlayer offline(UUID id) {
+        return (OfflinePlayer) create(OfflinePlayer.class, id, "player-" + id.toString().substring(0, 8), false);
+    }
+
+    /**
+     * Creates an offline player with a name, and the UUID an offline mode server gives that name
+     * @param name of the player
+     * @return the player
+     */
+    public static OfflinePlayer offline(String name) {
+        UUID id = UUID.nameUUIDFromBytes(("OfflinePlayer:" + name).getBytes(StandardCharsets.UTF_8));
+        return offline(id, name);
+    }
+
+    /**
+     * Creates an offline player with the given UUID and name
+     * @param id of the player
+     * @param name of the player, or null for a player the server has never seen
+     * @return the player
+     */
+    public static OfflinePlayer offline(UUID id, String name) {
+        return (OfflinePlayer) create(OfflinePlayer.class, id, name, false);
+    }
+
+    /**
+     * Creates an online player with a random UUID
+     * @return the player
+     */
+    public static Player online() {
+        UUID id = UUID.randomUUID();
+        return (Player) create(Player.class, id, "player-" + id.toString().substring(0, 8), true);
+    }
+
+    private static Object create(Class<?> type, UUID id, String name, boolean online) {
+        return Proxy.newProxyInstance(TestPlayers.class.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "getUniqueId":
+                return id;
+            case "getName":
+            case "toString":
+                return name;
+            case "isOnline":
+                return online;
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            default:
+                return zero(method.getReturnType());
+            }
+        });
+    }
+
+    private static Object zero(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        if (type == double.class) {
+            return 0.0;
+        }
+        if (type == float.class) {
+            return 0.0f;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import org.bukkit.Bukkit;
+import org.bukkit.OfflinePlayer;
+import org.bukkit.Server;
+
+/**
+ * A server for tests that only knows players, so the name and UUID lookups of {@link Bukkit} work.
+ * Players are known once registered, or once looked up by name; other UUIDs resolve to players without a name.
+ */
+public final class TestServer {
+
+    private static final Map<UUID, OfflinePlayer> players = new ConcurrentHashMap<UUID, OfflinePlayer>();
+
+    private TestServer() {
+    }
+
+    /**
+     * Installs the server, unless one is installed already
+     */
+    public static synchronized void install() {
+        if (Bukkit.getServer() != null) {
+            return;
+        }
+        Server server = (Server) Proxy.newProxyInstance(TestServer.class.getClassLoader(), new Class<?>[] { Server.class }, (proxy, method, args) -> {
+            switch (method.getName()) {
+            case "getLogger":
+                return Logger.getLogger("Minecraft");
+            case "getName":
+            case "getVersion":
+            case "getBukkitVersion":
+                return "Test";
+            case "getOfflinePlayer":
+                if (args[0] instanceof UUID) {
+                    OfflinePlayer player = players.get(args[0]);
+                    return player != null ? player : TestPlayers.offline((UUID) args[0], null);
+                }
+                return register(TestPlayers.offline((String) args[0]));
+            case "getOfflinePlayers":
+                return players.values().toArray(new OfflinePlayer[0]);
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "equals":
+                return proxy == args[0];
+            case "toString":
+                return "TestServer";
+            default:
+                throw new UnsupportedOperationException(method.getName());
+            }
+        });
+        Bukkit.setServer(server);
+    }
+
+    /**
+     * Makes a player known to the server, keeping the player already known by that UUID
+     * @param player to register
+     * @return the known player
+     */
+    public static OfflinePlayer register(OfflinePlayer player) {
+        OfflinePlayer known = players.putIfAbsent(player.getUniqueId(), player);
+        return known != null ? known : player;
+    }
+
+    /**
+     * Forgets every registered player
+     */
+    public static void clear() {
+        players.clear();
+    }
+}
@@ -0,0 +1,253 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.TestServer;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+public class AbstractEconomyTest {
+
+    private NameEconomy economy;
+    private OfflinePlayer player;
+
+    @Before
+    public void setUp() {
+        TestServer.install();
+        economy = new NameEconomy();
+        player = TestServer.register(TestPlayers.offline("alice"));
+    }
+
+    @Test
+    public void uuidMethodsFallBackToNames() {
+        assertFalse(economy.hasAccount(player));
+        assertTrue(economy.createPlayerAccount(player));
+        assertTrue(economy.hasAccount(player));
+        assertEquals(ResponseType.SUCCESS, economy.depositPlayer(player, 10).type);
+        assertEquals(ResponseType.SUCCESS, economy.withdrawPlayer(player, 4).type);
+        assertEquals(6, economy.getBalance(player), 0);
+        assertEquals(6, economy.getBalance("alice"), 0);
+    }
+
+    @Test
+    public void worldMethodsFallBackToWorldNames() {
+        assertTrue(economy.createPlayerAccount(player, "nether"));
+        assertTrue(economy.hasAccount(player, "nether"));
+        assertFalse(economy.hasAccount(player));
+        economy.depositPlayer(player, "nether", 3);
+        assertEquals(3, economy.getBalance("alice", "nether"), 0);
+        assertEquals(3, economy.getBalance(player, "nether"), 0);
+    }
+
+    @Test
+    public void unknownNameHasNoAccount() {
+        OfflinePlayer unknown = TestPlayers.offline();
+        assertFalse(economy.hasAccount(unknown.getUniqueId(), null));
+        assertEquals(0, economy.getBalance(unknown.getUniqueId()), 0);
+        assertFalse(economy.has(unknown.getUniqueId(), "nether", 0));
+        assertTrue(economy.calls.isEmpty());
+    }
+
+    @Test
+    public void hasFallsBackToTheNameBasedHas() {
+        economy.createPlayerAccount(player, "nether");
+        economy.depositPlayer(player, "nether", 3);
+        assertTrue(economy.has(player, "nether", 3));
+        assertFalse(economy.has(player, 1));
+        assertEquals(2, economy.hasChecks);
+    }
+
+    // Keeps accounts by name, and says it supports UUIDs without overriding a UUID method
+    @SuppressWarnings("deprecation")
+    private static final class NameEconomy extends AbstractEconomy {
+
+        private final Map<String, Double> accounts = new HashMap<String, Double>();
+        private final List<String> calls = new ArrayList<String>();
+        private int hasChecks;
+
+        private String key(String name, String world) {
+            calls.add(name);
+            return world == null ? name : name + "@" + world;
+        }
+
+        @Override
+        public boolean hasUuidSupport() {
+            return true;
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+
+        @Override
+        public String getName() {
+            return "Names";
+        }
+
+        @Override
+        public boolean hasBankSupport() {
+            return false;
+        }
+
+        @Override
+        public int fractionalDigits() {
+            return 2;
+        }
+
+        @Override
+        public String format(double amount) {
+            return String.valueOf(amount);
+        }
+
+        @Override
+        public String currencyNamePlural() {
+            return "coins";
+        }
+
+        @Override
+        public String currencyNameSingular() {
+            return "coin";
+        }
+
+        @Override
+        public boolean hasAccount(String playerName) {
+            return hasAccount(playerName, null);
+        }
+
+        @Override
+        public boolean hasAccount(String playerName, String worldName) {
+            return accounts.containsKey(key(playerName, worldName));
+        }
+
+        @Override
+        public double getBalance(String playerName) {
+            return getBalance(playerName, null);
+        }
+
+        @Override
+        public double getBalance(String playerName, String world) {
+            Double balance = accounts.get(key(playerName, world));
+            return balance == null ? 0 : balance;
+        }
+
+        @Override
+        public boolean has(String playerName, double amount) {
+            hasChecks++;
+            return getBalance(playerName) >= amount;
+        }
+
+        @Override
+        public boolean has(String playerName, String worldName, double amount) {
+            hasChecks++;
+            return getBalance(playerName, worldName) >= amount;
+        }
+
+        @Override
+        public EconomyResponse withdrawPlayer(String playerName, double amount) {
+            return withdrawPlayer(playerName, null, amount);
+        }
+
+        @Override
+        public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+            return depositPlayer(playerName, worldName, -amount);
+        }
+
+        @Override
+        public EconomyResponse depositPlayer(String playerName, double amount) {
+            return depositPlayer(playerName, null, amount);
+        }
+
+        @Override
+        public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+            String key = key(playerName, worldName);
+            Double balance = accounts.get(key);
+            if (balance == null) {
+                return new EconomyResponse(amount, 0, ResponseType.FAILURE, "Account does not exist");
+            }
+            accounts.put(key, balance + amount);
+            return new EconomyResponse(amount, balance + amount, ResponseType.SUCCESS, null);
+        }
+
+        @Override
+        public boolean createPlayerAccount(String playerName) {
+            return createPlayerAccount(playerName, null);
+        }
+
+        @Override
+        public boolean createPlayerAccount(String playerName, String worldName) {
+            return accounts.putIfAbsent(key(playerName, worldName), 0.0) == null;
+        }
+
+        @Override
+        public EconomyResponse createBank(String name, String player) {
+            return TestEconomy.NO_BANKS;
+        }
+
+        @Override
+        public EconomyResponse deleteBank(String name) {
+            return TestEconomy.NO_BANKS;
+        }
+
+        @Override
+        public EconomyResponse bankBalance(String name) {
+            return TestEconomy.NO_BANKS;
+        }
+
+        @Override
+        public EconomyResponse bankHas(String name, double amount) {
+            return TestEconomy.NO_BANKS;
+        }
+
+        @Override
+        public EconomyResponse bankWithdraw(String name, double amount) {
+            return TestEconomy.NO_BANKS;
+        }
+
+        @Override
+        public EconomyResponse bankDeposit(String name, double amount) {
+            return TestEconomy.NO_BANKS;
+        }
+
+        @Override
+        public EconomyResponse isBankOwner(String name, String playerName) {
+            return TestEconomy.NO_BANKS;
+        }
+
+        @Override
+        public EconomyResponse isBankMember(String name, String playerName) {
+            return TestEconomy.NO_BANKS;
+        }
+
+        @Override
+        public List<String> getBanks() {
+            return new ArrayList<String>();
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.TestServer;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AccountIndexEconomyTest {
+
+    // Counts the hasAccount calls reaching the wrapped economy, optionally running a task after each
+    private static final class CountingEconomy extends ForwardingEconomy {
+        final AtomicInteger lookups = new AtomicInteger();
+        Runnable after;
+
+        CountingEconomy(Economy economy) {
+            super(economy);
+        }
+
+        @Override
+        public boolean hasAccount(OfflinePlayer player) {
+            lookups.incrementAndGet();
+            boolean exists = super.hasAccount(player);
+            if (after != null) {
+                after.run();
+            }
+            return exists;
+        }
+    }
+
+    private MemoryEconomy backend;
+    private CountingEconomy counting;
+    private OfflinePlayer alice;
+    private OfflinePlayer bob;
+    private OfflinePlayer carol;
+
+    @Before
+    public void setUp() {
+        backend = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        counting = new CountingEconomy(backend);
+        alice = TestPlayers.offline();
+        bob = TestPlayers.offline();
+        carol = TestPlayers.offline();
+    }
+
+    @Test
+    public void existingAccountIsRemembered() {
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100);
+        backend.createPlayerAccount(alice);
+        assertTrue(index.hasAccount(alice));
+        assertTrue(index.hasAccount(alice));
+        assertEquals(1, counting.lookups.get());
+    }
+
+    @Test
+    public void rememberedAccountsAreBounded() {
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100, 1, 0, 0, TimeUnit.SECONDS);
+        backend.createPlayerAccount(alice);
+        backend.createPlayerAccount(bob);
+        index.hasAccount(alice);
+        index.hasAccount(bob);
+        // Alice was dropped for Bob, so she is looked up again
+        assertTrue(index.hasAccount(alice));
+        assertEquals(3, counting.lookups.get());
+    }
+
+    @Test
+    public void createdAccountIsRemembered() {
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100);
+        assertTrue(index.createPlayerAccount(alice));
+        assertTrue(index.hasAccount(alice));
+        assertEquals(0, counting.lookups.get());
+    }
+
+    @Test
+    public void missingAccountIsRememberedUntilCreated() {
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100, 10, 1, TimeUnit.MINUTES);
+        assertFalse(index.hasAccount(alice));
+        assertFalse(index.hasAccount(alice));
+        assertEquals(1, counting.lookups.get());
+        index.createPlayerAccount(alice);
+        assertTrue(index.hasAccount(alice));
+    }
+
+    @Test
+    public void fullNegativeCacheDropsOldestMiss() {
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100, 2, 1, TimeUnit.MINUTES);
+        index.hasAccount(alice);
+        index.hasAccount(bob);
+        index.hasAccount(carol);
+        assertEquals(3, counting.lookups.get());
+        index.hasAccount(bob);
+        index.hasAccount(carol);
+        assertEquals(3, counting.lookups.get());
+        index.hasAccount(alice);
+        assertEquals(4, counting.lookups.get());
+    }
+
+    @Test
+    public void createdMissDoesNotTakeASlot() {
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100, 2, 1, TimeUnit.MINUTES);
+        index.hasAccount(alice);
+        index.hasAccount(bob);
+        index.createPlayerAccount(bob);
+        index.hasAccount(carol);
+        index.hasAccount(alice);
+        assertEquals(3, counting.lookups.get());
+    }
+
+    @Test
+    public void missIsNotRememberedIfClearedDuringLookup() {
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100, 10, 1, TimeUnit.MINUTES);
+        counting.after = () -> {
+            backend.createPlayerAccount(alice);
+            index.clearMissing();
+        };
+        assertFalse(index.hasAccount(alice));
+        counting.after = null;
+        assertTrue(index.hasAccount(alice));
+    }
+
+    @Test
+    public void createByNameClearsMisses() {
+        TestServer.install();
+        OfflinePlayer dave = TestServer.register(TestPlayers.offline("dave"));
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100, 10, 1, TimeUnit.MINUTES);
+        assertFalse(index.hasAccount(dave));
+        assertTrue(index.createPlayerAccount("dave"));
+        assertTrue(index.hasAccount(dave));
+    }
+
+    @Test
+    public void missingAccountExpires() throws Exception {
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100, 10, 1, TimeUnit.MILLISECONDS);
+        index.hasAccount(alice);
+        Thread.sleep(5);
+        backend.createPlayerAccount(alice);
+        assertTrue(index.hasAccount(alice));
+        assertEquals(2, counting.lookups.get());
+    }
+
+    @Test
+    public void authoritativeIndexAnswersUnseededPlayers() {
+        // Fixed UUIDs, so the filter's answer does not depend on a false positive
+        alice = TestPlayers.offline(new UUID(0, 1));
+        bob = TestPlayers.offline(new UUID(0, 2));
+        backend.createPlayerAccount(alice);
+        AccountIndexEconomy index = new AccountIndexEconomy(counting, 100);
+        index.seed(Collections.singleton(alice.getUniqueId()), null);
+        index.setAuthoritative(true);
+        assertFalse(index.hasAccount(bob));
+        assertEquals(0, counting.lookups.get());
+        assertTrue(index.hasAccount(alice));
+    }
+}
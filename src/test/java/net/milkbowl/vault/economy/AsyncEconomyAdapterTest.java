@@ -0,0 +1,105 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncEconomyAdapterTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile Thread caller;
+    private AsyncEconomyAdapter async;
+    private OfflinePlayer player;
+
+    @Before
+    public void setUp() {
+        Economy economy = new ForwardingEconomy(new MemoryEconomy("Memory", 2, "Coin", "Coins")) {
+            @Override
+            public double getBalance(OfflinePlayer player) {
+                caller = Thread.currentThread();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.getBalance(player);
+            }
+        };
+        async = new AsyncEconomyAdapter(economy, 1, 1);
+        player = TestPlayers.offline();
+    }
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        async.shutdown();
+    }
+
+    @Test
+    public void callsRunOnWorkerThread() throws Exception {
+        assertTrue(async.createPlayerAccount(player).get(5, TimeUnit.SECONDS));
+        assertEquals(ResponseType.SUCCESS, async.depositPlayer(player, 5).get(5, TimeUnit.SECONDS).type);
+        CompletableFuture<Double> balance = async.getBalance(player);
+        release.countDown();
+        assertEquals(5, balance.get(5, TimeUnit.SECONDS), DELTA);
+        assertNotSame(Thread.currentThread(), caller);
+    }
+
+    @Test
+    public void callsBeyondQueueCapacityAreRejected() throws Exception {
+        CompletableFuture<Double> running = async.getBalance(player);
+        while (caller == null) {
+            Thread.yield();
+        }
+        // One call runs, one waits in the queue, the next one has nowhere to go
+        CompletableFuture<Double> queued = async.getBalance(player);
+        CompletableFuture<Double> rejected = async.getBalance(player);
+        assertTrue(rejected.isCompletedExceptionally());
+        try {
+            rejected.get();
+            fail("Expected the call to be rejected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+        release.countDown();
+        assertEquals(0, running.get(5, TimeUnit.SECONDS), DELTA);
+        assertEquals(0, queued.get(5, TimeUnit.SECONDS), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void threadCountMustBePositive() {
+        new AsyncEconomyAdapter(new MemoryEconomy("Memory", 2, "Coin", "Coins"), 0, 1);
+    }
+}
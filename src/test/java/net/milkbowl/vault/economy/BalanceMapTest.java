@@ -0,0 +1,110 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Test;
+
+public class BalanceMapTest {
+
+    private static final double DELTA = 1e-9;
+
+    @Test
+    public void holdsBalancesAcrossGrowth() {
+        BalanceMap map = new BalanceMap(0);
+        Map<UUID, Double> expected = new HashMap<UUID, Double>();
+        for (int i = 0; i < 1000; i++) {
+            UUID id = UUID.randomUUID();
+            map.put(id, i);
+            expected.put(id, (double) i);
+        }
+        assertEquals(1000, map.size());
+        for (Map.Entry<UUID, Double> entry : expected.entrySet()) {
+            assertEquals(entry.getValue(), map.get(entry.getKey()), DELTA);
+        }
+        Map<UUID, Double> visited = new HashMap<UUID, Double>();
+        map.forEach(visited::put);
+        assertEquals(expected, visited);
+    }
+
+    @Test
+    public void putReplacesAndMissingUsesDefault() {
+        BalanceMap map = new BalanceMap();
+        UUID id = UUID.randomUUID();
+        map.put(id, 1);
+        map.put(id, 2);
+        assertEquals(1, map.size());
+        assertEquals(2, map.get(id), DELTA);
+        UUID other = UUID.randomUUID();
+        assertFalse(map.containsKey(other));
+        assertEquals(0, map.get(other), DELTA);
+        assertTrue(Double.isNaN(map.getOrDefault(other, Double.NaN)));
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertFalse(map.containsKey(id));
+    }
+
+    @Test
+    public void defaultLooksUpEveryPlayer() {
+        TestEconomy economy = new TestEconomy();
+        OfflinePlayer alice = TestPlayers.offline("alice");
+        OfflinePlayer bob = TestPlayers.offline("bob");
+        economy.createPlayerAccount(alice);
+        economy.depositPlayer(alice, 3);
+        economy.createPlayerAccount(bob, "nether");
+        economy.depositPlayer(bob, "nether", 4);
+        BalanceMap global = economy.getBalances(Arrays.asList(alice, bob), null);
+        assertEquals(3, global.get(alice.getUniqueId()), DELTA);
+        assertEquals(0, global.get(bob.getUniqueId()), DELTA);
+        assertEquals(4, economy.getBalances(Arrays.asList(alice, bob), "nether").get(bob.getUniqueId()), DELTA);
+    }
+
+    @Test
+    public void memoryEconomyLeavesOutPlayersWithoutAccount() {
+        MemoryEconomy economy = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        List<OfflinePlayer> players = new ArrayList<OfflinePlayer>();
+        for (int i = 0; i < 10; i++) {
+            OfflinePlayer player = TestPlayers.offline();
+            players.add(player);
+            if (i % 2 == 0) {
+                economy.createPlayerAccount(player);
+                economy.depositPlayer(player, i);
+            }
+        }
+        BalanceMap balances = economy.getBalances(players, null);
+        assertEquals(5, balances.size());
+        assertEquals(8, balances.get(players.get(8).getUniqueId()), DELTA);
+        assertFalse(balances.containsKey(players.get(1).getUniqueId()));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeSizeIsRejected() {
+        new BalanceMap(-1);
+    }
+}
@@ -0,0 +1,125 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BankEnumerationTest {
+
+    private static final double DELTA = 1e-9;
+
+    private TestEconomy economy;
+
+    @Before
+    public void setUp() {
+        economy = new TestEconomy();
+        economy.bankSupport = true;
+        for (int i = 0; i < 5; i++) {
+            economy.banks.put("bank" + i, (double) i);
+        }
+    }
+
+    private static List<String> names(List<BankBalance> banks) {
+        List<String> names = new ArrayList<String>();
+        for (BankBalance bank : banks) {
+            names.add(bank.name);
+        }
+        return names;
+    }
+
+    @Test
+    public void spliteratorLooksUpBalancesLazily() {
+        Spliterator<BankBalance> banks = economy.bankSpliterator();
+        assertEquals(0, economy.bankLookups);
+        assertTrue(banks.tryAdvance(bank -> {
+            assertEquals("bank0", bank.name);
+            assertEquals(0, bank.balance, DELTA);
+        }));
+        assertEquals(1, economy.bankLookups);
+    }
+
+    @Test
+    public void spliteratorSkipsDeletedBanks() {
+        Spliterator<BankBalance> banks = economy.bankSpliterator();
+        assertEquals(5, banks.estimateSize());
+        economy.banks.remove("bank2");
+        List<BankBalance> seen = new ArrayList<BankBalance>();
+        banks.forEachRemaining(seen::add);
+        assertEquals(4, seen.size());
+        assertFalse(names(seen).contains("bank2"));
+    }
+
+    @Test
+    public void spliteratorSplitsForParallelStreams() {
+        Set<String> names = StreamSupport.stream(economy.bankSpliterator(), true)
+                .map(bank -> bank.name).collect(Collectors.toSet());
+        assertEquals(new HashSet<String>(economy.getBanks()), names);
+    }
+
+    @Test
+    public void pagesFollowBankOrder() {
+        List<BankBalance> page = economy.getBankBalances(1, 2);
+        assertEquals(2, page.size());
+        assertEquals("bank1", page.get(0).name);
+        assertEquals(2, page.get(1).balance, DELTA);
+        assertEquals(1, economy.getBankBalances(4, 10).size());
+        assertTrue(economy.getBankBalances(5, 10).isEmpty());
+        assertTrue(economy.getBankBalances(Integer.MAX_VALUE, Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    public void noBanksWithoutBankSupport() {
+        economy.bankSupport = false;
+        assertFalse(economy.bankSpliterator().tryAdvance(bank -> { }));
+        assertTrue(economy.getBankBalances(0, 10).isEmpty());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeOffsetIsRejected() {
+        economy.getBankBalances(-1, 10);
+    }
+
+    @Test
+    public void memoryEconomyPagesEveryBankOnce() {
+        MemoryEconomy memory = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        for (int i = 0; i < 10; i++) {
+            memory.createBank("bank" + i, TestPlayers.offline());
+        }
+        Set<String> paged = new HashSet<String>();
+        for (int offset = 0; offset < 10; offset += 3) {
+            paged.addAll(names(memory.getBankBalances(offset, 3)));
+        }
+        assertEquals(10, paged.size());
+        assertTrue(memory.getBankBalances(10, 3).isEmpty());
+        assertEquals(10, StreamSupport.stream(memory.bankSpliterator(), true).count());
+        assertTrue(memory.getBankBalances(0, 0).isEmpty());
+    }
+}
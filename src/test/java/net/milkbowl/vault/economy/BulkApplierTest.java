@@ -0,0 +1,193 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.TestServer;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BulkApplierTest {
+
+    private static final double DELTA = 1e-9;
+
+    // Counts the lookups and writes reaching the wrapped economy, and can throw for one player; bulk operations run
+    // on the defaults of this decorator
+    private static final class CountingEconomy extends ForwardingEconomy {
+        final AtomicInteger lookups = new AtomicInteger();
+        final AtomicInteger writes = new AtomicInteger();
+        volatile OfflinePlayer broken;
+
+        CountingEconomy(Economy economy) {
+            super(economy);
+        }
+
+        @Override
+        public boolean hasAccount(OfflinePlayer player) {
+            lookups.incrementAndGet();
+            return super.hasAccount(player);
+        }
+
+        @Override
+        public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+            if (player == broken) {
+                throw new IllegalStateException("Database is down");
+            }
+            writes.incrementAndGet();
+            return super.depositPlayer(player, amount);
+        }
+
+        @Override
+        public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+            writes.incrementAndGet();
+            return super.withdrawPlayer(player, amount);
+        }
+    }
+
+    private MemoryEconomy backend;
+    private CountingEconomy economy;
+    private OfflinePlayer alice;
+    private OfflinePlayer bob;
+    private OfflinePlayer nobody;
+
+    @Before
+    public void setUp() {
+        backend = new MemoryEconomy("Memory", 2, "Coin", "Coins", 100, false);
+        economy = new CountingEconomy(backend);
+        alice = TestPlayers.offline();
+        bob = TestPlayers.offline();
+        nobody = TestPlayers.offline();
+        backend.createPlayerAccount(alice);
+        backend.createPlayerAccount(bob);
+    }
+
+    @Test
+    public void fixedAmountIsDepositedToEveryAccount() {
+        BulkResult result = economy.applyBulk(Arrays.asList(alice, bob), null, BulkOperation.fixed(5));
+        assertEquals(2, result.succeeded);
+        assertEquals(10, result.deposited, DELTA);
+        assertEquals(105, backend.getBalance(bob), DELTA);
+    }
+
+    @Test
+    public void percentageIsOneWriteOfTheDifference() {
+        backend.withdrawPlayer(bob, 50);
+        BulkResult result = economy.applyBulk(Arrays.asList(alice, bob), null, BulkOperation.percentage(-10));
+        assertEquals(2, economy.writes.get());
+        assertEquals(15, result.withdrawn, DELTA);
+        assertEquals(90, backend.getBalance(alice), DELTA);
+        assertEquals(45, backend.getBalance(bob), DELTA);
+    }
+
+    @Test
+    public void playerWithoutAccountFails() {
+        BulkResult fixed = economy.applyBulk(Arrays.asList(alice, nobody), null, BulkOperation.fixed(5));
+        assertEquals(1, fixed.succeeded);
+        assertEquals(Arrays.asList(nobody), fixed.failures);
+        BulkResult percentage = economy.applyBulk(Arrays.asList(alice, nobody), null, BulkOperation.percentage(10));
+        assertEquals(1, percentage.succeeded);
+        assertEquals(Arrays.asList(nobody), percentage.failures);
+    }
+
+    @Test
+    public void overdrawnAccountFails() {
+        BulkResult result = economy.applyBulk(Arrays.asList(alice, bob), null, BulkOperation.fixed(-150));
+        assertEquals(0, result.succeeded);
+        assertEquals(2, result.failures.size());
+        assertEquals(100, backend.getBalance(alice), DELTA);
+    }
+
+    @Test
+    public void exceptionFailsOnlyThatPlayer() {
+        economy.broken = alice;
+        BulkResult result = economy.applyBulk(Arrays.asList(alice, bob), null, BulkOperation.fixed(5));
+        assertEquals(1, result.succeeded);
+        assertEquals(Arrays.asList(alice), result.failures);
+        assertEquals(105, backend.getBalance(bob), DELTA);
+    }
+
+    private List<OfflinePlayer> accounts(int count) {
+        List<OfflinePlayer> players = new ArrayList<OfflinePlayer>();
+        for (int i = 0; i < count; i++) {
+            OfflinePlayer player = TestPlayers.offline();
+            backend.createPlayerAccount(player);
+            players.add(player);
+        }
+        return players;
+    }
+
+    @Test
+    public void parallelOperationReachesEveryPlayer() {
+        List<OfflinePlayer> players = accounts(500);
+        BulkResult result = economy.applyBulk(players, null, BulkOperation.fixed(1).parallel());
+        assertEquals(500, result.succeeded);
+        assertEquals(500, result.deposited, DELTA);
+        assertTrue(result.failures.isEmpty());
+        assertEquals(101, backend.getBalance(players.get(499)), DELTA);
+    }
+
+    @Test
+    public void parallelOperationRunsOnTheGivenExecutor() {
+        List<OfflinePlayer> players = accounts(500);
+        AtomicInteger tasks = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            BulkResult result = economy.applyBulk(players, null, BulkOperation.fixed(1).parallel(task -> {
+                tasks.incrementAndGet();
+                executor.execute(task);
+            }));
+            assertEquals(500, result.succeeded);
+            // The calling thread runs the first of the eight chunks
+            assertEquals(7, tasks.get());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectedChunksRunOnTheCaller() {
+        List<OfflinePlayer> players = accounts(200);
+        BulkResult result = economy.applyBulk(players, null, BulkOperation.fixed(1).parallel(task -> {
+            throw new RejectedExecutionException();
+        }));
+        assertEquals(200, result.succeeded);
+        assertEquals(101, backend.getBalance(players.get(199)), DELTA);
+    }
+
+    @Test
+    public void filterRunsBeforeTheAccountLookup() {
+        TestServer.install();
+        TestServer.register(alice);
+        TestServer.register(TestPlayers.offline());
+        BulkResult result = economy.applyBulk(player -> player == alice, null, BulkOperation.fixed(5));
+        assertEquals(1, result.succeeded);
+        assertEquals(1, economy.lookups.get());
+        assertEquals(105, backend.getBalance(alice), DELTA);
+    }
+}
@@ -0,0 +1,259 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.TestServer;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingEconomyTest {
+
+    private static final double DELTA = 1e-9;
+
+    // Counts writes and can be told to reject, throw or block on them
+    private static final class FlakyEconomy extends ForwardingEconomy {
+        volatile boolean rejecting;
+        volatile boolean throwing;
+        volatile CountDownLatch blocking;
+        volatile String writerThread;
+        final CountDownLatch written = new CountDownLatch(1);
+        final CountDownLatch blocked = new CountDownLatch(1);
+
+        FlakyEconomy(Economy economy) {
+            super(economy);
+        }
+
+        private void block() {
+            CountDownLatch latch = blocking;
+            if (latch != null) {
+                blocked.countDown();
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        private EconomyResponse write(EconomyResponse response) {
+            writerThread = Thread.currentThread().getName();
+            written.countDown();
+            return response;
+        }
+
+        @Override
+        public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+            block();
+            if (throwing) {
+                throw new IllegalStateException("Database is down");
+            }
+            if (rejecting) {
+                return write(new EconomyResponse(0, 0, ResponseType.FAILURE, "Database is down"));
+            }
+            return write(super.depositPlayer(player, amount));
+        }
+
+        @Override
+        public EconomyResponse withdrawPlayer(OfflinePlayer player, double amount) {
+            if (rejecting) {
+                return write(new EconomyResponse(0, 0, ResponseType.FAILURE, "Database is down"));
+            }
+            return write(super.withdrawPlayer(player, amount));
+        }
+    }
+
+    private MemoryEconomy backend;
+    private FlakyEconomy flaky;
+    private CachingEconomy cache;
+
+    @Before
+    public void setUp() {
+        backend = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        flaky = new FlakyEconomy(backend);
+        cache = new CachingEconomy(flaky, 2, 1000);
+    }
+
+    @After
+    public void tearDown() {
+        cache.shutdown();
+    }
+
+    private OfflinePlayer account(double balance) {
+        OfflinePlayer player = TestPlayers.offline();
+        backend.createPlayerAccount(player);
+        backend.depositPlayer(player, balance);
+        return player;
+    }
+
+    @Test
+    public void deltasAreWrittenOnFlush() {
+        OfflinePlayer player = account(10);
+        assertTrue(cache.depositPlayer(player, 5).transactionSuccess());
+        assertTrue(cache.withdrawPlayer(player, 2).transactionSuccess());
+        assertEquals(13, cache.getBalance(player), DELTA);
+        assertEquals(10, backend.getBalance(player), DELTA);
+        cache.flush();
+        assertEquals(13, backend.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void rejectedDeltaStaysPending() {
+        OfflinePlayer player = account(10);
+        cache.depositPlayer(player, 5);
+        flaky.rejecting = true;
+        cache.flush();
+        assertEquals(10, backend.getBalance(player), DELTA);
+        assertEquals(15, cache.getBalance(player), DELTA);
+        flaky.rejecting = false;
+        cache.flush();
+        assertEquals(15, backend.getBalance(player), DELTA);
+        cache.flush();
+        assertEquals(15, backend.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void thrownDeltaStaysPending() {
+        OfflinePlayer player = account(10);
+        cache.depositPlayer(player, 5);
+        flaky.throwing = true;
+        cache.flush();
+        cache.invalidate(player);
+        assertEquals(1, cache.size());
+        assertEquals(15, cache.getBalance(player), DELTA);
+        flaky.throwing = false;
+        cache.flush();
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        assertEquals(15, backend.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void onlinePlayersDoNotBlockEviction() {
+        OfflinePlayer online = TestPlayers.online();
+        backend.createPlayerAccount(online);
+        cache.getBalance(online);
+        OfflinePlayer last = null;
+        for (int i = 0; i < 10; i++) {
+            last = account(1);
+            cache.depositPlayer(last, 1);
+        }
+        cache.flush();
+        assertEquals(2, cache.size());
+        assertEquals(2, cache.getBalance(last), DELTA);
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void evictionWritesPendingDeltas() throws InterruptedException {
+        OfflinePlayer first = account(0);
+        cache.depositPlayer(first, 7);
+        cache.depositPlayer(account(0), 1);
+        cache.getBalance(account(0));
+        assertTrue(flaky.written.await(5, TimeUnit.SECONDS));
+        assertEquals(7, backend.getBalance(first), DELTA);
+    }
+
+    @Test
+    public void slowWritesDoNotBlockTheCache() throws InterruptedException {
+        OfflinePlayer player = account(10);
+        OfflinePlayer other = account(3);
+        cache.depositPlayer(player, 5);
+        CountDownLatch release = new CountDownLatch(1);
+        flaky.blocking = release;
+        Thread flush = new Thread(cache::flush);
+        flush.start();
+        try {
+            assertTrue(flaky.blocked.await(5, TimeUnit.SECONDS));
+            assertEquals(15, cache.getBalance(player), DELTA);
+            assertEquals(3, cache.getBalance(other), DELTA);
+            assertTrue(cache.withdrawPlayer(player, 1).transactionSuccess());
+        } finally {
+            release.countDown();
+            flush.join();
+        }
+        flaky.blocking = null;
+        assertEquals(15, backend.getBalance(player), DELTA);
+        cache.flush();
+        assertEquals(14, backend.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void nameBasedWritesKeepPendingDeltas() {
+        TestServer.install();
+        TestServer.register(TestPlayers.offline("alice"));
+        backend.createPlayerAccount("alice");
+        OfflinePlayer player = account(10);
+        cache.depositPlayer(player, 5);
+        assertTrue(cache.depositPlayer("alice", 1).transactionSuccess());
+        assertEquals(10, backend.getBalance(player), DELTA);
+        assertEquals(15, cache.getBalance(player), DELTA);
+        cache.flush();
+        assertEquals(15, backend.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void worldCallsSeePendingGlobalDelta() {
+        OfflinePlayer player = account(10);
+        cache.depositPlayer(player, 5);
+        assertEquals(15, cache.getBalance(player, "world"), DELTA);
+        assertTrue(cache.withdrawPlayer(player, "world", 15).transactionSuccess());
+        assertEquals(0, cache.getBalance(player), DELTA);
+        assertFalse(cache.withdrawPlayer(player, 1).transactionSuccess());
+    }
+
+    @Test
+    public void missingAccountIsRejected() {
+        OfflinePlayer player = TestPlayers.offline();
+        EconomyResponse response = cache.depositPlayer(player, 5);
+        assertFalse(response.transactionSuccess());
+        cache.flush();
+        assertFalse(backend.hasAccount(player));
+    }
+
+    @Test
+    public void transferToMissingAccountIsRefunded() {
+        OfflinePlayer from = account(10);
+        EconomyResponse response = cache.transfer(from, TestPlayers.offline(), 4);
+        assertFalse(response.transactionSuccess());
+        assertEquals(10, response.balance, DELTA);
+        assertEquals(10, cache.getBalance(from), DELTA);
+    }
+
+    @Test
+    public void thresholdFlushRunsInBackground() throws InterruptedException {
+        CachingEconomy eager = new CachingEconomy(flaky, 10, 1);
+        try {
+            OfflinePlayer player = account(0);
+            eager.depositPlayer(player, 1);
+            assertTrue(flaky.written.await(5, TimeUnit.SECONDS));
+            assertTrue(flaky.writerThread.startsWith("Vault-CachingEconomy"));
+        } finally {
+            eager.shutdown();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConcurrentEconomyTest {
+
+    private static final double DELTA = 1e-9;
+    private static final int THREADS = 8;
+    private static final int OPERATIONS = 1000;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private ConcurrentEconomy economy;
+    private OfflinePlayer alice;
+    private OfflinePlayer bob;
+
+    @Before
+    public void setUp() {
+        // TestEconomy reads and writes balances without any synchronization of its own
+        economy = new ConcurrentEconomy(new TestEconomy());
+        alice = TestPlayers.offline("alice");
+        bob = TestPlayers.offline("bob");
+        economy.createPlayerAccount(alice);
+        economy.createPlayerAccount(bob);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private void runAll(List<Runnable> tasks) throws Exception {
+        List<Future<?>> futures = new ArrayList<Future<?>>();
+        for (Runnable task : tasks) {
+            futures.add(executor.submit(task));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void depositsToOneAccountAreNotLost() throws Exception {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < THREADS; i++) {
+            tasks.add(() -> {
+                for (int j = 0; j < OPERATIONS; j++) {
+                    economy.depositPlayer(alice, 1);
+                }
+            });
+        }
+        runAll(tasks);
+        assertEquals(THREADS * OPERATIONS, economy.getBalance(alice), DELTA);
+    }
+
+    @Test
+    public void opposingTransfersKeepTheTotal() throws Exception {
+        economy.depositPlayer(alice, OPERATIONS);
+        economy.depositPlayer(bob, OPERATIONS);
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < THREADS; i++) {
+            OfflinePlayer from = i % 2 == 0 ? alice : bob;
+            OfflinePlayer to = i % 2 == 0 ? bob : alice;
+            tasks.add(() -> {
+                for (int j = 0; j < OPERATIONS; j++) {
+                    economy.transfer(from, to, 1);
+                }
+            });
+        }
+        runAll(tasks);
+        assertEquals(2 * OPERATIONS, economy.getBalance(alice) + economy.getBalance(bob), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void stripeCountMustBePositive() {
+        new ConcurrentEconomy(new TestEconomy(), 0);
+    }
+}
@@ -0,0 +1,87 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.nio.BufferOverflowException;
+import java.nio.CharBuffer;
+
+import org.junit.Test;
+
+public class CurrencyFormatterTest {
+
+    private final CurrencyFormatter formatter = new CurrencyFormatter(2, "Dollar", "Dollars");
+
+    @Test
+    public void groupsThousandsAndNamesTheCurrency() {
+        assertEquals("1,234,567.50 Dollars", formatter.format(1234567.5));
+        assertEquals("1.00 Dollar", formatter.format(1));
+        assertEquals("0.00 Dollars", formatter.format(0));
+        assertEquals("-1.00 Dollars", formatter.format(-1));
+        assertEquals("-12.34 Dollars", formatter.format(-12.344));
+    }
+
+    @Test
+    public void roundsToFractionalDigits() {
+        assertEquals("0.01 Dollars", formatter.format(0.005));
+        assertEquals("1,000.00 Dollars", formatter.format(999.999));
+        assertEquals("3", new CurrencyFormatter(0, null, null).format(2.5));
+    }
+
+    @Test
+    public void usesCustomSeparators() {
+        CurrencyFormatter euro = new CurrencyFormatter(2, "Euro", "Euros", '.', ',');
+        assertEquals("1.234,50 Euros", euro.format(1234.5));
+        assertEquals("1234,50", new CurrencyFormatter(2, "", null, (char) 0, ',').format(1234.5));
+    }
+
+    @Test
+    public void formatsTheWholeLongRange() {
+        CurrencyFormatter plain = new CurrencyFormatter(0, null, null, (char) 0, '.');
+        assertEquals(String.valueOf(Long.MAX_VALUE), plain.formatMinor(Long.MAX_VALUE));
+        assertEquals("0.000000000000000001", new CurrencyFormatter(18, null, null).formatMinor(1));
+    }
+
+    @Test
+    public void clampsValuesOutOfRange() {
+        assertEquals(formatter.formatMinor(Long.MAX_VALUE), formatter.format(Double.POSITIVE_INFINITY));
+        assertEquals(formatter.formatMinor(Long.MIN_VALUE), formatter.format(-1e300));
+        assertEquals("0.00 Dollars", formatter.format(Double.NaN));
+    }
+
+    @Test
+    public void repeatedAmountsReuseTheString() {
+        assertSame(formatter.format(12.5), formatter.format(12.5));
+        assertSame(formatter.format(12.5), formatter.formatMinor(1250));
+    }
+
+    @Test
+    public void appendsToBuffers() {
+        StringBuilder builder = new StringBuilder("Balance: ");
+        assertEquals("Balance: 2.00 Dollars", formatter.appendTo(builder, 2).toString());
+        CharBuffer buffer = CharBuffer.allocate(32);
+        formatter.appendMinorTo(buffer, 100);
+        buffer.flip();
+        assertEquals("1.00 Dollar", buffer.toString());
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void fullBufferOverflows() {
+        formatter.appendTo(CharBuffer.allocate(4), 1234);
+    }
+}
@@ -0,0 +1,177 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import net.milkbowl.vault.economy.JournalRecord.Operation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EconomyJournalTest {
+
+    private Path directory;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private List<JournalRecord> replay() throws IOException {
+        List<JournalRecord> records = new ArrayList<JournalRecord>();
+        EconomyJournal.replay(directory, records::add);
+        return records;
+    }
+
+    private int segmentCount() throws IOException {
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path ignored : stream) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Test
+    public void recordsAreReplayedInOrder() throws IOException {
+        UUID player = UUID.randomUUID();
+        try (EconomyJournal journal = new EconomyJournal(directory)) {
+            journal.appendPlayer(Operation.PLAYER_DEPOSIT, player, null, 10, 10);
+            journal.appendPlayer(Operation.PLAYER_WITHDRAW, player, "nether", 2.5, 7.5);
+            journal.appendBank(Operation.BANK_DEPOSIT, "guild", 4, 4);
+        }
+        List<JournalRecord> records = replay();
+        assertEquals(3, records.size());
+        assertEquals(Operation.PLAYER_DEPOSIT, records.get(0).operation);
+        assertEquals(player, records.get(0).player);
+        assertNull(records.get(0).world);
+        assertEquals("nether", records.get(1).world);
+        assertEquals(7.5, records.get(1).balance, 0);
+        assertEquals("guild", records.get(2).bank);
+        assertNull(records.get(2).player);
+    }
+
+    @Test
+    public void reopenedJournalContinuesAfterLastRecord() throws IOException {
+        UUID player = UUID.randomUUID();
+        try (EconomyJournal journal = new EconomyJournal(directory)) {
+            journal.appendPlayer(Operation.PLAYER_DEPOSIT, player, null, 1, 1);
+        }
+        try (EconomyJournal journal = new EconomyJournal(directory)) {
+            journal.appendPlayer(Operation.PLAYER_DEPOSIT, player, null, 1, 2);
+        }
+        assertEquals(2, replay().size());
+        assertEquals(2, EconomyJournal.latestPlayerBalances(directory).get(player).get(null), 0);
+    }
+
+    @Test
+    public void tornRecordEndsTheJournal() throws IOException {
+        UUID player = UUID.randomUUID();
+        try (EconomyJournal journal = new EconomyJournal(directory)) {
+            journal.appendPlayer(Operation.PLAYER_DEPOSIT, player, null, 1, 1);
+            journal.appendPlayer(Operation.PLAYER_DEPOSIT, player, null, 1, 2);
+        }
+        Path segment;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            segment = stream.iterator().next();
+        }
+        // Corrupt the last byte of the second record's body
+        try (RandomAccessFile file = new RandomAccessFile(segment.toFile(), "rw")) {
+            int first = 4 + file.readInt() + 4;
+            file.seek(first);
+            int length = file.readInt();
+            file.seek(first + 4 + length - 1);
+            file.write(0x7f);
+        }
+        assertEquals(1, replay().size());
+        try (EconomyJournal journal = new EconomyJournal(directory)) {
+            journal.appendPlayer(Operation.PLAYER_DEPOSIT, player, null, 5, 6);
+        }
+        List<JournalRecord> records = replay();
+        assertEquals(2, records.size());
+        assertEquals(6, records.get(1).balance, 0);
+    }
+
+    @Test
+    public void fullSegmentRollsOver() throws IOException {
+        try (EconomyJournal journal = new EconomyJournal(directory, 1024, false)) {
+            for (int i = 0; i < 100; i++) {
+                journal.appendPlayer(Operation.PLAYER_DEPOSIT, UUID.randomUUID(), null, i, i);
+            }
+        }
+        assertTrue(segmentCount() > 1);
+        assertEquals(100, replay().size());
+    }
+
+    @Test
+    public void compactKeepsLatestBalances() throws IOException {
+        UUID player = UUID.randomUUID();
+        try (EconomyJournal journal = new EconomyJournal(directory, 1024, false)) {
+            for (int i = 1; i <= 100; i++) {
+                journal.appendPlayer(Operation.PLAYER_DEPOSIT, player, null, 1, i);
+                journal.appendPlayer(Operation.PLAYER_DEPOSIT, player, "end", 1, i * 2);
+            }
+            journal.appendBank(Operation.BANK_WITHDRAW, "guild", 3, 7);
+            Map<UUID, Map<String, Double>> before = EconomyJournal.latestPlayerBalances(directory);
+            assertTrue(journal.compact() > 1);
+            assertEquals(1, segmentCount());
+            assertEquals(before, EconomyJournal.latestPlayerBalances(directory));
+            assertEquals(7, EconomyJournal.latestBankBalances(directory).get("guild"), 0);
+            assertEquals(3, replay().size());
+            journal.appendPlayer(Operation.PLAYER_WITHDRAW, player, null, 50, 50);
+        }
+        assertEquals(50, EconomyJournal.latestPlayerBalances(directory).get(player).get(null), 0);
+        assertEquals(Operation.PLAYER_SNAPSHOT, replay().get(0).operation);
+    }
+
+    @Test(expected = IOException.class)
+    public void closedJournalRejectsAppends() throws IOException {
+        EconomyJournal journal = new EconomyJournal(directory);
+        journal.close();
+        journal.appendBank(Operation.BANK_DEPOSIT, "guild", 1, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void playerOperationIsNotABankOperation() throws IOException {
+        try (EconomyJournal journal = new EconomyJournal(directory)) {
+            journal.appendBank(Operation.PLAYER_DEPOSIT, "guild", 1, 1);
+        }
+    }
+}
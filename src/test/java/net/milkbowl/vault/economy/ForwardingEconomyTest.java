@@ -0,0 +1,81 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Test;
+
+public class ForwardingEconomyTest {
+
+    // Counts the double based calls that reach it
+    private static final class CountingEconomy extends ForwardingEconomy {
+        int deposits;
+        int withdrawals;
+
+        CountingEconomy(Economy economy) {
+            super(economy);
+        }
+
+        @Override
+        public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+            deposits++;
+            return super.depositPlayer(player, amount);
+        }
+
+        @Override
+        public EconomyResponse withdrawPlayer(OfflinePlayer player, String worldName, double amount) {
+            withdrawals++;
+            return super.withdrawPlayer(player, worldName, amount);
+        }
+    }
+
+    @Test
+    public void derivedVariantsReachTheDecoratorPrimitives() {
+        MemoryEconomy memory = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        CountingEconomy counting = new CountingEconomy(memory);
+        OfflinePlayer player = TestPlayers.offline();
+        memory.createPlayerAccount(player);
+
+        assertTrue(counting.depositPlayerMinor(player, 1250).transactionSuccess());
+        assertTrue(counting.depositPlayer(player, 1, new EconomyResult()));
+        assertTrue(counting.withdrawPlayerMinor(player, "world", 50).transactionSuccess());
+        assertTrue(counting.withdrawPlayer(player, "world", 1, new EconomyResult()));
+
+        assertEquals(2, counting.deposits);
+        assertEquals(2, counting.withdrawals);
+        assertEquals(1200, counting.getBalanceMinor(player));
+        assertTrue(counting.hasMinor(player, 1200));
+    }
+
+    @Test
+    public void basicCallsAreForwarded() {
+        MemoryEconomy memory = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        ForwardingEconomy forwarding = new ForwardingEconomy(memory);
+        assertEquals("Memory", forwarding.getName());
+        assertEquals(2, forwarding.minorUnitDigits());
+        assertEquals(memory, forwarding.getDelegate());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullDelegate() {
+        new ForwardingEconomy(null);
+    }
+}
@@ -0,0 +1,139 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IdempotentEconomyTest {
+
+    private static final double DELTA = 1e-9;
+
+    // Counts deposits and holds them until released while blocking
+    private static final class SlowEconomy extends ForwardingEconomy {
+        final AtomicInteger deposits = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        volatile CountDownLatch release = new CountDownLatch(0);
+
+        SlowEconomy(Economy economy) {
+            super(economy);
+        }
+
+        @Override
+        public EconomyResponse depositPlayer(OfflinePlayer player, double amount) {
+            deposits.incrementAndGet();
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return super.depositPlayer(player, amount);
+        }
+    }
+
+    private MemoryEconomy backend;
+    private SlowEconomy slow;
+    private OfflinePlayer player;
+
+    @Before
+    public void setUp() {
+        backend = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        slow = new SlowEconomy(backend);
+        player = TestPlayers.offline();
+        backend.createPlayerAccount(player);
+    }
+
+    @Test
+    public void retryReturnsFirstResponse() {
+        IdempotentEconomy economy = new IdempotentEconomy(slow, 10, 1, TimeUnit.MINUTES);
+        EconomyResponse first = economy.depositPlayerOnce("tx", player, 5);
+        EconomyResponse retry = economy.depositPlayerOnce("tx", player, 5);
+        assertTrue(first == retry);
+        assertEquals(1, slow.deposits.get());
+        assertEquals(5, backend.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void retryOfRunningOperationIsPending() throws Exception {
+        IdempotentEconomy economy = new IdempotentEconomy(slow, 10, 1, TimeUnit.MINUTES, 10, TimeUnit.MILLISECONDS);
+        slow.release = new CountDownLatch(1);
+        AtomicReference<EconomyResponse> first = new AtomicReference<EconomyResponse>();
+        Thread thread = new Thread(() -> first.set(economy.depositPlayerOnce("tx", player, 5)));
+        thread.start();
+        slow.started.await();
+
+        EconomyResponse pending = economy.depositPlayerOnce("tx", player, 5);
+        assertEquals(ResponseType.FAILURE, pending.type);
+        assertEquals("Transaction tx is still pending", pending.errorMessage);
+
+        slow.release.countDown();
+        thread.join();
+        assertTrue(first.get() == economy.depositPlayerOnce("tx", player, 5));
+        assertEquals(1, slow.deposits.get());
+    }
+
+    @Test
+    public void runningOperationIsNotEvicted() throws Exception {
+        IdempotentEconomy economy = new IdempotentEconomy(slow, 1, 1, TimeUnit.MINUTES);
+        slow.release = new CountDownLatch(1);
+        Thread thread = new Thread(() -> economy.depositPlayerOnce("running", player, 5));
+        thread.start();
+        slow.started.await();
+
+        // Over the limit while the first operation is still running
+        economy.withdrawPlayerOnce("a", player, 1);
+        economy.withdrawPlayerOnce("b", player, 1);
+        slow.release.countDown();
+        thread.join();
+        economy.depositPlayerOnce("running", player, 5);
+        assertEquals(1, slow.deposits.get());
+    }
+
+    @Test
+    public void finishedOperationsAreEvictedOverTheLimit() {
+        IdempotentEconomy economy = new IdempotentEconomy(slow, 2, 1, TimeUnit.MINUTES);
+        economy.depositPlayerOnce("a", player, 1);
+        economy.depositPlayerOnce("b", player, 1);
+        economy.depositPlayerOnce("c", player, 1);
+        assertEquals(2, economy.size());
+        economy.depositPlayerOnce("a", player, 1);
+        assertEquals(4, slow.deposits.get());
+    }
+
+    @Test
+    public void expiredOperationIsAppliedAgain() throws Exception {
+        IdempotentEconomy economy = new IdempotentEconomy(slow, 10, 1, TimeUnit.MILLISECONDS);
+        economy.depositPlayerOnce("tx", player, 1);
+        Thread.sleep(5);
+        economy.depositPlayerOnce("tx", player, 1);
+        assertEquals(2, slow.deposits.get());
+        assertEquals(2, backend.getBalance(player), DELTA);
+        assertEquals(1, economy.size());
+    }
+}
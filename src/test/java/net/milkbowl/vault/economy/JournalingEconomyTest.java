@@ -0,0 +1,143 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.economy.JournalRecord.Operation;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class JournalingEconomyTest {
+
+    private Path directory;
+    private EconomyJournal journal;
+    private MemoryEconomy memory;
+    private JournalingEconomy economy;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("journal");
+        journal = new EconomyJournal(directory);
+        memory = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        economy = new JournalingEconomy(memory, journal);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private OfflinePlayer account(double balance) {
+        OfflinePlayer player = TestPlayers.offline();
+        memory.createPlayerAccount(player);
+        memory.depositPlayer(player, balance);
+        return player;
+    }
+
+    private List<JournalRecord> replay() throws IOException {
+        List<JournalRecord> records = new ArrayList<JournalRecord>();
+        EconomyJournal.replay(directory, records::add);
+        return records;
+    }
+
+    @Test
+    public void successfulChangesAreJournaled() throws IOException {
+        OfflinePlayer player = account(0);
+        economy.depositPlayer(player, 10);
+        economy.withdrawPlayerMinor(player, 250);
+        assertFalse(economy.withdrawPlayer(player, 100).transactionSuccess());
+        List<JournalRecord> records = replay();
+        assertEquals(2, records.size());
+        assertEquals(Operation.PLAYER_WITHDRAW, records.get(1).operation);
+        assertEquals(2.5, records.get(1).amount, 0);
+        assertEquals(7.5, records.get(1).balance, 0);
+    }
+
+    @Test
+    public void transfersJournalBalanceAfterEachStep() throws IOException {
+        OfflinePlayer a = account(10);
+        OfflinePlayer b = account(0);
+        economy.transferAll(Arrays.asList(new Transfer(a, b, 4), new Transfer(b, a, 1), new Transfer(a, b, 2)));
+        List<JournalRecord> records = replay();
+        assertEquals(6, records.size());
+        double[] expected = { 6, 4, 3, 7, 5, 5 };
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("record " + i, expected[i], records.get(i).balance, 0);
+        }
+    }
+
+    @Test
+    public void unjournaledChangeIsUndone() throws IOException {
+        OfflinePlayer player = account(10);
+        journal.close();
+        EconomyResponse response = economy.depositPlayer(player, 5);
+        assertFalse(response.transactionSuccess());
+        assertEquals(10, response.balance, 0);
+        assertEquals(10, memory.getBalance(player), 0);
+        assertFalse(economy.transfer(player, account(0), 5).transactionSuccess());
+        assertEquals(10, memory.getBalance(player), 0);
+    }
+
+    @Test
+    public void concurrentChangesReplayToTheFinalBalance() throws Exception {
+        OfflinePlayer player = account(0);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 2000; i++) {
+            final boolean deposit = i % 3 != 0;
+            pool.execute(() -> {
+                if (deposit) {
+                    economy.depositPlayer(player, 1);
+                } else {
+                    economy.withdrawPlayer(player, 1);
+                }
+            });
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        double replayed = EconomyJournal.latestPlayerBalances(directory).get(player.getUniqueId()).get(null);
+        assertEquals(memory.getBalance(player), replayed, 0);
+    }
+
+    @Test
+    public void bankChangesAreJournaled() throws IOException {
+        economy.createBank("guild", account(0));
+        economy.bankDeposit("guild", 8);
+        economy.bankWithdraw("guild", 3);
+        assertEquals(5, EconomyJournal.latestBankBalances(directory).get("guild"), 0);
+    }
+}
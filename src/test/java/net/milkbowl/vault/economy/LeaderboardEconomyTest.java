@@ -0,0 +1,134 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class LeaderboardEconomyTest {
+
+    private static final double DELTA = 1e-9;
+
+    private MemoryEconomy backend;
+    private LeaderboardEconomy economy;
+    private OfflinePlayer alice;
+    private OfflinePlayer bob;
+
+    @Before
+    public void setUp() {
+        backend = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        economy = new LeaderboardEconomy(backend);
+        alice = TestPlayers.offline();
+        bob = TestPlayers.offline();
+        economy.createPlayerAccount(alice);
+        economy.createPlayerAccount(bob);
+    }
+
+    @Test
+    public void changesReorderTheLeaderboard() {
+        economy.depositPlayer(alice, 10);
+        economy.depositPlayer(bob, 20);
+        assertEquals(1, economy.rankOf(bob));
+        economy.withdrawPlayer(bob, 15);
+        List<BalanceLeaderboard.Entry> top = economy.top(2);
+        assertEquals(alice.getUniqueId(), top.get(0).player);
+        assertEquals(10, top.get(0).balance, DELTA);
+        assertEquals(5, top.get(1).balance, DELTA);
+    }
+
+    @Test
+    public void derivedVariantsAreTracked() {
+        economy.depositPlayerMinor(alice, 1250);
+        assertEquals(12.5, economy.top(1).get(0).balance, DELTA);
+    }
+
+    @Test
+    public void transfersUpdateBothPlayers() {
+        economy.depositPlayer(alice, 10);
+        economy.transfer(alice, bob, 4);
+        economy.transferAll(Arrays.asList(new Transfer(alice, bob, 1), new Transfer(bob, alice, 2)));
+        assertEquals(7, economy.top(1).get(0).balance, DELTA);
+        assertEquals(2, economy.rankOf(bob));
+    }
+
+    @Test
+    public void onlyTransferReceiversAreReadBack() {
+        AtomicInteger reads = new AtomicInteger();
+        LeaderboardEconomy counted = new LeaderboardEconomy(new ForwardingEconomy(backend) {
+            @Override
+            public double getBalance(OfflinePlayer player) {
+                reads.incrementAndGet();
+                return super.getBalance(player);
+            }
+        });
+        counted.depositPlayer(alice, 10);
+        counted.withdrawPlayer(alice, 2);
+        assertEquals(0, reads.get());
+        counted.transfer(alice, bob, 3);
+        assertEquals(1, reads.get());
+        assertEquals(5, counted.top(1).get(0).balance, DELTA);
+        assertEquals(2, counted.rankOf(bob));
+    }
+
+    @Test
+    public void seedLoadsExistingAccounts() {
+        OfflinePlayer carol = TestPlayers.offline();
+        backend.createPlayerAccount(carol);
+        backend.depositPlayer(carol, 50);
+        economy.seed(Arrays.asList(carol, TestPlayers.offline()));
+        assertEquals(1, economy.rankOf(carol));
+        assertEquals(3, economy.getLeaderboard().size());
+    }
+
+    @Test
+    public void concurrentChangesEndWithTheLatestBalance() throws Exception {
+        int threads = 4;
+        int deposits = 500;
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < deposits; i++) {
+                    economy.depositPlayer(alice, 1);
+                }
+            });
+            workers[t].start();
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        BalanceLeaderboard.Entry top = economy.top(1).get(0);
+        assertTrue(top.player.equals(alice.getUniqueId()));
+        assertEquals(threads * deposits, top.balance, DELTA);
+    }
+}
@@ -0,0 +1,142 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.TestServer;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MemoryEconomyTest {
+
+    private static final double DELTA = 1e-9;
+
+    private MemoryEconomy economy;
+    private OfflinePlayer player;
+
+    @Before
+    public void setUp() {
+        economy = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        player = TestPlayers.offline();
+    }
+
+    @Test
+    public void createBankReturnsSharedSuccess() {
+        assertSame(EconomyResponse.SUCCESS, economy.createBank("bank", player));
+        assertEquals(ResponseType.FAILURE, economy.createBank("bank", player).type);
+    }
+
+    @Test
+    public void failuresWithoutBalanceAreShared() {
+        EconomyResponse missing = economy.depositPlayer(player, 1);
+        assertEquals(ResponseType.FAILURE, missing.type);
+        assertEquals("Account does not exist", missing.errorMessage);
+        assertSame(missing, economy.withdrawPlayer(player, 1));
+        assertSame(economy.bankBalance("none"), economy.bankDeposit("none", 1));
+        economy.createPlayerAccount(player);
+        assertEquals("Cannot withdraw negative funds", economy.withdrawPlayer(player, -1).errorMessage);
+        assertSame(economy.depositPlayer(player, -1), economy.depositPlayer(player, -2));
+    }
+
+    @Test
+    public void accountsStartWithStartingBalance() {
+        MemoryEconomy economy = new MemoryEconomy("Memory", 2, "Coin", "Coins", 5, false);
+        assertFalse(economy.hasAccount(player));
+        assertTrue(economy.createPlayerAccount(player));
+        assertFalse(economy.createPlayerAccount(player));
+        assertEquals(5, economy.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void amountsAreRoundedToFractionalDigits() {
+        economy.createPlayerAccount(player);
+        EconomyResponse response = economy.depositPlayer(player, 1.234);
+        assertEquals(1.23, response.amount, DELTA);
+        assertEquals(1.23, economy.getBalance(player), DELTA);
+        assertEquals(123, economy.getBalanceMinor(player));
+    }
+
+    @Test
+    public void overdrawingFailsWithBalance() {
+        economy.createPlayerAccount(player);
+        economy.depositPlayer(player, 3);
+        EconomyResponse response = economy.withdrawPlayer(player, 4);
+        assertEquals(ResponseType.FAILURE, response.type);
+        assertEquals("Insufficient funds", response.errorMessage);
+        assertEquals(3, response.balance, DELTA);
+        assertTrue(economy.withdrawPlayer(player, 3).transactionSuccess());
+        assertEquals(0, economy.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void worldsShareAccountsUnlessPerWorld() {
+        economy.createPlayerAccount(player);
+        economy.depositPlayer(player, "nether", 2);
+        assertEquals(2, economy.getBalance(player), DELTA);
+
+        MemoryEconomy perWorld = new MemoryEconomy("Memory", 2, "Coin", "Coins", 0, true);
+        perWorld.createPlayerAccount(player);
+        assertFalse(perWorld.hasAccount(player, "nether"));
+        assertFalse(perWorld.depositPlayer(player, "nether", 2).transactionSuccess());
+        perWorld.createPlayerAccount(player, "nether");
+        perWorld.depositPlayer(player, "nether", 2);
+        assertEquals(2, perWorld.getBalance(player, "nether"), DELTA);
+        assertEquals(0, perWorld.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void transferToMissingAccountMovesNothing() {
+        OfflinePlayer other = TestPlayers.offline();
+        economy.createPlayerAccount(player);
+        economy.depositPlayer(player, 5);
+        assertEquals("Account does not exist", economy.transfer(player, other, 2).errorMessage);
+        assertEquals(5, economy.getBalance(player), DELTA);
+        economy.createPlayerAccount(other);
+        assertTrue(economy.transfer(player, other, 2).transactionSuccess());
+        assertEquals(3, economy.getBalance(player), DELTA);
+        assertEquals(2, economy.getBalance(other), DELTA);
+    }
+
+    @Test
+    public void banksKeepBalancesAndOwners() {
+        OfflinePlayer other = TestPlayers.offline();
+        economy.createBank("bank", player);
+        assertTrue(economy.bankDeposit("bank", 5).transactionSuccess());
+        assertEquals("Insufficient funds", economy.bankWithdraw("bank", 6).errorMessage);
+        assertEquals(5, economy.bankBalance("bank").balance, DELTA);
+        assertTrue(economy.isBankOwner("bank", player).transactionSuccess());
+        assertFalse(economy.isBankOwner("bank", other).transactionSuccess());
+        assertEquals(5, economy.deleteBank("bank").balance, DELTA);
+        assertTrue(economy.getBanks().isEmpty());
+    }
+
+    @Test
+    public void namesResolveThroughTheServer() {
+        TestServer.install();
+        OfflinePlayer alice = TestServer.register(TestPlayers.offline("alice"));
+        assertTrue(economy.createPlayerAccount("alice"));
+        economy.depositPlayer("alice", 4);
+        assertEquals(4, economy.getBalance(alice), DELTA);
+    }
+}
@@ -0,0 +1,117 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.List;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MeteredEconomyTest {
+
+    private MemoryEconomy backend;
+    private MeteredEconomy economy;
+    private OfflinePlayer player;
+
+    @Before
+    public void setUp() {
+        backend = new MemoryEconomy("Memory", 2, "Coin", "Coins", 10, false);
+        economy = new MeteredEconomy(backend);
+        player = TestPlayers.offline();
+        backend.createPlayerAccount(player);
+    }
+
+    private static MethodMetrics find(List<MethodMetrics> metrics, String caller, String method) {
+        for (MethodMetrics metric : metrics) {
+            if (metric.caller.equals(caller) && metric.method.equals(method)) {
+                return metric;
+            }
+        }
+        return null;
+    }
+
+    @Test
+    public void callsAndResponseTypesAreCounted() {
+        economy.depositPlayer(player, 5);
+        economy.withdrawPlayer(player, 100);
+        economy.withdrawPlayer(player, 1);
+        economy.getBalance(player);
+        List<MethodMetrics> metrics = economy.snapshot();
+        MethodMetrics withdraw = find(metrics, MeteredEconomy.UNKNOWN_CALLER, "withdrawPlayer(OfflinePlayer, double)");
+        assertEquals(2, withdraw.calls);
+        assertEquals(1, withdraw.getResponses(ResponseType.SUCCESS));
+        assertEquals(1, withdraw.getResponses(ResponseType.FAILURE));
+        MethodMetrics balance = find(metrics, MeteredEconomy.UNKNOWN_CALLER, "getBalance(OfflinePlayer)");
+        assertEquals(1, balance.calls);
+        assertEquals(0, balance.getResponses(ResponseType.SUCCESS));
+    }
+
+    @Test
+    public void resultVariantCountsTheResultType() {
+        EconomyResult result = new EconomyResult();
+        economy.withdrawPlayer(player, 100, result);
+        MethodMetrics metric = find(economy.snapshot(), MeteredEconomy.UNKNOWN_CALLER, "withdrawPlayer(OfflinePlayer, double, EconomyResult)");
+        assertEquals(1, metric.getResponses(ResponseType.FAILURE));
+    }
+
+    @Test
+    public void callersAreRecordedSeparately() {
+        MeteredEconomy shop = economy.forCaller("Shop");
+        shop.depositPlayer(player, 1);
+        economy.depositPlayer(player, 1);
+        List<MethodMetrics> metrics = economy.snapshot();
+        assertEquals(1, find(metrics, "Shop", "depositPlayer(OfflinePlayer, double)").calls);
+        assertEquals(1, find(metrics, MeteredEconomy.UNKNOWN_CALLER, "depositPlayer(OfflinePlayer, double)").calls);
+        assertEquals("Shop", shop.getCaller());
+    }
+
+    @Test
+    public void exceptionsAreCountedAndRethrown() {
+        MeteredEconomy failing = new MeteredEconomy(new ForwardingEconomy(backend) {
+            @Override
+            public double getBalance(OfflinePlayer player) {
+                throw new IllegalStateException("Database is down");
+            }
+        });
+        try {
+            failing.getBalance(player);
+            fail("Expected the exception to be rethrown");
+        } catch (IllegalStateException expected) {
+            // Rethrown unchanged
+        }
+        MethodMetrics metric = find(failing.snapshot(), MeteredEconomy.UNKNOWN_CALLER, "getBalance(OfflinePlayer)");
+        assertEquals(1, metric.calls);
+        assertEquals(1, metric.exceptions);
+    }
+
+    @Test
+    public void resetClearsEveryCaller() {
+        economy.forCaller("Shop").depositPlayer(player, 1);
+        economy.depositPlayer(player, 1);
+        economy.reset();
+        assertTrue(economy.snapshot().isEmpty());
+        assertNull(find(economy.snapshot(), "Shop", "depositPlayer(OfflinePlayer, double)"));
+    }
+}
@@ -0,0 +1,63 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class MinorUnitsTest {
+
+    @Test
+    public void digitsDefaultWhenEconomyDoesNotRound() {
+        assertEquals(MinorUnits.DEFAULT_DIGITS, MinorUnits.digits(-1));
+        assertEquals(0, MinorUnits.digits(0));
+        assertEquals(MinorUnits.MAX_DIGITS, MinorUnits.digits(40));
+    }
+
+    @Test
+    public void roundsHalfAwayFromZero() {
+        assertEquals(3, MinorUnits.toMinor(2.5, 0));
+        assertEquals(-3, MinorUnits.toMinor(-2.5, 0));
+        assertEquals(2, MinorUnits.toMinor(2.4, 0));
+        assertEquals(-2, MinorUnits.toMinor(-2.4, 0));
+        assertEquals(1235, MinorUnits.toMinor(12.345, 2));
+        assertEquals(-1235, MinorUnits.toMinor(-12.345, 2));
+    }
+
+    @Test
+    public void convertsBack() {
+        assertEquals(12.34, MinorUnits.toMajor(1234, 2), 0);
+        assertEquals(-0.05, MinorUnits.toMajor(-5, 2), 0);
+        assertEquals(1000, MinorUnits.scale(3));
+    }
+
+    @Test
+    public void saturatesOutOfRange() {
+        assertEquals(Long.MAX_VALUE, MinorUnits.toMinor(1e30, MinorUnits.MAX_DIGITS));
+        assertEquals(Long.MIN_VALUE, MinorUnits.toMinor(-1e30, MinorUnits.MAX_DIGITS));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNaN() {
+        MinorUnits.toMinor(Double.NaN, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInfinity() {
+        MinorUnits.toMinor(Double.NEGATIVE_INFINITY, 2);
+    }
+}
@@ -0,0 +1,87 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MultiCurrencyEconomyTest {
+
+    private static final double DELTA = 1e-9;
+
+    private CurrencyRegistry registry;
+    private Currency coins;
+    private Currency gems;
+    private MemoryEconomy economy;
+    private OfflinePlayer player;
+
+    @Before
+    public void setUp() {
+        registry = new CurrencyRegistry();
+        coins = registry.register("coins", 2, "Coin", "Coins");
+        gems = registry.register("gems", 0, "Gem", "Gems");
+        economy = new MemoryEconomy("Memory", registry, coins, 10, false);
+        player = TestPlayers.offline();
+    }
+
+    @Test
+    public void currenciesAreInterned() {
+        assertTrue(gems == registry.register("GEMS", 0, "Gem", "Gems"));
+        assertTrue(gems == registry.get("gems"));
+        assertTrue(gems == registry.get(gems.getId()));
+    }
+
+    @Test
+    public void currenciesHaveSeparateBalances() {
+        economy.createPlayerAccount(player);
+        assertEquals(0, economy.getBalance(player, gems), DELTA);
+        assertEquals(ResponseType.SUCCESS, economy.depositPlayer(player, gems, 3).type);
+        assertEquals(ResponseType.SUCCESS, economy.depositPlayer(player, gems, 4).type);
+        assertEquals(ResponseType.SUCCESS, economy.withdrawPlayer(player, gems, 2).type);
+        assertEquals(5, economy.getBalance(player, gems), DELTA);
+        assertEquals(10, economy.getBalance(player), DELTA);
+        assertEquals(10, economy.getBalance(player, coins), DELTA);
+    }
+
+    @Test
+    public void overdrawnCurrencyIsRejected() {
+        economy.createPlayerAccount(player);
+        economy.depositPlayer(player, gems, 1);
+        assertEquals(ResponseType.FAILURE, economy.withdrawPlayer(player, gems, 2).type);
+        assertEquals(1, economy.getBalance(player, gems), DELTA);
+    }
+
+    @Test
+    public void playerWithoutAccountHoldsNoCurrency() {
+        assertEquals(ResponseType.FAILURE, economy.depositPlayer(player, gems, 1).type);
+        assertFalse(economy.has(player, gems, 0));
+        assertEquals(0, economy.getBalance(player, gems), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void foreignCurrencyIsRejected() {
+        Currency foreign = new CurrencyRegistry().register("gems", 0, "Gem", "Gems");
+        economy.getBalance(player, foreign);
+    }
+}
@@ -0,0 +1,132 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ObservableEconomyTest {
+
+    private static final double DELTA = 1e-9;
+
+    private MemoryEconomy backend;
+    private ObservableEconomy economy;
+    private List<BalanceChange> changes;
+    private OfflinePlayer alice;
+    private OfflinePlayer bob;
+
+    @Before
+    public void setUp() {
+        backend = new MemoryEconomy("Memory", 2, "Coin", "Coins", 10, false);
+        economy = new ObservableEconomy(backend);
+        changes = new ArrayList<BalanceChange>();
+        alice = TestPlayers.offline();
+        bob = TestPlayers.offline();
+        backend.createPlayerAccount(alice);
+        backend.createPlayerAccount(bob);
+    }
+
+    @Test
+    public void depositAndWithdrawalAreDelivered() {
+        economy.subscribe(changes::add, Runnable::run);
+        economy.depositPlayer(alice, 5);
+        economy.withdrawPlayer(alice, 3);
+        assertEquals(2, changes.size());
+        assertEquals(10, changes.get(0).oldBalance, DELTA);
+        assertEquals(15, changes.get(0).newBalance, DELTA);
+        assertEquals(15, changes.get(1).oldBalance, DELTA);
+        assertEquals(12, changes.get(1).newBalance, DELTA);
+        assertEquals(alice.getUniqueId(), changes.get(0).player);
+    }
+
+    @Test
+    public void failedChangeIsNotDelivered() {
+        economy.subscribe(changes::add, Runnable::run);
+        economy.withdrawPlayer(alice, 100);
+        assertTrue(changes.isEmpty());
+    }
+
+    @Test
+    public void transferReportsBothBalances() {
+        economy.subscribe(changes::add, Runnable::run);
+        economy.transfer(alice, bob, 4);
+        assertEquals(2, changes.size());
+        BalanceChange sender = changes.get(0);
+        assertEquals(alice.getUniqueId(), sender.player);
+        assertEquals(10, sender.oldBalance, DELTA);
+        assertEquals(6, sender.newBalance, DELTA);
+        BalanceChange receiver = changes.get(1);
+        assertEquals(bob.getUniqueId(), receiver.player);
+        assertEquals(10, receiver.oldBalance, DELTA);
+        assertEquals(14, receiver.newBalance, DELTA);
+    }
+
+    @Test
+    public void batchMergesTransfersWithKnownBalances() {
+        economy.subscribeBatched(changes::add, Runnable::run);
+        economy.depositPlayer(bob, 1);
+        economy.transfer(alice, bob, 4);
+        economy.flush();
+        assertEquals(2, changes.size());
+        BalanceChange receiver = changes.get(0);
+        assertEquals(bob.getUniqueId(), receiver.player);
+        assertTrue(receiver.isBalanceKnown());
+        assertEquals(10, receiver.oldBalance, DELTA);
+        assertEquals(15, receiver.newBalance, DELTA);
+    }
+
+    @Test
+    public void transferAllReportsEachStep() {
+        economy.subscribe(changes::add, Runnable::run);
+        economy.transferAll(Arrays.asList(new Transfer(alice, bob, 4), new Transfer(alice, bob, 1), new Transfer(alice, bob, 100)));
+        assertEquals(4, changes.size());
+        assertEquals(10, changes.get(0).oldBalance, DELTA);
+        assertEquals(6, changes.get(0).newBalance, DELTA);
+        assertEquals(6, changes.get(2).oldBalance, DELTA);
+        assertEquals(5, changes.get(2).newBalance, DELTA);
+    }
+
+    @Test
+    public void batchMergesChangesPerAccount() {
+        economy.subscribeBatched(changes::add, Runnable::run);
+        economy.depositPlayer(alice, 5);
+        economy.withdrawPlayer(alice, 3);
+        economy.depositPlayer(bob, 1);
+        assertTrue(changes.isEmpty());
+        economy.flush();
+        assertEquals(2, changes.size());
+        assertEquals(10, changes.get(0).oldBalance, DELTA);
+        assertEquals(12, changes.get(0).newBalance, DELTA);
+        assertEquals(bob.getUniqueId(), changes.get(1).player);
+    }
+
+    @Test
+    public void cancelledSubscriptionGetsNothing() {
+        economy.subscribe(changes::add, Runnable::run).cancel();
+        economy.depositPlayer(alice, 5);
+        assertTrue(changes.isEmpty());
+    }
+}
@@ -0,0 +1,151 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReservationTest {
+
+    private static final double DELTA = 1e-9;
+
+    private TestEconomy economy;
+    private OfflinePlayer player;
+
+    @Before
+    public void setUp() {
+        economy = new TestEconomy();
+        player = TestPlayers.offline("alice");
+        economy.createPlayerAccount(player);
+        economy.depositPlayer(player, 10);
+    }
+
+    @Test
+    public void holdSetsFundsAside() {
+        Reservation reservation = economy.hold(player, 4);
+        assertTrue(reservation.isHeld());
+        assertEquals(6, economy.getBalance(player), DELTA);
+        assertFalse(economy.withdrawPlayer(player, 7).transactionSuccess());
+    }
+
+    @Test
+    public void failedHoldSetsNothingAside() {
+        Reservation reservation = economy.hold(player, 11);
+        assertEquals(Reservation.State.FAILED, reservation.getState());
+        assertFalse(reservation.getResponse().transactionSuccess());
+        assertEquals(10, economy.getBalance(player), DELTA);
+        assertFalse(economy.capture(reservation).transactionSuccess());
+    }
+
+    @Test
+    public void captureSpendsAndReleaseReturns() {
+        Reservation spent = economy.hold(player, 4);
+        EconomyResponse captured = economy.capture(spent);
+        assertTrue(captured.transactionSuccess());
+        assertEquals(4, captured.amount, DELTA);
+        assertEquals(6, captured.balance, DELTA);
+        assertEquals(Reservation.State.CAPTURED, spent.getState());
+
+        Reservation returned = economy.hold(player, 2);
+        assertTrue(economy.release(returned).transactionSuccess());
+        assertEquals(6, economy.getBalance(player), DELTA);
+        assertFalse(economy.release(returned).transactionSuccess());
+        assertFalse(economy.capture(returned).transactionSuccess());
+        assertEquals(6, economy.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void failedReleaseCanBeRetried() {
+        Reservation reservation = economy.hold(player, 3);
+        economy.closed.add("alice");
+        assertFalse(economy.release(reservation).transactionSuccess());
+        assertTrue(reservation.isHeld());
+        economy.closed.clear();
+        assertTrue(economy.release(reservation).transactionSuccess());
+        assertEquals(10, economy.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void reservationsBelongToTheirEconomy() {
+        TestEconomy other = new TestEconomy();
+        Reservation reservation = economy.hold(player, 4);
+        assertTrue(economy.owns(reservation));
+        assertFalse(other.owns(reservation));
+        try {
+            other.release(reservation);
+            fail("Expected a foreign reservation to be rejected");
+        } catch (IllegalArgumentException e) {
+            assertTrue(reservation.isHeld());
+        }
+        assertEquals(0, other.getBalance(player), DELTA);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void foreignReservationCannotBeCaptured() {
+        new TestEconomy().capture(economy.hold(player, 4));
+    }
+
+    @Test
+    public void onlyOneRacingCaptureOrReleaseWins() throws InterruptedException {
+        MemoryEconomy memory = new MemoryEconomy("Memory", 2, "Coin", "Coins", 10, false);
+        memory.createPlayerAccount(player);
+        for (int round = 0; round < 100; round++) {
+            Reservation reservation = memory.hold(player, 1);
+            CountDownLatch start = new CountDownLatch(1);
+            AtomicInteger wins = new AtomicInteger();
+            Thread capture = new Thread(() -> {
+                awaitQuietly(start);
+                if (memory.capture(reservation).transactionSuccess()) {
+                    wins.incrementAndGet();
+                }
+            });
+            Thread release = new Thread(() -> {
+                awaitQuietly(start);
+                if (memory.release(reservation).transactionSuccess()) {
+                    wins.incrementAndGet();
+                }
+            });
+            capture.start();
+            release.start();
+            start.countDown();
+            capture.join();
+            release.join();
+            assertEquals(1, wins.get());
+            double expected = reservation.getState() == Reservation.State.RELEASED ? 10 : 9;
+            assertEquals(expected, memory.getBalance(player), DELTA);
+            memory.depositPlayer(player, 10 - memory.getBalance(player));
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,222 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+/**
+ * A name keyed economy that overrides only what AbstractEconomy leaves abstract, so the Economy defaults run.
+ * Deposits to players added to {@link #closed} fail. Banks are only supported once {@link #bankSupport} is set,
+ * and {@link #bankLookups} counts calls to bankBalance.
+ */
+@SuppressWarnings("deprecation")
+class TestEconomy extends AbstractEconomy {
+
+    static final EconomyResponse NO_BANKS = new EconomyResponse(0, 0, ResponseType.NOT_IMPLEMENTED, "Banks are not supported");
+
+    final Map<String, Double> accounts = new HashMap<String, Double>();
+    final Set<String> closed = new HashSet<String>();
+    final Map<String, Double> banks = new LinkedHashMap<String, Double>();
+    boolean bankSupport;
+    int bankLookups;
+
+    private static String key(String name, String world) {
+        return world == null ? name : name + "@" + world;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String getName() {
+        return "Test";
+    }
+
+    @Override
+    public boolean hasBankSupport() {
+        return bankSupport;
+    }
+
+    @Override
+    public int fractionalDigits() {
+        return 2;
+    }
+
+    @Override
+    public String format(double amount) {
+        return String.valueOf(amount);
+    }
+
+    @Override
+    public String currencyNamePlural() {
+        return "coins";
+    }
+
+    @Override
+    public String currencyNameSingular() {
+        return "coin";
+    }
+
+    @Override
+    public boolean hasAccount(String playerName) {
+        return hasAccount(playerName, null);
+    }
+
+    @Override
+    public boolean hasAccount(String playerName, String worldName) {
+        return accounts.containsKey(key(playerName, worldName));
+    }
+
+    @Override
+    public double getBalance(String playerName) {
+        return getBalance(playerName, null);
+    }
+
+    @Override
+    public double getBalance(String playerName, String world) {
+        Double balance = accounts.get(key(playerName, world));
+        return balance == null ? 0 : balance;
+    }
+
+    @Override
+    public boolean has(String playerName, double amount) {
+        return getBalance(playerName) >= amount;
+    }
+
+    @Override
+    public boolean has(String playerName, String worldName, double amount) {
+        return getBalance(playerName, worldName) >= amount;
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, double amount) {
+        return withdrawPlayer(playerName, null, amount);
+    }
+
+    @Override
+    public EconomyResponse withdrawPlayer(String playerName, String worldName, double amount) {
+        Double balance = accounts.get(key(playerName, worldName));
+        if (balance == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Account does not exist");
+        }
+        if (balance < amount) {
+            return new EconomyResponse(0, balance, ResponseType.FAILURE, "Insufficient funds");
+        }
+        accounts.put(key(playerName, worldName), balance - amount);
+        return new EconomyResponse(amount, balance - amount, ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, double amount) {
+        return depositPlayer(playerName, null, amount);
+    }
+
+    @Override
+    public EconomyResponse depositPlayer(String playerName, String worldName, double amount) {
+        Double balance = accounts.get(key(playerName, worldName));
+        if (balance == null || closed.contains(playerName)) {
+            return new EconomyResponse(0, balance == null ? 0 : balance, ResponseType.FAILURE, "Account is closed");
+        }
+        accounts.put(key(playerName, worldName), balance + amount);
+        return new EconomyResponse(amount, balance + amount, ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName) {
+        return createPlayerAccount(playerName, null);
+    }
+
+    @Override
+    public boolean createPlayerAccount(String playerName, String worldName) {
+        return accounts.putIfAbsent(key(playerName, worldName), 0.0) == null;
+    }
+
+    @Override
+    public EconomyResponse createBank(String name, String player) {
+        if (!bankSupport) {
+            return NO_BANKS;
+        }
+        if (banks.putIfAbsent(name, 0.0) != null) {
+            return new EconomyResponse(0, banks.get(name), ResponseType.FAILURE, "Bank already exists");
+        }
+        return EconomyResponse.SUCCESS;
+    }
+
+    @Override
+    public EconomyResponse deleteBank(String name) {
+        if (!bankSupport) {
+            return NO_BANKS;
+        }
+        Double balance = banks.remove(name);
+        if (balance == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Bank does not exist");
+        }
+        return new EconomyResponse(0, balance, ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse bankBalance(String name) {
+        if (!bankSupport) {
+            return NO_BANKS;
+        }
+        bankLookups++;
+        Double balance = banks.get(name);
+        if (balance == null) {
+            return new EconomyResponse(0, 0, ResponseType.FAILURE, "Bank does not exist");
+        }
+        return new EconomyResponse(0, balance, ResponseType.SUCCESS, null);
+    }
+
+    @Override
+    public EconomyResponse bankHas(String name, double amount) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse bankWithdraw(String name, double amount) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse bankDeposit(String name, double amount) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse isBankOwner(String name, String playerName) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public EconomyResponse isBankMember(String name, String playerName) {
+        return NO_BANKS;
+    }
+
+    @Override
+    public List<String> getBanks() {
+        return new ArrayList<String>(banks.keySet());
+    }
+}
@@ -0,0 +1,88 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import net.milkbowl.vault.TestPlayers;
+import net.milkbowl.vault.economy.EconomyResponse.ResponseType;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransferTest {
+
+    private static final double DELTA = 1e-9;
+
+    private TestEconomy economy;
+    private OfflinePlayer alice;
+    private OfflinePlayer bob;
+
+    @Before
+    public void setUp() {
+        economy = new TestEconomy();
+        alice = TestPlayers.offline("alice");
+        bob = TestPlayers.offline("bob");
+        economy.createPlayerAccount(alice);
+        economy.createPlayerAccount(bob);
+        economy.depositPlayer(alice, 10);
+    }
+
+    @Test
+    public void transferMovesFunds() {
+        EconomyResponse response = economy.transfer(alice, bob, 4);
+        assertTrue(response.transactionSuccess());
+        assertEquals(6, response.balance, DELTA);
+        assertEquals(6, economy.getBalance(alice), DELTA);
+        assertEquals(4, economy.getBalance(bob), DELTA);
+    }
+
+    @Test
+    public void insufficientFundsMoveNothing() {
+        assertEquals(ResponseType.FAILURE, economy.transfer(alice, bob, 11).type);
+        assertEquals(10, economy.getBalance(alice), DELTA);
+        assertEquals(0, economy.getBalance(bob), DELTA);
+    }
+
+    @Test
+    public void failedDepositIsRefunded() {
+        economy.closed.add("bob");
+        EconomyResponse response = economy.transfer(alice, bob, 4);
+        assertFalse(response.transactionSuccess());
+        assertEquals("Account is closed", response.errorMessage);
+        assertEquals(0, response.amount, DELTA);
+        assertEquals(10, response.balance, DELTA);
+        assertEquals(10, economy.getBalance(alice), DELTA);
+    }
+
+    @Test
+    public void transferAllRespondsInOrder() {
+        List<EconomyResponse> responses = economy.transferAll(Arrays.asList(
+                new Transfer(alice, bob, 4), new Transfer(bob, alice, 5), new Transfer(bob, alice, 1)));
+        assertEquals(3, responses.size());
+        assertTrue(responses.get(0).transactionSuccess());
+        assertFalse(responses.get(1).transactionSuccess());
+        assertTrue(responses.get(2).transactionSuccess());
+        assertEquals(7, economy.getBalance(alice), DELTA);
+        assertEquals(3, economy.getBalance(bob), DELTA);
+    }
+}
@@ -0,0 +1,90 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.economy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Test;
+
+public class WorldEconomyTest {
+
+    private static final double DELTA = 1e-9;
+
+    private final OfflinePlayer player = TestPlayers.offline("alice");
+
+    @Test
+    public void defaultViewPassesTheWorldName() {
+        TestEconomy economy = new TestEconomy();
+        WorldEconomy nether = economy.forWorld("nether");
+        assertSame(economy, nether.getEconomy());
+        assertEquals("nether", nether.getWorld());
+        assertTrue(nether.createPlayerAccount(player));
+        assertTrue(nether.depositPlayer(player, 5).transactionSuccess());
+        assertTrue(nether.withdrawPlayer(player, 2).transactionSuccess());
+        assertTrue(nether.has(player, 3));
+        assertEquals(3, economy.getBalance(player, "nether"), DELTA);
+        assertFalse(economy.hasAccount(player));
+    }
+
+    @Test
+    public void defaultViewWithoutWorldUsesGlobalAccounts() {
+        TestEconomy economy = new TestEconomy();
+        WorldEconomy global = economy.forWorld(null);
+        assertNull(global.getWorld());
+        global.createPlayerAccount(player);
+        global.depositPlayer(player, 4);
+        assertEquals(4, economy.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void memoryViewsKeepWorldsApart() {
+        MemoryEconomy economy = new MemoryEconomy("Memory", 2, "Coin", "Coins", 0, true);
+        WorldEconomy nether = economy.forWorld("nether");
+        WorldEconomy end = economy.forWorld("end");
+        assertTrue(nether.createPlayerAccount(player));
+        nether.depositPlayer(player, 5);
+        assertFalse(end.hasAccount(player));
+        assertFalse(end.depositPlayer(player, 1).transactionSuccess());
+        assertEquals(5, economy.getBalance(player, "nether"), DELTA);
+        assertEquals("Insufficient funds", nether.withdrawPlayer(player, 6).errorMessage);
+    }
+
+    @Test
+    public void memoryViewSeesWorldCreatedAfterIt() {
+        MemoryEconomy economy = new MemoryEconomy("Memory", 2, "Coin", "Coins", 2, true);
+        WorldEconomy nether = economy.forWorld("nether");
+        assertFalse(nether.hasAccount(player));
+        economy.createPlayerAccount(player, "nether");
+        assertTrue(nether.hasAccount(player));
+        assertEquals(2, nether.getBalance(player), DELTA);
+    }
+
+    @Test
+    public void memoryViewsShareAccountsUnlessPerWorld() {
+        MemoryEconomy economy = new MemoryEconomy("Memory", 2, "Coin", "Coins");
+        economy.createPlayerAccount(player);
+        economy.forWorld("nether").depositPlayer(player, 3);
+        assertEquals(3, economy.forWorld("end").getBalance(player), DELTA);
+        assertEquals(3, economy.getBalance(player), DELTA);
+    }
+}
@@ -0,0 +1,122 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingPermissionTest {
+
+    private TestPermission provider;
+    private OfflinePlayer alice;
+    private OfflinePlayer bob;
+
+    @Before
+    public void setUp() {
+        provider = new TestPermission();
+        alice = TestPlayers.offline();
+        bob = TestPlayers.offline();
+        provider.playerAdd((String) null, alice.getName(), "vault.build");
+    }
+
+    @Test
+    public void repeatedChecksAreCached() {
+        CachingPermission cache = new CachingPermission(provider, 100);
+        assertTrue(cache.playerHas((String) null, alice, "vault.build"));
+        assertTrue(cache.playerHas((String) null, alice, "vault.build"));
+        assertFalse(cache.playerHas((String) null, alice, "vault.fly"));
+        assertEquals(2, provider.checks.get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void changeThroughCacheInvalidatesPlayer() {
+        CachingPermission cache = new CachingPermission(provider, 100);
+        cache.playerHas((String) null, bob, "vault.build");
+        assertFalse(cache.playerHas((String) null, alice, "vault.fly"));
+        cache.playerAdd((String) null, alice, "vault.fly");
+        assertTrue(cache.playerHas((String) null, alice, "vault.fly"));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void fullCacheForgetsEldestPlayer() {
+        CachingPermission cache = new CachingPermission(provider, 2);
+        cache.playerHas((String) null, alice, "vault.build");
+        cache.playerHas((String) null, bob, "vault.build");
+        cache.playerHas((String) null, bob, "vault.fly");
+        // Alice was forgotten, Bob's results stay
+        assertEquals(2, cache.size());
+        cache.playerHas((String) null, bob, "vault.build");
+        assertEquals(3, provider.checks.get());
+        cache.playerHas((String) null, alice, "vault.build");
+        assertEquals(4, provider.checks.get());
+    }
+
+    @Test
+    public void sizeIsExactAfterInvalidation() {
+        CachingPermission cache = new CachingPermission(provider, 100);
+        cache.playerHas((String) null, alice, "vault.build");
+        cache.playerHas("world", alice, "vault.build");
+        cache.playerHas((String) null, bob, "vault.build");
+        cache.invalidate(alice);
+        assertEquals(1, cache.size());
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        cache.playerHas((String) null, alice, "vault.build");
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void checksStartedBeforeInvalidateAllAreNotCounted() {
+        // The provider clears the cache while it is being asked, as a change event would
+        CachingPermission[] cache = new CachingPermission[1];
+        TestPermission clearing = new TestPermission() {
+            @Override
+            public boolean playerHas(String world, String player, String permission) {
+                cache[0].invalidateAll();
+                return super.playerHas(world, player, permission);
+            }
+        };
+        cache[0] = new CachingPermission(clearing, 100);
+        cache[0].playerHas((String) null, alice, "vault.build");
+        cache[0].playerHas((String) null, bob, "vault.build");
+        assertEquals(0, cache[0].size());
+    }
+
+    @Test
+    public void nullNodeIsPassedThrough() {
+        TestPermission nulls = new TestPermission() {
+            @Override
+            public boolean playerHas(String world, String player, String permission) {
+                checks.incrementAndGet();
+                return permission == null;
+            }
+        };
+        CachingPermission cache = new CachingPermission(nulls, 100);
+        assertTrue(cache.playerHas((String) null, alice, (String) null));
+        assertTrue(cache.playerHas((String) null, alice, (String) null));
+        assertEquals(2, nulls.checks.get());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,94 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import net.milkbowl.vault.TestPlayers;
+
+import org.bukkit.OfflinePlayer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PermissionNodeTest {
+
+    private TestPermission permission;
+    private OfflinePlayer player;
+
+    @Before
+    public void setUp() {
+        permission = new TestPermission();
+        player = TestPlayers.offline();
+    }
+
+    @Test
+    public void nodesGetDenseIds() {
+        PermissionNode build = permission.node("vault.build");
+        PermissionNode fly = permission.node("vault.fly");
+        assertEquals(0, build.getId());
+        assertEquals(1, fly.getId());
+        assertEquals(2, permission.nodeCount());
+    }
+
+    @Test
+    public void spellingsDifferingInCaseShareANode() {
+        assertTrue(permission.node("vault.build") == permission.node("Vault.Build"));
+        assertEquals(1, permission.nodeCount());
+    }
+
+    @Test
+    public void nodeIsCheckedByName() {
+        permission.playerAdd((String) null, player.getName(), "vault.build");
+        assertTrue(permission.playerHas((String) null, player, permission.node("vault.build")));
+        assertFalse(permission.playerHas((String) null, player, permission.node("vault.fly")));
+    }
+
+    @Test
+    public void nodeBelongsToItsPermission() {
+        PermissionNode node = permission.node("vault.build");
+        assertTrue(permission.owns(node));
+        assertFalse(new TestPermission().owns(node));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void foreignNodeIsRejected() {
+        PermissionNode foreign = new TestPermission().node("vault.build");
+        permission.playerHas((String) null, player, foreign);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void foreignNodeIsRejectedForGroups() {
+        PermissionNode foreign = new TestPermission().node("vault.build");
+        permission.groupHas((String) null, "admins", foreign);
+    }
+
+    @Test
+    public void cacheAcceptsNodesOfItsProvider() {
+        CachingPermission cache = new CachingPermission(permission, 100);
+        PermissionNode node = cache.node("vault.build");
+        assertTrue(permission.owns(node));
+        assertTrue(cache.owns(node));
+        assertFalse(cache.playerHas((String) null, player, node));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void cacheRejectsForeignNodes() {
+        CachingPermission cache = new CachingPermission(permission, 100);
+        cache.playerHas((String) null, player, new TestPermission().node("vault.build"));
+    }
+}
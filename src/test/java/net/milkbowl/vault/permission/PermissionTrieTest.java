@@ -0,0 +1,98 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.permission;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PermissionTrieTest {
+
+    private PermissionTrie trie;
+
+    @Before
+    public void setUp() {
+        trie = new PermissionTrie();
+    }
+
+    @Test
+    public void exactNodesMatchCaseInsensitively() {
+        trie.add("essentials.give");
+        assertTrue(trie.has("essentials.give"));
+        assertTrue(trie.has("Essentials.GIVE"));
+        assertFalse(trie.has("essentials"));
+        assertFalse(trie.has("essentials.give.other"));
+        assertNull(trie.getValue("essentials.kit"));
+    }
+
+    @Test
+    public void wildcardsMatchNodesBelowThem() {
+        trie.add("essentials.*");
+        assertTrue(trie.has("essentials.give"));
+        assertTrue(trie.has("essentials.give.other"));
+        assertFalse(trie.has("essentials"));
+        assertFalse(trie.has("worldedit.wand"));
+        trie.add("*");
+        assertTrue(trie.has("worldedit.wand"));
+    }
+
+    @Test
+    public void mostSpecificNodeWins() {
+        trie.addAll(Arrays.asList("essentials.*", "-essentials.give", "-essentials.kit.*", "essentials.kit.starter"));
+        assertTrue(trie.has("essentials.home"));
+        assertEquals(Boolean.FALSE, trie.getValue("essentials.give"));
+        assertFalse(trie.has("essentials.kit.tools"));
+        assertTrue(trie.has("essentials.kit.starter"));
+        assertTrue(trie.has("essentials.kit"));
+    }
+
+    @Test
+    public void putReplacesAndRemoveForgets() {
+        trie.put("essentials.give", true);
+        trie.put("essentials.give", false);
+        trie.add("essentials.*");
+        assertEquals(2, trie.size());
+        assertFalse(trie.has("essentials.give"));
+        assertTrue(trie.remove("-essentials.give"));
+        assertFalse(trie.remove("essentials.give"));
+        assertFalse(trie.remove("essentials.kit"));
+        assertTrue(trie.has("essentials.give"));
+        assertTrue(trie.remove("essentials.*"));
+        assertEquals(0, trie.size());
+        assertFalse(trie.has("essentials.give"));
+    }
+
+    @Test
+    public void manySiblingsStayReachable() {
+        for (int i = 0; i < 500; i++) {
+            trie.add("plugin.node" + i);
+        }
+        assertEquals(500, trie.size());
+        for (int i = 0; i < 500; i++) {
+            assertTrue(trie.has("plugin.node" + i));
+        }
+        assertFalse(trie.has("plugin.node500"));
+        trie.clear();
+        assertEquals(0, trie.size());
+        assertFalse(trie.has("plugin.node0"));
+    }
+}
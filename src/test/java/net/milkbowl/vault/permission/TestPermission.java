@@ -0,0 +1,119 @@
+/* This file is part of Vault.
+
+    Vault is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Lesser General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    Vault is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Lesser General Public License for more details.
+
+    You should have received a copy of the GNU Lesser General Public License
+    along with Vault.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package net.milkbowl.vault.permission;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A permission provider for tests, keeping the nodes of every player by name and counting player checks.
+ * Groups are not supported.
+ */
+@SuppressWarnings("deprecation")
+public class TestPermission extends Permission {
+
+    final AtomicInteger checks = new AtomicInteger();
+    private final Map<String, Set<String>> players = new ConcurrentHashMap<String, Set<String>>();
+
+    private Set<String> nodes(String world, String player) {
+        String key = world == null ? player : player + "@" + world;
+        return players.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet());
+    }
+
+    @Override
+    public String getName() {
+        return "Test";
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean hasSuperPermsCompat() {
+        return false;
+    }
+
+    @Override
+    public boolean playerHas(String world, String player, String permission) {
+        checks.incrementAndGet();
+        return nodes(world, player).contains(permission.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public boolean playerAdd(String world, String player, String permission) {
+        return nodes(world, player).add(permission.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public boolean playerRemove(String world, String player, String permission) {
+        return nodes(world, player).remove(permission.toLowerCase(Locale.ROOT));
+    }
+
+    @Override
+    public boolean groupHas(String world, String group, String permission) {
+        return false;
+    }
+
+    @Override
+    public boolean groupAdd(String world, String group, String permission) {
+        return false;
+    }
+
+    @Override
+    public boolean groupRemove(String world, String group, String permission) {
+        return false;
+    }
+
+    @Override
+    public boolean playerInGroup(String world, String player, String group) {
+        return false;
+    }
+
+    @Override
+    public boolean playerAddGroup(String world, String player, String group) {
+        return false;
+    }
+
+    @Override
+    public boolean playerRemoveGroup(String world, String player, String group) {
+        return false;
+    }
+
+    @Override
+    public String[] getPlayerGroups(String world, String player) {
+        return new String[0];
+    }
+
+    @Override
+    public String getPrimaryGroup(String world, String player) {
+        return null;
+    }
+
+    @Override
+    public String[] getGroups() {
+        return new String[0];
+    }
+
+    @Override
+    public boolean hasGroupSupport() {
+        return false;
+    }
+}